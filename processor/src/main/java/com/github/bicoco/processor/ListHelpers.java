@@ -0,0 +1,51 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generate a list helper specialized for the annotated class, named after
+ * it, like <code>PersonListHelper</code> for <code>Person</code>.
+ *
+ * For each property, a getter or a non-private field, the helper has
+ * <code>selectBy</code>, <code>sortBy</code>, <code>indexBy</code> and, for
+ * numbers, <code>sum</code> methods. They read the property directly in a
+ * plain loop, without function objects, reflection or boxing of primitives.
+ *
+ * <pre>
+ * &#64;ListHelpers
+ * public class Person { ... }
+ *
+ * List&lt;Person&gt; adults = new PersonListHelper(persons).selectByAgeGreaterThan(18);
+ * </pre>
+ *
+ * @since 1.4
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface ListHelpers {
+}
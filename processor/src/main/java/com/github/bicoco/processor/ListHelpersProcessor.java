@@ -0,0 +1,219 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generate the list helpers of the classes annotated with {@link ListHelpers}.
+ * The helper is written as source in the package of the class, so it is
+ * compiled with it and reads package-private fields too.
+ *
+ * @since 1.4
+ */
+@SupportedAnnotationTypes("com.github.bicoco.processor.ListHelpers")
+public class ListHelpersProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (Element element : round.getElementsAnnotatedWith(ListHelpers.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@ListHelpers must annotate a class");
+            } else if (!((TypeElement) element).getTypeParameters().isEmpty()) {
+                error(element, "@ListHelpers can't annotate a generic class");
+            } else {
+                generate((TypeElement) element);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        Elements elements = processingEnv.getElementUtils();
+        PackageElement pkg = elements.getPackageOf(type);
+        String helper = helperName(type);
+        String element = type.getNestingKind() == NestingKind.TOP_LEVEL
+                ? type.getSimpleName().toString() : type.getQualifiedName().toString();
+        PrintWriter out = null;
+        try {
+            String file = pkg.isUnnamed() ? helper : pkg.getQualifiedName() + "." + helper;
+            out = new PrintWriter(processingEnv.getFiler().createSourceFile(file, type).openWriter());
+            if (!pkg.isUnnamed()) {
+                out.println("package " + pkg.getQualifiedName() + ";");
+                out.println();
+            }
+            out.println("import java.util.ArrayList;");
+            out.println("import java.util.Collections;");
+            out.println("import java.util.Comparator;");
+            out.println("import java.util.HashMap;");
+            out.println("import java.util.List;");
+            out.println("import java.util.Map;");
+            out.println();
+            out.println("/**");
+            out.println(" * List helper specialized for {@link " + element + "}, generated by "
+                    + ListHelpersProcessor.class.getSimpleName() + ".");
+            out.println(" */");
+            out.println("public final class " + helper + " {");
+            out.println();
+            out.println("    private final List<" + element + "> list;");
+            out.println();
+            out.println("    public " + helper + "(List<" + element + "> list) {");
+            out.println("        this.list = list;");
+            out.println("    }");
+            out.println();
+            out.println("    public List<" + element + "> list() {");
+            out.println("        return list;");
+            out.println("    }");
+            for (Property property : properties(type).values()) {
+                property.write(out, element);
+            }
+            out.println("}");
+        } catch (IOException e) {
+            error(type, "Can't write " + helper + ": " + e.getMessage());
+        } finally {
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    private Map<String, Property> properties(TypeElement type) {
+        Map<String, Property> properties = new LinkedHashMap<String, Property>();
+        Elements elements = processingEnv.getElementUtils();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            String name = method.getSimpleName().toString();
+            TypeMirror returns = method.getReturnType();
+            if (!readable(method, type) || !method.getParameters().isEmpty()
+                    || returns.getKind() == TypeKind.VOID || name.equals("getClass")) {
+                continue;
+            }
+            if (name.startsWith("get") && name.length() > 3) {
+                add(properties, name.substring(3), name + "()", returns);
+            } else if (name.startsWith("is") && name.length() > 2 && returns.getKind() == TypeKind.BOOLEAN) {
+                add(properties, name.substring(2), name + "()", returns);
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(elements.getAllMembers(type))) {
+            if (readable(field, type)) {
+                add(properties, field.getSimpleName().toString(), field.getSimpleName().toString(), field.asType());
+            }
+        }
+        return properties;
+    }
+
+    private void add(Map<String, Property> properties, String name, String accessor, TypeMirror type) {
+        String key = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        if (properties.containsKey(key)) {
+            return;
+        }
+        Types types = processingEnv.getTypeUtils();
+        PrimitiveType primitive = null;
+        if (type.getKind().isPrimitive()) {
+            primitive = (PrimitiveType) type;
+        } else {
+            try {
+                primitive = types.unboxedType(type);
+            } catch (IllegalArgumentException e) {
+                // not a boxed primitive
+            }
+        }
+        Property.Kind kind = Property.Kind.OBJECT;
+        String boxed = type.toString();
+        if (primitive != null) {
+            boxed = types.boxedClass(primitive).getQualifiedName().toString();
+            switch (primitive.getKind()) {
+                case BOOLEAN:
+                    kind = Property.Kind.BOOLEAN;
+                    break;
+                case FLOAT:
+                case DOUBLE:
+                    kind = Property.Kind.FLOATING;
+                    break;
+                default:
+                    kind = Property.Kind.INTEGRAL;
+            }
+        }
+        TypeMirror comparable = types.erasure(processingEnv.getElementUtils().getTypeElement("java.lang.Comparable").asType());
+        properties.put(key, new Property(name, accessor, type.toString(),
+                primitive == null ? null : primitive.toString(), boxed, kind,
+                types.isAssignable(types.erasure(type), comparable)));
+    }
+
+    /**
+     * Members the generated helper, in the package of type, can read: public
+     * ones, or non-private ones declared in the same package. Protected
+     * members inherited from another package are not accessible.
+     */
+    private boolean readable(Element member, TypeElement type) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || member.getEnclosingElement().toString().equals("java.lang.Object")) {
+            return false;
+        }
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        return !modifiers.contains(Modifier.PRIVATE)
+                && elements.getPackageOf(member).equals(elements.getPackageOf(type));
+    }
+
+    private static String helperName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element outer = type.getEnclosingElement(); outer instanceof TypeElement; outer = outer.getEnclosingElement()) {
+            name.insert(0, outer.getSimpleName());
+        }
+        return name.append("ListHelper").toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.processor;
+
+import java.io.PrintWriter;
+
+/**
+ * Property of the annotated class and the helper methods generated for it.
+ */
+class Property {
+
+    enum Kind { INTEGRAL, FLOATING, BOOLEAN, OBJECT }
+
+    final String name;
+    final String accessor;
+    final String type;
+    final String primitive;
+    final String boxed;
+    final Kind kind;
+    final boolean comparable;
+
+    /**
+     * @param name name of property, like age
+     * @param accessor expression reading it from an element, like getAge()
+     * @param type declared type of property
+     * @param primitive primitive type of property, or null if it is not a number or boolean
+     * @param boxed type of property as a map key
+     * @param kind kind of value
+     * @param comparable true if values can be sorted
+     */
+    Property(String name, String accessor, String type, String primitive, String boxed, Kind kind, boolean comparable) {
+        this.name = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        this.accessor = accessor;
+        this.type = type;
+        this.primitive = primitive;
+        this.boxed = boxed;
+        this.kind = kind;
+        this.comparable = comparable;
+    }
+
+    private boolean isBoxed() {
+        return kind != Kind.OBJECT && !type.equals(primitive);
+    }
+
+    private boolean isSummable() {
+        return (kind == Kind.INTEGRAL && !primitive.equals("char")) || kind == Kind.FLOATING;
+    }
+
+    void write(PrintWriter out, String element) {
+        if (kind == Kind.INTEGRAL || kind == Kind.FLOATING) {
+            writeSelect(out, element, "GreaterThan", primitive, "v > value");
+            writeSelect(out, element, "LessThan", primitive, "v < value");
+            writeSelect(out, element, "EqualTo", primitive, "v == value");
+        } else if (kind == Kind.BOOLEAN) {
+            writeSelect(out, element, "", primitive, "v == value");
+        } else {
+            writeSelect(out, element, "EqualTo", type, "value == null ? v == null : value.equals(v)");
+        }
+        if (kind != Kind.OBJECT || comparable) {
+            writeSort(out, element);
+        }
+        if (isSummable()) {
+            writeSum(out, element);
+        }
+        writeIndex(out, element);
+    }
+
+    private void writeSelect(PrintWriter out, String element, String suffix, String parameter, String condition) {
+        String test = isBoxed() ? "v != null && " + condition : condition;
+        out.println();
+        out.println("    /**");
+        out.println("     * Select the elements with " + describe() + " " + describe(suffix) + " value.");
+        out.println("     */");
+        out.println("    public List<" + element + "> selectBy" + name + suffix + "(" + parameter + " value) {");
+        out.println("        List<" + element + "> result = new ArrayList<" + element + ">();");
+        out.println("        for (" + element + " t : list) {");
+        out.println("            " + type + " v = t." + accessor + ";");
+        out.println("            if (" + test + ") {");
+        out.println("                result.add(t);");
+        out.println("            }");
+        out.println("        }");
+        out.println("        return result;");
+        out.println("    }");
+    }
+
+    private void writeSort(PrintWriter out, String element) {
+        out.println();
+        out.println("    /**");
+        out.println("     * Sort a copy of list by " + describe() + (kind == Kind.OBJECT || isBoxed() ? ", nulls first." : "."));
+        out.println("     */");
+        out.println("    public List<" + element + "> sortBy" + name + "() {");
+        out.println("        List<" + element + "> result = new ArrayList<" + element + ">(list);");
+        out.println("        Collections.sort(result, new " + name + "Order());");
+        out.println("        return result;");
+        out.println("    }");
+        out.println();
+        out.println("    private static final class " + name + "Order implements Comparator<" + element + "> {");
+        out.println("        public int compare(" + element + " a, " + element + " b) {");
+        String x = "a." + accessor, y = "b." + accessor;
+        if (kind == Kind.OBJECT || isBoxed()) {
+            out.println("            " + type + " bx = " + x + ", by = " + y + ";");
+            out.println("            if (bx == null || by == null) {");
+            out.println("                return bx == null ? (by == null ? 0 : -1) : 1;");
+            out.println("            }");
+            x = "bx";
+            y = "by";
+        }
+        if (kind == Kind.OBJECT) {
+            out.println("            return bx.compareTo(by);");
+        } else {
+            out.println("            " + primitive + " x = " + x + ", y = " + y + ";");
+            if (kind == Kind.FLOATING) {
+                out.println("            return Double.compare(x, y);");
+            } else if (kind == Kind.BOOLEAN) {
+                out.println("            return x == y ? 0 : (x ? 1 : -1);");
+            } else {
+                out.println("            return x < y ? -1 : (x == y ? 0 : 1);");
+            }
+        }
+        out.println("        }");
+        out.println("    }");
+    }
+
+    private void writeSum(PrintWriter out, String element) {
+        String result = kind == Kind.FLOATING ? "double" : "long";
+        out.println();
+        out.println("    /**");
+        out.println("     * Sum " + describe() + " of all elements" + (isBoxed() ? ", skipping nulls." : "."));
+        out.println("     */");
+        out.println("    public " + result + " sum" + name + "() {");
+        out.println("        " + result + " sum = 0;");
+        out.println("        for (" + element + " t : list) {");
+        if (isBoxed()) {
+            out.println("            " + type + " v = t." + accessor + ";");
+            out.println("            if (v != null) {");
+            out.println("                sum += v;");
+            out.println("            }");
+        } else {
+            out.println("            sum += t." + accessor + ";");
+        }
+        out.println("        }");
+        out.println("        return sum;");
+        out.println("    }");
+    }
+
+    private void writeIndex(PrintWriter out, String element) {
+        out.println();
+        out.println("    /**");
+        out.println("     * Map " + describe() + " to the last element with it.");
+        out.println("     */");
+        out.println("    public Map<" + boxed + ", " + element + "> indexBy" + name + "() {");
+        out.println("        Map<" + boxed + ", " + element + "> result = new HashMap<" + boxed + ", " + element + ">();");
+        out.println("        for (" + element + " t : list) {");
+        out.println("            result.put(t." + accessor + ", t);");
+        out.println("        }");
+        out.println("        return result;");
+        out.println("    }");
+    }
+
+    private String describe() {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String describe(String suffix) {
+        if (suffix.equals("GreaterThan")) {
+            return "greater than";
+        } else if (suffix.equals("LessThan")) {
+            return "less than";
+        }
+        return "equal to";
+    }
+}
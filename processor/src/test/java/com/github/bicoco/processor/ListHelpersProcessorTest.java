@@ -0,0 +1,152 @@
+package com.github.bicoco.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ListHelpersProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String PERSON =
+            "package people;\n" +
+            "@com.github.bicoco.processor.ListHelpers\n" +
+            "public class Person {\n" +
+            "  private String name;\n" +
+            "  private Integer age;\n" +
+            "  double height;\n" +
+            "  private boolean active;\n" +
+            "  public Person(String name, Integer age, double height, boolean active) {\n" +
+            "    this.name = name; this.age = age; this.height = height; this.active = active;\n" +
+            "  }\n" +
+            "  public String getName() { return name; }\n" +
+            "  public Integer getAge() { return age; }\n" +
+            "  public boolean isActive() { return active; }\n" +
+            "  public String toString() { return name; }\n" +
+            "}\n";
+
+    private String compile(String... namesAndSources) throws IOException {
+        File sources = folder.newFolder("src");
+        File classes = folder.newFolder("classes");
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < namesAndSources.length; i += 2) {
+            File file = new File(sources, namesAndSources[i]);
+            file.getParentFile().mkdirs();
+            Writer writer = new FileWriter(file);
+            writer.write(namesAndSources[i + 1]);
+            writer.close();
+            files.add(file);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager manager = compiler.getStandardFileManager(null, null, null);
+        StringWriter errors = new StringWriter();
+        JavaCompiler.CompilationTask task = compiler.getTask(errors, manager, null,
+                Arrays.asList("-d", classes.getPath(), "-s", classes.getPath(),
+                        "-classpath", System.getProperty("java.class.path")),
+                null, manager.getJavaFileObjectsFromFiles(files));
+        task.setProcessors(Arrays.asList(new ListHelpersProcessor()));
+        boolean success = task.call();
+        manager.close();
+        return success ? null : errors.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Test void generateHelperForPerson() throws Exception {
+        assertEquals(null, compile("people/Person.java", PERSON));
+
+        File classes = new File(folder.getRoot(), "classes");
+        String generated = new Scanner(new File(classes, "people/PersonListHelper.java")).useDelimiter("\\Z").next();
+        assertFalse(generated.contains("reflect"));
+        assertFalse(generated.contains("Function"));
+
+        ClassLoader loader = new URLClassLoader(new URL[] {classes.toURI().toURL()}, getClass().getClassLoader());
+        Class<?> person = loader.loadClass("people.Person");
+        Class<?> helper = loader.loadClass("people.PersonListHelper");
+        List<Object> persons = new ArrayList<Object>();
+        Object[][] values = {{"David", 27, 1.8, true}, {"André", 30, 1.7, false}, {"Fernando", 25, 1.9, true}, {"Lucas", 15, 1.6, true}, {"Nobody", null, 0.0, false}};
+        for (Object[] v : values) {
+            persons.add(person.getConstructor(String.class, Integer.class, double.class, boolean.class).newInstance(v));
+        }
+        Object instance = helper.getConstructor(List.class).newInstance(persons);
+
+        assertEquals("[David, André, Fernando]", invoke(helper, instance, "selectByAgeGreaterThan", int.class, 18).toString());
+        assertEquals("[Lucas]", invoke(helper, instance, "selectByAgeLessThan", int.class, 18).toString());
+        assertEquals("[André, David, Fernando, Lucas, Nobody]", invoke(helper, instance, "sortByName").toString());
+        assertEquals("[Nobody, Lucas, Fernando, David, André]", invoke(helper, instance, "sortByAge").toString());
+        assertEquals(97L, invoke(helper, instance, "sumAge"));
+        assertEquals(7.0, (Double) invoke(helper, instance, "sumHeight"), 1e-9);
+        assertEquals("[David, Fernando, Lucas]", invoke(helper, instance, "selectByActive", boolean.class, true).toString());
+        assertEquals("[Lucas]", invoke(helper, instance, "selectByNameEqualTo", String.class, "Lucas").toString());
+
+        Map<String, Object> index = (Map<String, Object>) invoke(helper, instance, "indexByName");
+        assertEquals(5, index.size());
+        assertTrue(index.get("David") == persons.get(0));
+    }
+
+    public @Test void skipProtectedMembersOfSuperclassInOtherPackage() throws Exception {
+        String entity =
+                "package base;\n" +
+                "public class Entity {\n" +
+                "  protected long id;\n" +
+                "  long version;\n" +
+                "  protected String getCode() { return \"c\" + id; }\n" +
+                "  public String getLabel() { return \"l\" + id; }\n" +
+                "}\n";
+        String person =
+                "package people;\n" +
+                "@com.github.bicoco.processor.ListHelpers\n" +
+                "public class Person extends base.Entity {\n" +
+                "  protected int age;\n" +
+                "}\n";
+        assertEquals(null, compile("base/Entity.java", entity, "people/Person.java", person));
+
+        File classes = new File(folder.getRoot(), "classes");
+        String generated = new Scanner(new File(classes, "people/PersonListHelper.java")).useDelimiter("\\Z").next();
+        assertTrue(generated.contains("getLabel()"));
+        assertTrue(generated.contains("t.age"));
+        assertFalse(generated.contains("getCode()"));
+        assertFalse(generated.contains("t.id"));
+        assertFalse(generated.contains("t.version"));
+    }
+
+    public @Test void refuseGenericClass() throws Exception {
+        String error = compile("Box.java", "@com.github.bicoco.processor.ListHelpers public class Box<T> { }");
+        assertTrue(error, error.contains("generic class"));
+    }
+
+    private static Object invoke(Class<?> type, Object target, String name, Object... args) throws Exception {
+        Class<?>[] parameters = new Class<?>[args.length / 2];
+        Object[] values = new Object[args.length / 2];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = (Class<?>) args[2 * i];
+            values[i] = args[2 * i + 1];
+        }
+        Method method = type.getMethod(name, parameters);
+        return method.invoke(target, values);
+    }
+
+}
@@ -23,9 +23,17 @@
 package com.github.bicoco;
 
 import com.github.bicoco.collections.*;
+import com.github.bicoco.collections.external.CloseableIterator;
+import com.github.bicoco.collections.external.ElementCodec;
 import com.github.bicoco.collections.functions.*;
+import com.github.bicoco.collections.sketch.BloomFilter;
 
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * This library is a collection of auxiliary methods for accessing,
@@ -70,6 +78,34 @@ public class Helpers {
         return new ListHelper<T>(list).transform(function);
     }
 
+    /**
+     * Transform the elements of list when they are read, caching the results.
+     * The cache is dropped when the list changes size or structure. Replacing
+     * elements with set, including with {@link #map$(List, MapFunction)} or
+     * {@link #setAll(List, int[], Object[])}, is not noticed: to have those
+     * drop the cache, make the view and the changes with the same
+     * {@link ListHelper}.
+     * @param list list of elements
+     * @param function function that transforms each element read
+     * @return read-only view of the transformed elements
+     * @since 1.4
+     */
+    public static <T,R> List<R> transformView(List<T> list, TransformFunction<T,R> function) {
+        return new ListHelper<T>(list).transformView(function);
+    }
+
+    /**
+     * Transform the elements of list when they are read.
+     * @param list list of elements
+     * @param function function that transforms each element read
+     * @param cache true to cache the results, false to transform on each read
+     * @return read-only view of the transformed elements
+     * @since 1.4
+     */
+    public static <T,R> List<R> transformView(List<T> list, TransformFunction<T,R> function, boolean cache) {
+        return new ListHelper<T>(list).transformView(function, cache);
+    }
+
     // ------------------------------------------------------------------
     // Selecting Methods
     // ------------------------------------------------------------------
@@ -94,6 +130,307 @@ public class Helpers {
         return new ListHelper<T>(list).reject(function);
     }
 
+    /**
+     * Select the indexes of all elements that condition returns true, without
+     * copying the elements.
+     * @param list list of elements to iterate
+     * @param function Apply in each element and select if returns true.
+     * @return mask of the indexes where the condition is true.
+     * @since 1.4
+     */
+    public static <T> IndexMask selectMask(List<T> list, ConditionFunction<T> function) {
+        return new ListHelper<T>(list).selectMask(function);
+    }
+
+    /**
+     * Return a read-only view of the elements at the indexes of mask.
+     * @param list list of elements
+     * @param mask indexes of the elements
+     * @return list of the elements at the indexes of mask
+     * @since 1.4
+     */
+    public static <T> List<T> view(List<T> list, IndexMask mask) {
+        return new ListHelper<T>(list).view(mask);
+    }
+
+    /**
+     * Start a query over the elements of list, planned before it runs.
+     * @param list list of elements
+     * @return query over the elements
+     * @since 1.4
+     */
+    public static <T> Query<T> query(List<T> list) {
+        return new ListHelper<T>(list).query();
+    }
+
+    /**
+     * Helper to a list sorted by comparator, searching with binary search.
+     * @param list the sorted list
+     * @param comparator order of the list
+     * @return helper to the sorted list
+     * @since 1.4
+     */
+    public static <T> SortedListHelper<T> sorted(List<T> list, Comparator<? super T> comparator) {
+        return new SortedListHelper<T>(list, comparator);
+    }
+
+    /**
+     * Helper to a list sorted by ascending numeric key, searching with
+     * interpolation search.
+     * @param list the sorted list
+     * @param key key of the elements
+     * @return helper to the sorted list
+     * @since 1.4
+     */
+    public static <T> SortedListHelper<T> sorted(List<T> list, KeyFunction<? super T> key) {
+        return new SortedListHelper<T>(list, key);
+    }
+
+    // ------------------------------------------------------------------
+    // Joining Methods
+    // ------------------------------------------------------------------
+
+    /**
+     * Combine each element with each element of other list with the same key.
+     * @param list list of elements
+     * @param other list to join
+     * @param leftKey key of the elements of list
+     * @param rightKey key of the elements of other list
+     * @param combiner function that combines two elements with the same key
+     * @return list of combined elements, in the order of list
+     * @since 1.4
+     */
+    public static <T, R, K, V> List<V> join(List<T> list, List<R> other, TransformFunction<T, K> leftKey,
+                                            TransformFunction<R, K> rightKey, BiTransformFunction<T, R, V> combiner) {
+        return new ListHelper<T>(list).join(other, leftKey, rightKey, combiner);
+    }
+
+    /**
+     * Join the elements of list with the elements of other list with the same key.
+     * @param list list of elements
+     * @param other list to join
+     * @param leftKey key of the elements of list
+     * @param rightKey key of the elements of other list
+     * @param combiner function that combines two elements with the same key
+     * @param type kind of join
+     * @return list of combined elements, in the order of list
+     * @since 1.4
+     */
+    public static <T, R, K, V> List<V> join(List<T> list, List<R> other, TransformFunction<T, K> leftKey,
+                                            TransformFunction<R, K> rightKey, BiTransformFunction<T, R, V> combiner,
+                                            JoinType type) {
+        return new ListHelper<T>(list).join(other, leftKey, rightKey, combiner, type);
+    }
+
+    /**
+     * Join the elements of list with the elements of other list with the same key, in parallel.
+     * @param list list of elements
+     * @param other list to join
+     * @param leftKey key of the elements of list
+     * @param rightKey key of the elements of other list
+     * @param combiner function that combines two elements with the same key
+     * @param type kind of join
+     * @param executor executor to run the phases of the join
+     * @return list of combined elements, in the order of list
+     * @since 1.4
+     */
+    public static <T, R, K, V> List<V> join(List<T> list, List<R> other, TransformFunction<T, K> leftKey,
+                                            TransformFunction<R, K> rightKey, BiTransformFunction<T, R, V> combiner,
+                                            JoinType type, ExecutorService executor) {
+        return new ListHelper<T>(list).join(other, leftKey, rightKey, combiner, type, executor);
+    }
+
+    /**
+     * Join two lists sorted by key, walking both lists once.
+     * @param list list of elements sorted by key
+     * @param other list to join sorted by key
+     * @param leftKey key of the elements of list
+     * @param rightKey key of the elements of other list
+     * @param combiner function that combines two elements with the same key
+     * @param type kind of join
+     * @param comparator order of the keys in both lists
+     * @return list of combined elements, in the order of list
+     * @since 1.4
+     */
+    public static <T, R, K, V> List<V> mergeJoin(List<T> list, List<R> other, TransformFunction<T, K> leftKey,
+                                                 TransformFunction<R, K> rightKey, BiTransformFunction<T, R, V> combiner,
+                                                 JoinType type, Comparator<? super K> comparator) {
+        return new ListHelper<T>(list).mergeJoin(other, leftKey, rightKey, combiner, type, comparator);
+    }
+
+    /**
+     * Elements of list followed by the elements of other list, without duplicates.
+     * @param list list of elements
+     * @param other other list
+     * @return elements of both lists, without duplicates
+     * @since 1.4
+     */
+    public static <T> List<T> union(List<T> list, List<T> other) {
+        return new ListHelper<T>(list).union(other);
+    }
+
+    /**
+     * Elements of list followed by the elements of other list, without duplicates.
+     * Elements are compared by the key returned by function.
+     * @param list list of elements
+     * @param other other list
+     * @param key the function to get the key of element
+     * @return elements of both lists, without duplicates
+     * @since 1.4
+     */
+    public static <T, K> List<T> union(List<T> list, List<T> other, TransformFunction<T, K> key) {
+        return new ListHelper<T>(list).union(other, key);
+    }
+
+    /**
+     * Elements of list that are also in other list, without duplicates, in the order of list.
+     * @param list list of elements
+     * @param other other list
+     * @return elements of list also in other list
+     * @since 1.4
+     */
+    public static <T> List<T> intersect(List<T> list, List<T> other) {
+        return new ListHelper<T>(list).intersect(other);
+    }
+
+    /**
+     * Elements of list that are also in other list, without duplicates, in the order of list.
+     * Elements are compared by the key returned by function.
+     * @param list list of elements
+     * @param other other list
+     * @param key the function to get the key of element
+     * @return elements of list also in other list
+     * @since 1.4
+     */
+    public static <T, K> List<T> intersect(List<T> list, List<T> other, TransformFunction<T, K> key) {
+        return new ListHelper<T>(list).intersect(other, key);
+    }
+
+    /**
+     * Elements of list that are not in other list, keeping duplicates, in the order of list.
+     * @param list list of elements
+     * @param other other list
+     * @return elements of list not in other list
+     * @since 1.4
+     */
+    public static <T> List<T> difference(List<T> list, List<T> other) {
+        return new ListHelper<T>(list).difference(other);
+    }
+
+    /**
+     * Elements of list that are not in other list, keeping duplicates, in the order of list.
+     * Elements are compared by the key returned by function.
+     * @param list list of elements
+     * @param other other list
+     * @param key the function to get the key of element
+     * @return elements of list not in other list
+     * @since 1.4
+     */
+    public static <T, K> List<T> difference(List<T> list, List<T> other, TransformFunction<T, K> key) {
+        return new ListHelper<T>(list).difference(other, key);
+    }
+
+    /**
+     * Elements of list that are not in other list followed by the elements
+     * of other list that are not in list, without duplicates.
+     * @param list list of elements
+     * @param other other list
+     * @return elements in only one of the lists
+     * @since 1.4
+     */
+    public static <T> List<T> symmetricDifference(List<T> list, List<T> other) {
+        return new ListHelper<T>(list).symmetricDifference(other);
+    }
+
+    /**
+     * Elements of list that are not in other list followed by the elements
+     * of other list that are not in list, without duplicates.
+     * Elements are compared by the key returned by function.
+     * @param list list of elements
+     * @param other other list
+     * @param key the function to get the key of element
+     * @return elements in only one of the lists
+     * @since 1.4
+     */
+    public static <T, K> List<T> symmetricDifference(List<T> list, List<T> other, TransformFunction<T, K> key) {
+        return new ListHelper<T>(list).symmetricDifference(other, key);
+    }
+
+    /**
+     * Compute the changes that turn list into other list.
+     * @param list source list
+     * @param other target list
+     * @return changes to apply with {@link #patch$(List, EditScript)}
+     * @since 1.4
+     */
+    public static <T> EditScript<T> diff(List<T> list, List<T> other) {
+        return new ListHelper<T>(list).diff(other);
+    }
+
+    /**
+     * Combine the elements at the same index of list and other list.
+     * @param list list of elements
+     * @param other list to combine
+     * @param function function that combines two elements
+     * @return list of combined elements, as long as the shortest list
+     * @since 1.4
+     */
+    public static <T, U, R> List<R> zip(List<T> list, List<U> other, BiTransformFunction<T, U, R> function) {
+        return new ListHelper<T>(list).zip(other, function);
+    }
+
+    /**
+     * Execute a custom action for the elements at the same index of list and other list.
+     * @param list list of elements
+     * @param other list to walk with list
+     * @param function function to execute with each pair of elements
+     * @since 1.4
+     */
+    public static <T, U> void zipEach(List<T> list, List<U> other, BiEachFunction<T, U> function) {
+        new ListHelper<T>(list).zipEach(other, function);
+    }
+
+    /**
+     * Merge lists sorted by comparator in a new sorted list.
+     * @param lists sorted lists
+     * @param comparator order of the lists
+     * @return sorted list of all elements
+     * @since 1.4
+     */
+    public static <T> List<T> mergeSorted(List<? extends List<? extends T>> lists, Comparator<? super T> comparator) {
+        return ListHelper.mergeSorted(lists, comparator);
+    }
+
+    /**
+     * Merge lists sorted by comparator as they are iterated.
+     * @param lists sorted lists
+     * @param comparator order of the lists
+     * @return iterator over all elements in order
+     * @since 1.4
+     */
+    public static <T> Iterator<T> mergeSortedIterator(List<? extends List<? extends T>> lists,
+                                                     Comparator<? super T> comparator) {
+        return ListHelper.mergeSortedIterator(lists, comparator);
+    }
+
+    /**
+     * Sort the elements of list in a streaming iterator, spilling sorted
+     * chunks of at most maxInMemory elements to temporary files. The budget
+     * is a number of elements, not of bytes. The iterator must be closed,
+     * unless it is exhausted, to delete the temporary files.
+     * @param list list of elements
+     * @param comparator order of the elements
+     * @param codec codec to write and read the elements in the temporary files
+     * @param maxInMemory number of elements sorted in memory before spilling them
+     * @return iterator of the sorted elements
+     * @throws IOException if the temporary files can't be written
+     * @since 1.4
+     */
+    public static <T> CloseableIterator<T> sortExternal(List<T> list, Comparator<? super T> comparator,
+                                                       ElementCodec<T> codec, int maxInMemory) throws IOException {
+        return new ListHelper<T>(list).sortExternal(comparator, codec, maxInMemory);
+    }
+
     // ------------------------------------------------------------------
     // Modifying Methods
     // ------------------------------------------------------------------
@@ -107,6 +444,17 @@ public class Helpers {
         new ListHelper<T>(list).map$(function);
     }
 
+    /**
+     * Modifing list applying new value for each element, in parallel.
+     * @param list list of elements
+     * @param function function to apply in each value that returns the new value
+     * @param executor executor to update the ranges
+     * @since 1.4
+     */
+    public static <T> void map$(List<T> list, MapFunction<T> function, ExecutorService executor) {
+        new ListHelper<T>(list).map$(function, executor);
+    }
+
     /**
      * Select all elements that condition returns true.
      * @param list values list of elements
@@ -116,6 +464,17 @@ public class Helpers {
         new ListHelper<T>(list).select$(function);
     }
 
+    /**
+     * Select all elements that condition returns true, in parallel.
+     * @param list list of elements
+     * @param function Apply in each element and select if returns true.
+     * @param executor executor to test and move the ranges
+     * @since 1.4
+     */
+    public static <T> void select$(List<T> list, ConditionFunction<T> function, ExecutorService executor) {
+        new ListHelper<T>(list).select$(function, executor);
+    }
+
     /**
      * Select all elements that condition returns false.
      * @param list values list of elements
@@ -133,6 +492,16 @@ public class Helpers {
         new ListHelper<T>(list).compact$();
     }
 
+    /**
+     * Apply the changes of a script made by {@link #diff(List, List)} to list.
+     * @param list list equal to the source list of the script
+     * @param script changes to apply
+     * @since 1.4
+     */
+    public static <T> void patch$(List<T> list, EditScript<T> script) {
+        new ListHelper<T>(list).patch$(script);
+    }
+
     /**
      * Adding multiple elements to the end of list.
      * @param list values list of elements
@@ -188,6 +557,31 @@ public class Helpers {
         return new ListHelper<T>(list).fetch(index, def);
     }
 
+    /**
+     * Get the elements of list at many indexes, or def for indexes out of range.
+     * @param list list of elements
+     * @param indexes indexes of the elements
+     * @param def value of the indexes out of range
+     * @return list with the element of each index, in the order of indexes
+     * @since 1.4
+     */
+    public static <T> List<T> fetchAll(List<T> list, int[] indexes, T def) {
+        return new ListHelper<T>(list).fetchAll(indexes, def);
+    }
+
+    /**
+     * Set the element of list at each index to the value at the same position,
+     * ignoring indexes out of range.
+     * @param list list of elements
+     * @param indexes indexes of the elements
+     * @param values new values, one for each index
+     * @return number of elements set
+     * @since 1.4
+     */
+    public static <T> int setAll(List<T> list, int[] indexes, T[] values) {
+        return new ListHelper<T>(list).setAll(indexes, values);
+    }
+
     /**
      * Get the first element of list.
      * @param list list of elements
@@ -226,6 +620,45 @@ public class Helpers {
         return new ListHelper<T>(list).drop(n);
     }
 
+    /**
+     * Build a Bloom filter with the keys of all elements of list. Elements
+     * added later are not tracked: to keep the filter up to date, build it
+     * and push the elements with the same {@link ListHelper}.
+     * @param list list of elements
+     * @param function the function to get the key of element
+     * @param fpp expected false positive probability, between 0 and 1
+     * @return filter of keys
+     * @since 1.4
+     */
+    public static <T, K> BloomFilter<K> bloomIndex(List<T> list, TransformFunction<T, K> function, double fpp) {
+        return new ListHelper<T>(list).bloomIndex(function, fpp);
+    }
+
+    /**
+     * Get k elements of list chosen uniformly at random.
+     * @param list list of elements
+     * @param k number of elements
+     * @param seed seed of the random numbers
+     * @return list of sampled elements
+     * @since 1.4
+     */
+    public static <T> List<T> sample(List<T> list, int k, long seed) {
+        return new ListHelper<T>(list).sample(k, seed);
+    }
+
+    /**
+     * Get k elements of list chosen uniformly at random, sampling in parallel.
+     * @param list list of elements
+     * @param k number of elements
+     * @param seed seed of the random numbers
+     * @param executor executor to sample the ranges
+     * @return list of sampled elements
+     * @since 1.4
+     */
+    public static <T> List<T> sample(List<T> list, int k, long seed, ExecutorService executor) {
+        return new ListHelper<T>(list).sample(k, seed, executor);
+    }
+
     // ------------------------------------------------------------------
     // Information Methods
     // ------------------------------------------------------------------
@@ -271,6 +704,17 @@ public class Helpers {
     public static <T> int count(List<T> list, ConditionFunction<T> function) {
         return new ListHelper<T>(list).count(function);
     }
+
+    /**
+     * Count the elements of list by the key returned by function.
+     * @param list list of elements
+     * @param function the function to get the key of element
+     * @return number of elements of each key, in the order the keys were first seen
+     * @since 1.4
+     */
+    public static <T, K> Map<K, Integer> countBy(List<T> list, TransformFunction<T, K> function) {
+        return new ListHelper<T>(list).countBy(function);
+    }
     
     /**
      * Returns true if all of the values in the list pass the predicate truth test
@@ -0,0 +1,240 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.*;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Base of the append-only compressed number lists. Values are stored in
+ * {@link BitPackedBlocks} and the query methods work block by block, skipping
+ * blocks whose min/max can't match a {@link RangeConditionFunction}.
+ *
+ * @since 1.4
+ */
+abstract class AbstractCompressedList<N extends Number> extends AbstractList<N> implements RandomAccess {
+
+    private static final int NONE = 0;
+    private static final int SOME = 1;
+    private static final int ALL = 2;
+
+    final BitPackedBlocks blocks = new BitPackedBlocks();
+
+    abstract N box(long value);
+
+    @Override
+    public int size() {
+        return blocks.size();
+    }
+
+    @Override
+    public N get(int index) {
+        if (index < 0 || index >= blocks.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + blocks.size());
+        }
+        return box(blocks.get(index));
+    }
+
+    /**
+     * Adding element to the end of list. Null values are not supported.
+     * @param value element to add
+     * @return true
+     */
+    @Override
+    public boolean add(N value) {
+        blocks.add(value.longValue());
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Return the element at index, decoding only the block that holds it.
+     * Returns null if index is out of range. Negative index counts from the end of list.
+     * @param index index of element
+     * @return Element at the index
+     */
+    public N at(int index) {
+        int size = blocks.size();
+        if (index < 0) {
+            index = size + index;
+        }
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        return box(blocks.get(index));
+    }
+
+    /**
+     * Select all elements that condition returns true. If the condition is a
+     * {@link RangeConditionFunction} blocks that can't match are not decoded.
+     * @param function Apply in each element and select if returns true.
+     * @return list of elements that the condition is true.
+     */
+    public List<N> select(ConditionFunction<N> function) {
+        ArrayList<N> result = new ArrayList<N>();
+        long[] values = new long[BitPackedBlocks.BLOCK_SIZE];
+        for (int block = 0; block < blocks.blockCount(); block++) {
+            int match = match(block, function);
+            if (match == NONE) {
+                continue;
+            }
+            int length = blocks.decode(block, values);
+            for (int i = 0; i < length; i++) {
+                if (match == ALL || test(function, values[i])) {
+                    result.add(box(values[i]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of elements where function returns true. If the condition
+     * is a {@link RangeConditionFunction} blocks are counted or skipped using only
+     * their min/max.
+     * @param function the condition to consider element in count
+     * @return number of elements
+     */
+    public int count(ConditionFunction<N> function) {
+        int count = 0;
+        long[] values = new long[BitPackedBlocks.BLOCK_SIZE];
+        for (int block = 0; block < blocks.blockCount(); block++) {
+            int match = match(block, function);
+            if (match == NONE) {
+                continue;
+            }
+            if (match == ALL) {
+                count += blocks.blockLength(block);
+                continue;
+            }
+            int length = blocks.decode(block, values);
+            for (int i = 0; i < length; i++) {
+                if (test(function, values[i])) {
+                    count += 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return approximated number of bytes used by the compressed values
+     */
+    public long sizeInBytes() {
+        return blocks.sizeInBytes();
+    }
+
+    @Override
+    public Iterator<N> iterator() {
+        return new Iterator<N>() {
+            private final long[] values = new long[BitPackedBlocks.BLOCK_SIZE];
+            private final int expectedModCount = modCount;
+            private int block = -1;
+            private int length;
+            private int offset;
+            private int remaining = blocks.size();
+
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            public N next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                if (offset == length) {
+                    length = blocks.decode(++block, values);
+                    offset = 0;
+                }
+                remaining--;
+                return box(values[offset++]);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private int match(int block, ConditionFunction<N> function) {
+        if (function instanceof RangeConditionFunction) {
+            RangeConditionFunction<N> range = (RangeConditionFunction<N>) function;
+            N min = box(blocks.min(block));
+            N max = box(blocks.max(block));
+            if (!range.mayMatch(min, max)) {
+                return NONE;
+            }
+            if (range.matchesAll(min, max)) {
+                return ALL;
+            }
+        }
+        return SOME;
+    }
+
+    private boolean test(ConditionFunction<N> function, long value) {
+        if (function instanceof Between) {
+            return ((Between) function).contains(value);
+        }
+        return function.condition(box(value));
+    }
+
+    /**
+     * Inclusive range condition, tested on primitive values by the compressed lists.
+     */
+    static class Between<N extends Number> implements RangeConditionFunction<N> {
+
+        private final long lo;
+        private final long hi;
+
+        Between(long lo, long hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        boolean contains(long value) {
+            return value >= lo && value <= hi;
+        }
+
+        public boolean condition(N n) {
+            return n != null && contains(n.longValue());
+        }
+
+        public boolean mayMatch(N min, N max) {
+            return max.longValue() >= lo && min.longValue() <= hi;
+        }
+
+        public boolean matchesAll(N min, N max) {
+            return min.longValue() >= lo && max.longValue() <= hi;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.Arrays;
+
+/**
+ * Append-only storage of long values split in blocks of {@link #BLOCK_SIZE}
+ * elements. Each sealed block keeps its first value, the smallest delta between
+ * consecutive values and, bit-packed with the smallest width that fits all of
+ * them, how much each delta exceeds the smallest one. The min and max value of
+ * the block are kept to skip it in queries.
+ *
+ * The last block is kept uncompressed until it is full.
+ *
+ * @since 1.4
+ */
+final class BitPackedBlocks {
+
+    static final int BLOCK_SIZE = 128;
+
+    private long[] firsts = new long[4];
+    private long[] deltas = new long[4];
+    private long[] mins = new long[4];
+    private long[] maxs = new long[4];
+    private byte[] widths = new byte[4];
+    private long[][] packed = new long[4][];
+    private int sealed;
+
+    private final long[] tail = new long[BLOCK_SIZE];
+    private int tailSize;
+    private long tailMin;
+    private long tailMax;
+
+    int size() {
+        return sealed * BLOCK_SIZE + tailSize;
+    }
+
+    /**
+     * @return number of blocks, including the uncompressed last block
+     */
+    int blockCount() {
+        return tailSize == 0 ? sealed : sealed + 1;
+    }
+
+    int blockLength(int block) {
+        return block < sealed ? BLOCK_SIZE : tailSize;
+    }
+
+    long min(int block) {
+        return block < sealed ? mins[block] : tailMin;
+    }
+
+    long max(int block) {
+        return block < sealed ? maxs[block] : tailMax;
+    }
+
+    void add(long value) {
+        if (tailSize == 0 || value < tailMin) tailMin = value;
+        if (tailSize == 0 || value > tailMax) tailMax = value;
+        tail[tailSize++] = value;
+        if (tailSize == BLOCK_SIZE) {
+            seal();
+        }
+    }
+
+    /**
+     * Decode a single value, reading only the deltas up to its offset.
+     */
+    long get(int index) {
+        int block = index / BLOCK_SIZE;
+        int offset = index % BLOCK_SIZE;
+        if (block == sealed) {
+            return tail[offset];
+        }
+        long value = firsts[block] + deltas[block] * offset;
+        int width = widths[block];
+        if (width == 0) {
+            return value;
+        }
+        long[] words = packed[block];
+        for (int i = 0; i < offset; i++) {
+            value += read(words, i, width);
+        }
+        return value;
+    }
+
+    /**
+     * Decode a whole block.
+     * @param block index of block
+     * @param out array of at least {@link #BLOCK_SIZE} elements
+     * @return number of values decoded
+     */
+    int decode(int block, long[] out) {
+        if (block == sealed) {
+            System.arraycopy(tail, 0, out, 0, tailSize);
+            return tailSize;
+        }
+        long value = firsts[block];
+        long delta = deltas[block];
+        int width = widths[block];
+        long[] words = packed[block];
+        out[0] = value;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            value += delta;
+            if (width != 0) {
+                value += read(words, i - 1, width);
+            }
+            out[i] = value;
+        }
+        return BLOCK_SIZE;
+    }
+
+    /**
+     * @return approximated number of bytes used by the encoded values
+     */
+    long sizeInBytes() {
+        long bytes = (long) firsts.length * 33 + tail.length * 8;
+        for (int i = 0; i < sealed; i++) {
+            if (packed[i] != null) {
+                bytes += packed[i].length * 8 + 16;
+            }
+        }
+        return bytes;
+    }
+
+    private void seal() {
+        if (sealed == firsts.length) {
+            int capacity = sealed * 2;
+            firsts = Arrays.copyOf(firsts, capacity);
+            deltas = Arrays.copyOf(deltas, capacity);
+            mins = Arrays.copyOf(mins, capacity);
+            maxs = Arrays.copyOf(maxs, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            packed = Arrays.copyOf(packed, capacity);
+        }
+
+        long delta = tail[1] - tail[0];
+        for (int i = 2; i < BLOCK_SIZE; i++) {
+            delta = Math.min(delta, tail[i] - tail[i - 1]);
+        }
+
+        // the excesses are read as unsigned, decoding wraps the same way
+        long bits = 0;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            bits |= tail[i] - tail[i - 1] - delta;
+        }
+        int width = 64 - Long.numberOfLeadingZeros(bits);
+
+        long[] words = null;
+        if (width > 0) {
+            words = new long[((BLOCK_SIZE - 1) * width + 63) / 64];
+            for (int i = 1; i < BLOCK_SIZE; i++) {
+                write(words, i - 1, width, tail[i] - tail[i - 1] - delta);
+            }
+        }
+
+        firsts[sealed] = tail[0];
+        deltas[sealed] = delta;
+        mins[sealed] = tailMin;
+        maxs[sealed] = tailMax;
+        widths[sealed] = (byte) width;
+        packed[sealed] = words;
+        sealed++;
+        tailSize = 0;
+    }
+
+    private static long read(long[] words, int index, int width) {
+        long pos = (long) index * width;
+        int word = (int) (pos >>> 6);
+        int shift = (int) (pos & 63);
+        long value = words[word] >>> shift;
+        if (shift + width > 64) {
+            value |= words[word + 1] << (64 - shift);
+        }
+        return width == 64 ? value : value & ((1L << width) - 1);
+    }
+
+    private static void write(long[] words, int index, int width, long value) {
+        long pos = (long) index * width;
+        int word = (int) (pos >>> 6);
+        int shift = (int) (pos & 63);
+        words[word] |= value << shift;
+        if (shift + width > 64) {
+            words[word + 1] |= value >>> (64 - shift);
+        }
+    }
+}
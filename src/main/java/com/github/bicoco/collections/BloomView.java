@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.TransformFunction;
+import com.github.bicoco.collections.sketch.BloomFilter;
+
+import java.util.List;
+
+/**
+ * Adds the key of each element pushed through a {@link ListHelper} to a
+ * Bloom filter, and of each element the helper puts in place of another,
+ * like with map$, setAll and patch$. Keys are only added: removing from the
+ * list leaves stale keys, which are answered as false positives, so the
+ * filter needs no update when the helper only removes elements.
+ */
+class BloomView<T, K> extends LiveView<T> {
+
+    private final BloomFilter<K> filter;
+    private final TransformFunction<T, K> function;
+
+    BloomView(List<T> list, BloomFilter<K> filter, TransformFunction<T, K> function) {
+        super(list);
+        this.filter = filter;
+        this.function = function;
+    }
+
+    @Override
+    void pushed(T t) {
+        add(t);
+    }
+
+    @Override
+    void replaced(Iterable<T> elements) {
+        for (T t : elements) {
+            add(t);
+        }
+    }
+
+    @Override
+    void add(T t) {
+        filter.add(function.transform(t));
+    }
+
+    @Override
+    void clear() {
+    }
+}
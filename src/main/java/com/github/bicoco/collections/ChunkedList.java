@@ -0,0 +1,431 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+
+/**
+ * List stored in blocks of fixed capacity, with the index of the first
+ * element of each block.
+ *
+ * Inserting or removing in the middle shifts only the elements of one
+ * block. Reading an element finds its block with a binary search on the
+ * block index, or directly when it is in the same block as the previous
+ * read or in the last block, so iterating, {@link ListHelper#at(int)} and
+ * {@link ListHelper#last()} are constant time.
+ *
+ * {@link ListHelper} recognizes this list: map$ updates it block by block,
+ * and select$, reject$ and compact$ compact each block and then merge the
+ * blocks left half empty, without moving the other elements.
+ *
+ * This implementation is not synchronized. Reads update the block index,
+ * except the block of the last read, which is only a hint checked against
+ * the index, once {@link #buildIndex()} was called and until the next
+ * change.
+ *
+ * @since 1.4
+ */
+public class ChunkedList<T> extends AbstractList<T> implements RandomAccess {
+
+    /** Capacity of blocks of the default constructor. */
+    public static final int DEFAULT_BLOCK_CAPACITY = 256;
+
+    private final int blockCapacity;
+    private Object[][] blocks = new Object[8][];
+    private int[] sizes = new int[8];
+    private int[] starts = new int[8];
+    private int blockCount;
+    private int size;
+    // the block index is valid for blocks before this one
+    private int validStarts;
+    // block of the last read
+    private int cursor;
+
+    public ChunkedList() {
+        this(DEFAULT_BLOCK_CAPACITY);
+    }
+
+    /**
+     * @param blockCapacity number of elements in each block
+     */
+    public ChunkedList(int blockCapacity) {
+        if (blockCapacity < 2) {
+            throw new IllegalArgumentException("Block capacity must be at least 2: " + blockCapacity);
+        }
+        this.blockCapacity = blockCapacity;
+    }
+
+    public ChunkedList(Collection<? extends T> elements) {
+        this();
+        addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of blocks holding the elements.
+     */
+    public int blockCount() {
+        return blockCount;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        int block = locate(index);
+        return (T) blocks[block][index - starts[block]];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        checkIndex(index);
+        int block = locate(index);
+        Object[] values = blocks[block];
+        int offset = index - starts[block];
+        T old = (T) values[offset];
+        values[offset] = element;
+        return old;
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (blockCount == 0 || sizes[blockCount - 1] == blockCapacity) {
+            insertBlock(blockCount, new Object[blockCapacity], 0);
+        }
+        int last = blockCount - 1;
+        blocks[last][sizes[last]++] = element;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index == size) {
+            add(element);
+            return;
+        }
+        checkIndex(index);
+        int block = locate(index);
+        if (sizes[block] == blockCapacity) {
+            split(block);
+            block = locate(index);
+        }
+        Object[] values = blocks[block];
+        int offset = index - starts[block];
+        System.arraycopy(values, offset, values, offset + 1, sizes[block] - offset);
+        values[offset] = element;
+        sizes[block]++;
+        size++;
+        invalidate(block + 1);
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        checkIndex(index);
+        int block = locate(index);
+        Object[] values = blocks[block];
+        int offset = index - starts[block];
+        T old = (T) values[offset];
+        System.arraycopy(values, offset + 1, values, offset, sizes[block] - offset - 1);
+        values[--sizes[block]] = null;
+        size--;
+        if (sizes[block] == 0) {
+            removeBlocks(block, block + 1);
+        } else {
+            invalidate(block + 1);
+        }
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        blocks = new Object[8][];
+        sizes = new int[8];
+        starts = new int[8];
+        blockCount = 0;
+        size = 0;
+        validStarts = 0;
+        cursor = 0;
+        modCount++;
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = locate(from);
+        int last = locate(to - 1);
+        int head = from - starts[first];
+        int tail = to - starts[last];
+        if (first == last) {
+            Object[] values = blocks[first];
+            System.arraycopy(values, tail, values, head, sizes[first] - tail);
+            Arrays.fill(values, sizes[first] - (tail - head), sizes[first], null);
+            sizes[first] -= tail - head;
+        } else {
+            Arrays.fill(blocks[first], head, sizes[first], null);
+            sizes[first] = head;
+            Object[] values = blocks[last];
+            System.arraycopy(values, tail, values, 0, sizes[last] - tail);
+            Arrays.fill(values, sizes[last] - tail, sizes[last], null);
+            sizes[last] -= tail;
+            removeBlocks(first + 1, last);
+            last = first + 1;
+        }
+        size -= to - from;
+        invalidate(first + 1);
+        // drop the blocks left empty
+        int end = Math.min(last + 1, blockCount);
+        int w = first;
+        for (int b = first; b < end; b++) {
+            if (sizes[b] > 0) {
+                blocks[w] = blocks[b];
+                sizes[w] = sizes[b];
+                w++;
+            }
+        }
+        removeBlocks(w, end);
+        modCount++;
+    }
+
+    /**
+     * Replace each element by the value of function, block by block, without
+     * reading the block index.
+     */
+    void map(final MapFunction<T> function, ExecutorService executor) {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final int[] range : Parallel.ranges(blockCount, parallelism(executor))) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Void call() {
+                    for (int b = range[0]; b < range[1]; b++) {
+                        Object[] values = blocks[b];
+                        for (int i = 0; i < sizes[b]; i++) {
+                            values[i] = function.map((T) values[i]);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+    }
+
+    /**
+     * Keep the elements where condition is equal to keep, compacting each
+     * block and merging the blocks left half empty. All elements are tested
+     * before any is moved, so a condition that throws leaves the list unchanged.
+     */
+    void retain(final ConditionFunction<? super T> condition, final boolean keep, ExecutorService executor) {
+        final boolean[][] kept = new boolean[blockCount][];
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final int[] range : Parallel.ranges(blockCount, parallelism(executor))) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Void call() {
+                    for (int b = range[0]; b < range[1]; b++) {
+                        Object[] values = blocks[b];
+                        kept[b] = new boolean[sizes[b]];
+                        for (int i = 0; i < sizes[b]; i++) {
+                            kept[b][i] = condition.condition((T) values[i]) == keep;
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+
+        tasks.clear();
+        for (final int[] range : Parallel.ranges(blockCount, parallelism(executor))) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int b = range[0]; b < range[1]; b++) {
+                        Object[] values = blocks[b];
+                        int to = 0;
+                        for (int i = 0; i < sizes[b]; i++) {
+                            if (kept[b][i]) {
+                                values[to++] = values[i];
+                            }
+                        }
+                        Arrays.fill(values, to, sizes[b], null);
+                        sizes[b] = to;
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+
+        int w = -1;
+        size = 0;
+        for (int b = 0; b < blockCount; b++) {
+            int n = sizes[b];
+            size += n;
+            if (n == 0) {
+                continue;
+            }
+            boolean halfEmpty = w >= 0 && (sizes[w] < blockCapacity / 2 || n < blockCapacity / 2);
+            if (halfEmpty && sizes[w] + n <= blockCapacity) {
+                System.arraycopy(blocks[b], 0, blocks[w], sizes[w], n);
+                sizes[w] += n;
+            } else {
+                w++;
+                blocks[w] = blocks[b];
+                sizes[w] = n;
+            }
+        }
+        for (int b = w + 1; b < blockCount; b++) {
+            blocks[b] = null;
+            sizes[b] = 0;
+        }
+        blockCount = w + 1;
+        validStarts = 0;
+        cursor = 0;
+        modCount++;
+    }
+
+    /**
+     * Build the whole block index, so reads don't update it until the next
+     * change and can run in several threads.
+     */
+    void buildIndex() {
+        for (int b = validStarts; b < blockCount; b++) {
+            starts[b] = b == 0 ? 0 : starts[b - 1] + sizes[b - 1];
+        }
+        validStarts = blockCount;
+    }
+
+    private static int parallelism(ExecutorService executor) {
+        return executor == null ? 1 : 4 * Runtime.getRuntime().availableProcessors();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Block of the element at index, with its start in the block index.
+     */
+    private int locate(int index) {
+        int block = cursor;
+        if (block < validStarts && index >= starts[block] && index < starts[block] + sizes[block]) {
+            return block;
+        }
+        int last = blockCount - 1;
+        if (index >= size - sizes[last]) {
+            if (validStarts == last) {
+                starts[last] = size - sizes[last];
+                validStarts++;
+            }
+            if (last < validStarts) {
+                cursor = last;
+                return last;
+            }
+        }
+        buildIndex();
+        int low = 0, high = last;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        cursor = low;
+        return low;
+    }
+
+    private void invalidate(int block) {
+        validStarts = Math.min(validStarts, block);
+    }
+
+    private void split(int block) {
+        Object[] values = blocks[block];
+        int half = sizes[block] / 2;
+        Object[] right = new Object[blockCapacity];
+        System.arraycopy(values, half, right, 0, sizes[block] - half);
+        Arrays.fill(values, half, sizes[block], null);
+        int moved = sizes[block] - half;
+        sizes[block] = half;
+        insertBlock(block + 1, right, moved);
+    }
+
+    private void insertBlock(int block, Object[] values, int n) {
+        if (blockCount == blocks.length) {
+            int capacity = blocks.length * 2;
+            blocks = Arrays.copyOf(blocks, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+        }
+        int moved = blockCount - block;
+        System.arraycopy(blocks, block, blocks, block + 1, moved);
+        System.arraycopy(sizes, block, sizes, block + 1, moved);
+        blocks[block] = values;
+        sizes[block] = n;
+        blockCount++;
+        invalidate(block);
+    }
+
+    private void removeBlocks(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int moved = blockCount - to;
+        System.arraycopy(blocks, to, blocks, from, moved);
+        System.arraycopy(sizes, to, sizes, from, moved);
+        for (int b = blockCount - (to - from); b < blockCount; b++) {
+            blocks[b] = null;
+            sizes[b] = 0;
+        }
+        blockCount -= to - from;
+        invalidate(from);
+        cursor = 0;
+    }
+}
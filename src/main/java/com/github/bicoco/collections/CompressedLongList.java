@@ -0,0 +1,107 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.RangeConditionFunction;
+
+import java.util.Collection;
+
+/**
+ * Append-only list of longs compressed in blocks with delta encoding and
+ * bit-packing. Sorted lists, like ids and timestamps, need only a few bits
+ * per element.
+ *
+ * {@link #select}, {@link #count} and {@link #at} work directly on the
+ * compressed blocks, decoding only the blocks they touch.
+ *
+ * @since 1.4
+ */
+public class CompressedLongList extends AbstractCompressedList<Long> {
+
+    /**
+     * Create an empty list.
+     */
+    public CompressedLongList() {
+    }
+
+    /**
+     * Create a list with the elements of collection.
+     * @param values elements to add
+     */
+    public CompressedLongList(Collection<Long> values) {
+        for (Long value : values) {
+            add(value);
+        }
+    }
+
+    /**
+     * Create a list with the values.
+     * @param values elements to add
+     * @return the compressed list
+     */
+    public static CompressedLongList of(long... values) {
+        CompressedLongList list = new CompressedLongList();
+        for (long value : values) {
+            list.addLong(value);
+        }
+        return list;
+    }
+
+    /**
+     * Inclusive range condition that lets {@link #select} and {@link #count}
+     * skip whole blocks.
+     * @param lo smallest value accepted
+     * @param hi greatest value accepted
+     * @return the condition
+     */
+    public static RangeConditionFunction<Long> between(long lo, long hi) {
+        return new Between<Long>(lo, hi);
+    }
+
+    /**
+     * Adding element to the end of list without boxing.
+     * @param value element to add
+     */
+    public void addLong(long value) {
+        blocks.add(value);
+        modCount++;
+    }
+
+    /**
+     * Get the element at index without boxing.
+     * @param index index of element
+     * @return the element
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long getLong(int index) {
+        if (index < 0 || index >= blocks.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + blocks.size());
+        }
+        return blocks.get(index);
+    }
+
+    @Override
+    Long box(long value) {
+        return value;
+    }
+}
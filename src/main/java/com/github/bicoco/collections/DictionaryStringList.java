@@ -0,0 +1,236 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.TransformFunction;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * List of strings with few distinct values, like status codes or country
+ * names. Each distinct string is stored once in a dictionary and each
+ * element is an int code into the dictionary.
+ *
+ * {@link #select}, {@link #count} and {@link #countBy} call the function
+ * once for each distinct string and then only compare codes.
+ * {@link ListHelper} uses them when it wraps a dictionary list.
+ *
+ * @since 1.4
+ */
+public class DictionaryStringList extends AbstractList<String> implements RandomAccess {
+
+    private final List<String> dictionary = new ArrayList<String>();
+    private final Map<String, Integer> codes = new HashMap<String, Integer>();
+    private int[] elements = new int[16];
+    private int size;
+
+    /**
+     * Create an empty list.
+     */
+    public DictionaryStringList() {
+    }
+
+    /**
+     * Create a list with the elements of collection.
+     * @param values elements to add
+     */
+    public DictionaryStringList(Collection<String> values) {
+        elements = new int[Math.max(values.size(), 16)];
+        for (String value : values) {
+            add(value);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String get(int index) {
+        return dictionary.get(elements[check(index)]);
+    }
+
+    @Override
+    public String set(int index, String value) {
+        String old = get(index);
+        elements[index] = encode(value);
+        return old;
+    }
+
+    @Override
+    public void add(int index, String value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int code = encode(value);
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = code;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public String remove(int index) {
+        String old = get(index);
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Get the dictionary code of the element at index.
+     * @param index index of element
+     * @return the code, an index of {@link #dictionary()}
+     */
+    public int code(int index) {
+        return elements[check(index)];
+    }
+
+    /**
+     * Distinct strings added to the list, in the order they were first seen.
+     * Strings removed from the list stay in the dictionary.
+     * @return the dictionary, indexed by code
+     */
+    public List<String> dictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    /**
+     * Select all elements that condition returns true, testing each distinct string once.
+     * @param function Apply in each distinct string and select if returns true.
+     * @return list of elements that the condition is true.
+     */
+    public List<String> select(ConditionFunction<String> function) {
+        boolean[] matches = matches(function, counts());
+        ArrayList<String> result = new ArrayList<String>();
+        for (int i = 0; i < size; i++) {
+            if (matches[elements[i]]) {
+                result.add(dictionary.get(elements[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of elements where function returns true, testing each distinct string once.
+     * @param function the condition to consider element in count
+     * @return number of elements
+     */
+    public int count(ConditionFunction<String> function) {
+        int[] counts = counts();
+        boolean[] matches = matches(function, counts);
+        int count = 0;
+        for (int code = 0; code < counts.length; code++) {
+            if (matches[code]) {
+                count += counts[code];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the elements by the key returned by function, transforming each distinct string once.
+     * @param function the function to get the key of element
+     * @return number of elements of each key, in the order the keys were first seen
+     */
+    public <K> Map<K, Integer> countBy(TransformFunction<String, K> function) {
+        int[] counts = counts();
+        int[] order = new int[counts.length];
+        int seen = 0;
+        for (int i = 0; i < size && seen < counts.length; i++) {
+            int code = elements[i];
+            if (counts[code] > 0) {
+                order[seen++] = code;
+                counts[code] = -counts[code];
+            }
+        }
+        Map<K, Integer> result = new LinkedHashMap<K, Integer>();
+        for (int i = 0; i < seen; i++) {
+            K key = function.transform(dictionary.get(order[i]));
+            Integer count = result.get(key);
+            result.put(key, (count == null ? 0 : count) - counts[order[i]]);
+        }
+        return result;
+    }
+
+    private int[] counts() {
+        int[] counts = new int[dictionary.size()];
+        for (int i = 0; i < size; i++) {
+            counts[elements[i]]++;
+        }
+        return counts;
+    }
+
+    private boolean[] matches(ConditionFunction<String> function, int[] counts) {
+        boolean[] matches = new boolean[counts.length];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = counts[code] > 0 && function.condition(dictionary.get(code));
+        }
+        return matches;
+    }
+
+    private int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Difference between two lists as an {@link EditScript}.
+ *
+ * The common prefix and suffix are trimmed with equals, then the remaining
+ * elements are replaced by int ids from a hash table, so the search
+ * compares ints. The search is Myers' O((N+M)D) algorithm in linear space,
+ * splitting at the middle snake. In the heuristic mode, ranges larger than
+ * {@link #PATIENCE_THRESHOLD} are first split at the elements that appear
+ * once in each list (patience diff), which is faster for large lists but not
+ * always minimal.
+ *
+ * @since 1.4
+ */
+final class Diff {
+
+    static final int PATIENCE_THRESHOLD = 1024;
+
+    private final int[] a;
+    private final int[] b;
+    private final boolean[] deleted;
+    private final boolean[] inserted;
+    private final boolean minimal;
+    private int[] countA;
+    private int[] countB;
+    private int[] indexB;
+
+    private Diff(int[] a, int[] b, int ids, boolean minimal) {
+        this.a = a;
+        this.b = b;
+        this.deleted = new boolean[a.length];
+        this.inserted = new boolean[b.length];
+        this.minimal = minimal;
+        if (!minimal) {
+            countA = new int[ids];
+            countB = new int[ids];
+            indexB = new int[ids];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> EditScript<T> diff(List<T> source, List<T> target, boolean minimal) {
+        Object[] s = source.toArray();
+        Object[] t = target.toArray();
+        int prefix = 0;
+        while (prefix < s.length && prefix < t.length && equal(s[prefix], t[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < s.length - prefix && suffix < t.length - prefix
+                && equal(s[s.length - 1 - suffix], t[t.length - 1 - suffix])) {
+            suffix++;
+        }
+
+        Map<Object, Integer> ids = new HashMap<Object, Integer>();
+        int[] a = ids(s, prefix, s.length - suffix, ids);
+        int[] b = ids(t, prefix, t.length - suffix, ids);
+        Diff diff = new Diff(a, b, ids.size(), minimal);
+        diff.compare(0, a.length, 0, b.length);
+
+        List<EditScript.Edit<T>> edits = new ArrayList<EditScript.Edit<T>>();
+        int i = 0, j = 0;
+        while (i < a.length || j < b.length) {
+            if (i < a.length && j < b.length && !diff.deleted[i] && !diff.inserted[j]) {
+                i++;
+                j++;
+                continue;
+            }
+            int position = i;
+            while (i < a.length && diff.deleted[i]) i++;
+            List<T> values = new ArrayList<T>();
+            for (; j < b.length && diff.inserted[j]; j++) {
+                values.add((T) t[prefix + j]);
+            }
+            edits.add(new EditScript.Edit<T>(prefix + position, i - position, values));
+        }
+        return new EditScript<T>(s.length, t.length, edits);
+    }
+
+    private static int[] ids(Object[] elements, int from, int to, Map<Object, Integer> ids) {
+        int[] result = new int[to - from];
+        for (int i = from; i < to; i++) {
+            Integer id = ids.get(elements[i]);
+            if (id == null) {
+                id = ids.size();
+                ids.put(elements[i], id);
+            }
+            result[i - from] = id;
+        }
+        return result;
+    }
+
+    private static boolean equal(Object x, Object y) {
+        return x == null ? y == null : x.equals(y);
+    }
+
+    private void compare(int aLo, int aHi, int bLo, int bHi) {
+        while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+            aLo++;
+            bLo++;
+        }
+        while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+            aHi--;
+            bHi--;
+        }
+        if (aLo == aHi || bLo == bHi) {
+            Arrays.fill(deleted, aLo, aHi, true);
+            Arrays.fill(inserted, bLo, bHi, true);
+            return;
+        }
+        if (!minimal && (aHi - aLo) + (bHi - bLo) > PATIENCE_THRESHOLD && patience(aLo, aHi, bLo, bHi)) {
+            return;
+        }
+        int[] split = bisect(aLo, aHi, bLo, bHi);
+        if (split == null) {
+            Arrays.fill(deleted, aLo, aHi, true);
+            Arrays.fill(inserted, bLo, bHi, true);
+        } else {
+            compare(aLo, split[0], bLo, split[1]);
+            compare(split[0], aHi, split[1], bHi);
+        }
+    }
+
+    /**
+     * Split the ranges at the longest increasing sequence of elements that
+     * appear once in each range.
+     * @return false if there is no such element
+     */
+    private boolean patience(int aLo, int aHi, int bLo, int bHi) {
+        for (int i = aLo; i < aHi; i++) countA[a[i]]++;
+        for (int j = bLo; j < bHi; j++) {
+            countB[b[j]]++;
+            indexB[b[j]] = j;
+        }
+        int[] anchorsA = new int[Math.min(aHi - aLo, bHi - bLo)];
+        int[] anchorsB = new int[anchorsA.length];
+        int n = 0;
+        for (int i = aLo; i < aHi && n < anchorsA.length; i++) {
+            int id = a[i];
+            if (countA[id] == 1 && countB[id] == 1) {
+                anchorsA[n] = i;
+                anchorsB[n++] = indexB[id];
+            }
+        }
+        for (int i = aLo; i < aHi; i++) countA[a[i]] = 0;
+        for (int j = bLo; j < bHi; j++) countB[b[j]] = 0;
+        if (n == 0) {
+            return false;
+        }
+
+        int[] sequence = increasing(anchorsB, n);
+        int i = aLo, j = bLo;
+        for (int k : sequence) {
+            compare(i, anchorsA[k], j, anchorsB[k]);
+            i = anchorsA[k] + 1;
+            j = anchorsB[k] + 1;
+        }
+        compare(i, aHi, j, bHi);
+        return true;
+    }
+
+    /**
+     * Indexes of a longest strictly increasing subsequence of the first n
+     * values, by patience sorting in O(n log n).
+     */
+    private static int[] increasing(int[] values, int n) {
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int piles = 0;
+        for (int i = 0; i < n; i++) {
+            int lo = 0, hi = piles;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[tails[mid]] < values[i]) lo = mid + 1; else hi = mid;
+            }
+            previous[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == piles) piles++;
+        }
+        int[] sequence = new int[piles];
+        for (int k = piles - 1, i = tails[piles - 1]; k >= 0; k--, i = previous[i]) {
+            sequence[k] = i;
+        }
+        return sequence;
+    }
+
+    /**
+     * Find the middle snake of Myers' algorithm, walking forward from the
+     * start and backward from the end until the paths overlap.
+     * @return the point where the ranges are split, or null if they have nothing in common
+     */
+    private int[] bisect(int aLo, int aHi, int bLo, int bHi) {
+        int n = aHi - aLo, m = bHi - bLo;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD;
+        int length = 2 * maxD + 2;
+        int[] v1 = new int[length];
+        int[] v2 = new int[length];
+        Arrays.fill(v1, -1);
+        Arrays.fill(v2, -1);
+        v1[offset + 1] = 0;
+        v2[offset + 1] = 0;
+        int delta = n - m;
+        // with an odd delta the forward path meets the backward one, otherwise the reverse
+        boolean front = (delta & 1) != 0;
+        int k1start = 0, k1end = 0, k2start = 0, k2end = 0;
+        for (int d = 0; d < maxD; d++) {
+            for (int k1 = -d + k1start; k1 <= d - k1end; k1 += 2) {
+                int k1Offset = offset + k1;
+                int x1 = k1 == -d || (k1 != d && v1[k1Offset - 1] < v1[k1Offset + 1])
+                        ? v1[k1Offset + 1] : v1[k1Offset - 1] + 1;
+                int y1 = x1 - k1;
+                while (x1 < n && y1 < m && a[aLo + x1] == b[bLo + y1]) {
+                    x1++;
+                    y1++;
+                }
+                v1[k1Offset] = x1;
+                if (x1 > n) {
+                    k1end += 2;
+                } else if (y1 > m) {
+                    k1start += 2;
+                } else if (front) {
+                    int k2Offset = offset + delta - k1;
+                    if (k2Offset >= 0 && k2Offset < length && v2[k2Offset] != -1 && x1 >= n - v2[k2Offset]) {
+                        return new int[] {aLo + x1, bLo + y1};
+                    }
+                }
+            }
+            for (int k2 = -d + k2start; k2 <= d - k2end; k2 += 2) {
+                int k2Offset = offset + k2;
+                int x2 = k2 == -d || (k2 != d && v2[k2Offset - 1] < v2[k2Offset + 1])
+                        ? v2[k2Offset + 1] : v2[k2Offset - 1] + 1;
+                int y2 = x2 - k2;
+                while (x2 < n && y2 < m && a[aHi - 1 - x2] == b[bHi - 1 - y2]) {
+                    x2++;
+                    y2++;
+                }
+                v2[k2Offset] = x2;
+                if (x2 > n) {
+                    k2end += 2;
+                } else if (y2 > m) {
+                    k2start += 2;
+                } else if (!front) {
+                    int k1Offset = offset + delta - k2;
+                    if (k1Offset >= 0 && k1Offset < length && v1[k1Offset] != -1) {
+                        int x1 = v1[k1Offset];
+                        int y1 = offset + x1 - k1Offset;
+                        if (x1 >= n - x2) {
+                            return new int[] {aLo + x1, bLo + y1};
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
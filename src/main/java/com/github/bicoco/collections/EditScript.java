@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Changes that turn a source list into a target list, as runs of deleted
+ * and inserted elements. Only the inserted elements are stored, so a small
+ * change of a large list gives a small script, to send to whoever has a
+ * copy of the source list and apply with {@link ListHelper#patch$}.
+ *
+ * Scripts are serializable when the elements are.
+ *
+ * @see ListHelper#diff(List)
+ * @since 1.4
+ */
+public class EditScript<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int sourceSize;
+    private final int targetSize;
+    private final List<Edit<T>> edits;
+
+    EditScript(int sourceSize, int targetSize, List<Edit<T>> edits) {
+        this.sourceSize = sourceSize;
+        this.targetSize = targetSize;
+        this.edits = Collections.unmodifiableList(edits);
+    }
+
+    /**
+     * @return the runs of changes, ordered by position
+     */
+    public List<Edit<T>> getEdits() {
+        return edits;
+    }
+
+    public int getSourceSize() {
+        return sourceSize;
+    }
+
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    /**
+     * @return true if the lists are equal
+     */
+    public boolean isEmpty() {
+        return edits.isEmpty();
+    }
+
+    /**
+     * @return number of deleted plus inserted elements
+     */
+    public int distance() {
+        int distance = 0;
+        for (Edit<T> edit : edits) {
+            distance += edit.getDeleted() + edit.getInserted().size();
+        }
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "EditScript(" + sourceSize + " -> " + targetSize + ", " + edits + ")";
+    }
+
+    /**
+     * Replace of deleted elements at a position of the source list by the
+     * inserted elements. Either can be empty.
+     */
+    public static class Edit<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int position;
+        private final int deleted;
+        private final List<T> inserted;
+
+        Edit(int position, int deleted, List<T> inserted) {
+            this.position = position;
+            this.deleted = deleted;
+            this.inserted = Collections.unmodifiableList(inserted);
+        }
+
+        /**
+         * @return index of the first changed element in the source list
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * @return number of elements deleted at position
+         */
+        public int getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * @return elements inserted at position
+         */
+        public List<T> getInserted() {
+            return inserted;
+        }
+
+        @Override
+        public String toString() {
+            return "@" + position + " -" + deleted + " +" + inserted;
+        }
+    }
+}
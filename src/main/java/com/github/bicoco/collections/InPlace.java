@@ -0,0 +1,180 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+
+/**
+ * In-place updates of random access lists split over ranges.
+ *
+ * Selecting first tests every element, so a condition that throws leaves
+ * the list unchanged, like {@code ArrayList.removeIf}. Then it compacts
+ * each range to its start, computes the final offset of each range with a
+ * prefix sum of the survivors and moves the ranges to their offsets. A
+ * range is moved only after the ranges whose survivors it overwrites were
+ * moved, so the moves run in waves of independent ranges. No copy of the
+ * list is made, only a bit for each element. Without executor the whole
+ * list is a single range, so selecting is one linear pass instead of
+ * removing the elements one by one, which shifts the tail of array lists
+ * on each removal.
+ *
+ * @since 1.4
+ */
+final class InPlace {
+
+    private InPlace() {
+    }
+
+    /**
+     * Selecting needs cheap set and removeRange, which fixed-size lists
+     * don't support and copy-on-write lists make linear for each element.
+     * @return true if the list is known to support selecting in place
+     */
+    static boolean supportsSelect(List<?> list) {
+        if (list instanceof VersionedList) {
+            return supportsSelect(((VersionedList<?>) list).unwrap());
+        }
+        return list instanceof ArrayList || list instanceof ChunkedList;
+    }
+
+    static <T> void map(final List<T> list, final MapFunction<T> function, ExecutorService executor) {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final int[] range : Parallel.ranges(list.size(), parallelism(executor))) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = range[0]; i < range[1]; i++) {
+                        list.set(i, function.map(list.get(i)));
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+    }
+
+    /**
+     * Keep the elements where the condition is equal to keep.
+     */
+    static <T> void select(final List<T> list, final ConditionFunction<T> function, final boolean keep,
+                           ExecutorService executor) {
+        final List<int[]> ranges = Parallel.ranges(list.size(), parallelism(executor));
+        // test all elements before moving any, like ArrayList.removeIf,
+        // with the bits of each range in its own words
+        final long[][] kept = new long[ranges.size()][];
+        List<Callable<Integer>> tests = new ArrayList<Callable<Integer>>();
+        for (int r = 0; r < ranges.size(); r++) {
+            final int[] range = ranges.get(r);
+            final long[] bits = kept[r] = new long[(range[1] - range[0] + 63) >>> 6];
+            tests.add(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    int count = 0;
+                    for (int i = range[0]; i < range[1]; i++) {
+                        if (function.condition(list.get(i)) == keep) {
+                            int bit = i - range[0];
+                            bits[bit >>> 6] |= 1L << bit;
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            });
+        }
+        List<Integer> counts = Parallel.invokeAll(executor, tests);
+
+        List<Callable<Void>> compactions = new ArrayList<Callable<Void>>();
+        for (int r = 0; r < ranges.size(); r++) {
+            final int[] range = ranges.get(r);
+            final long[] bits = kept[r];
+            compactions.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    int to = range[0];
+                    for (int i = range[0]; i < range[1]; i++) {
+                        int bit = i - range[0];
+                        if ((bits[bit >>> 6] & 1L << bit) != 0) {
+                            if (to != i) list.set(to, list.get(i));
+                            to++;
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, compactions);
+
+        int n = ranges.size();
+        int[] offsets = new int[n + 1];
+        for (int r = 0; r < n; r++) {
+            offsets[r + 1] = offsets[r] + counts.get(r);
+        }
+
+        // a range waits for the earlier ranges whose survivors are under its destination
+        int[] waves = new int[n];
+        int lastWave = 0;
+        for (int r = 1; r < n; r++) {
+            for (int q = 0; q < r; q++) {
+                int from = ranges.get(q)[0], to = from + counts.get(q);
+                if (from < offsets[r + 1] && offsets[r] < to && from != offsets[q]) {
+                    waves[r] = Math.max(waves[r], waves[q] + 1);
+                }
+            }
+            lastWave = Math.max(lastWave, waves[r]);
+        }
+        for (int wave = 0; wave <= lastWave; wave++) {
+            List<Callable<Void>> moves = new ArrayList<Callable<Void>>();
+            for (int r = 0; r < n; r++) {
+                final int from = ranges.get(r)[0], to = offsets[r], count = counts.get(r);
+                if (waves[r] == wave && from != to && count > 0) {
+                    moves.add(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            for (int i = 0; i < count; i++) {
+                                list.set(to + i, list.get(from + i));
+                            }
+                            return null;
+                        }
+                    });
+                }
+            }
+            Parallel.invokeAll(executor, moves);
+        }
+
+        list.subList(offsets[n], list.size()).clear();
+    }
+
+    /**
+     * Ranges to split the list, a few per processor to balance ranges
+     * where the function is slower.
+     */
+    private static int parallelism(ExecutorService executor) {
+        return executor == null ? 1 : 4 * Runtime.getRuntime().availableProcessors();
+    }
+}
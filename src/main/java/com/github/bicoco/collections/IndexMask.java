@@ -0,0 +1,516 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of list indexes, used as the result of
+ * {@link ListHelper#selectMask} instead of copying the matching elements.
+ *
+ * Indexes are grouped by their high 16 bits like a Roaring bitmap: each group
+ * is stored as a sorted array when it has few indexes, or as a 65536 bits
+ * bitmap when it is dense. Masks are combined with {@link #and}, {@link #or},
+ * {@link #andNot} and {@link #not}, and presented as a list of elements with
+ * {@link ListHelper#view(IndexMask)}.
+ *
+ * @since 1.4
+ */
+public final class IndexMask {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private final int size;
+    private final int[] keys;
+    private final Object[] containers;
+    private final int[] ranks;
+    private final int cardinality;
+
+    private IndexMask(int size, int[] keys, Object[] containers, int count) {
+        this.size = size;
+        this.keys = keys.length == count ? keys : Arrays.copyOf(keys, count);
+        this.containers = containers.length == count ? containers : Arrays.copyOf(containers, count);
+        this.ranks = new int[count];
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            ranks[i] = total;
+            total += cardinality(containers[i]);
+        }
+        this.cardinality = total;
+    }
+
+    /**
+     * Create a mask with the indexes.
+     * @param size size of the list the indexes refer to
+     * @param indexes indexes in ascending order
+     * @return the mask
+     */
+    public static IndexMask of(int size, int... indexes) {
+        Builder builder = new Builder(size);
+        for (int index : indexes) {
+            builder.add(index);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create a mask with all indexes of a list.
+     * @param size size of the list
+     * @return the mask
+     */
+    public static IndexMask all(int size) {
+        int count = (size + 0xFFFF) >>> 16;
+        int[] keys = new int[count];
+        Object[] containers = new Object[count];
+        for (int i = 0; i < count; i++) {
+            int length = Math.min(0x10000, size - (i << 16));
+            long[] words = new long[WORDS];
+            Arrays.fill(words, 0, length >>> 6, -1L);
+            if ((length & 63) != 0) {
+                words[length >>> 6] = (1L << (length & 63)) - 1;
+            }
+            keys[i] = i;
+            containers[i] = new Bitmap(words, length);
+        }
+        return new IndexMask(size, keys, containers, count);
+    }
+
+    /**
+     * @return size of the list the indexes refer to
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of indexes in the mask
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return true if no index is in the mask
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * @param index index of list
+     * @return true if the index is in the mask
+     */
+    public boolean contains(int index) {
+        if (index < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, index >>> 16);
+        return i >= 0 && contains(containers[i], (char) index);
+    }
+
+    /**
+     * Get the index at a position of the mask.
+     * @param rank position between 0 and cardinality - 1
+     * @return the rank-th smallest index
+     * @throws IndexOutOfBoundsException if the rank is out of range
+     */
+    public int select(int rank) {
+        if (rank < 0 || rank >= cardinality) {
+            throw new IndexOutOfBoundsException("Rank: " + rank + ", Cardinality: " + cardinality);
+        }
+        int i = Arrays.binarySearch(ranks, rank);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        return (keys[i] << 16) | select(containers[i], rank - ranks[i]);
+    }
+
+    /**
+     * Get the smallest index of mask greater than or equal to from.
+     * @param from index to start
+     * @return the index or -1 if there is none
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        int i = Arrays.binarySearch(keys, from >>> 16);
+        if (i < 0) {
+            i = -i - 1;
+            from = 0;
+        }
+        for (; i < keys.length; i++) {
+            int low = next(containers[i], from & 0xFFFF);
+            if (low >= 0) {
+                return (keys[i] << 16) | low;
+            }
+            from = 0;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the indexes in ascending order
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int high = keys[i] << 16;
+            Object c = containers[i];
+            if (c instanceof char[]) {
+                for (char low : (char[]) c) result[n++] = high | low;
+            } else {
+                long[] words = ((Bitmap) c).words;
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        result[n++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other another mask
+     * @return mask with the indexes present in both masks
+     */
+    public IndexMask and(IndexMask other) {
+        int[] k = new int[Math.min(keys.length, other.keys.length)];
+        Object[] c = new Object[k.length];
+        int n = 0;
+        int i = 0, j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object r = and(containers[i], other.containers[j]);
+                if (r != null) {
+                    k[n] = keys[i];
+                    c[n++] = r;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new IndexMask(Math.max(size, other.size), k, c, n);
+    }
+
+    /**
+     * @param other another mask
+     * @return mask with the indexes present in any of the masks
+     */
+    public IndexMask or(IndexMask other) {
+        int[] k = new int[keys.length + other.keys.length];
+        Object[] c = new Object[k.length];
+        int n = 0;
+        int i = 0, j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                k[n] = keys[i];
+                c[n++] = containers[i++];
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                k[n] = other.keys[j];
+                c[n++] = other.containers[j++];
+            } else {
+                k[n] = keys[i];
+                c[n++] = or(containers[i++], other.containers[j++]);
+            }
+        }
+        return new IndexMask(Math.max(size, other.size), k, c, n);
+    }
+
+    /**
+     * @param other another mask
+     * @return mask with the indexes of this mask that are not in other
+     */
+    public IndexMask andNot(IndexMask other) {
+        int[] k = new int[keys.length];
+        Object[] c = new Object[k.length];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) j++;
+            Object r = containers[i];
+            if (j < other.keys.length && other.keys[j] == keys[i]) {
+                r = andNot(r, other.containers[j]);
+            }
+            if (r != null) {
+                k[n] = keys[i];
+                c[n++] = r;
+            }
+        }
+        return new IndexMask(size, k, c, n);
+    }
+
+    /**
+     * @return mask with the indexes of list that are not in this mask
+     */
+    public IndexMask not() {
+        return all(size).andNot(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IndexMask)) return false;
+        IndexMask other = (IndexMask) o;
+        return size == other.size && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Build a mask adding indexes in ascending order.
+     */
+    static final class Builder {
+
+        private final int size;
+        private int[] keys = new int[4];
+        private Object[] containers = new Object[4];
+        private int count;
+        private int key = -1;
+        private char[] values = new char[16];
+        private long[] words;
+        private int length;
+        private int last = -1;
+
+        Builder(int size) {
+            this.size = size;
+        }
+
+        void add(int index) {
+            if (index <= last) {
+                throw new IllegalArgumentException("Indexes must be added in ascending order: " + index);
+            }
+            last = index;
+            int high = index >>> 16;
+            if (high != key) {
+                flush();
+                key = high;
+            }
+            char low = (char) index;
+            if (words != null) {
+                words[low >>> 6] |= 1L << low;
+            } else if (length == ARRAY_LIMIT) {
+                words = new long[WORDS];
+                for (int i = 0; i < length; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                words[low >>> 6] |= 1L << low;
+            } else {
+                if (length == values.length) {
+                    values = Arrays.copyOf(values, length * 2);
+                }
+                values[length] = low;
+            }
+            length++;
+        }
+
+        IndexMask build() {
+            flush();
+            return new IndexMask(size, keys, containers, count);
+        }
+
+        private void flush() {
+            if (length == 0) {
+                return;
+            }
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                containers = Arrays.copyOf(containers, count * 2);
+            }
+            keys[count] = key;
+            containers[count++] = words != null ? new Bitmap(words, length) : Arrays.copyOf(values, length);
+            words = null;
+            length = 0;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Containers: a sorted char[] or a Bitmap
+    // ------------------------------------------------------------------
+
+    private static final class Bitmap {
+
+        final long[] words;
+        final int cardinality;
+
+        Bitmap(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+    }
+
+    private static int cardinality(Object c) {
+        return c instanceof char[] ? ((char[]) c).length : ((Bitmap) c).cardinality;
+    }
+
+    private static boolean contains(Object c, char low) {
+        if (c instanceof char[]) {
+            return Arrays.binarySearch((char[]) c, low) >= 0;
+        }
+        return (((Bitmap) c).words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    private static int select(Object c, int rank) {
+        if (c instanceof char[]) {
+            return ((char[]) c)[rank];
+        }
+        long[] words = ((Bitmap) c).words;
+        for (int w = 0; ; w++) {
+            int bits = Long.bitCount(words[w]);
+            if (rank < bits) {
+                long word = words[w];
+                for (int r = 0; r < rank; r++) {
+                    word &= word - 1;
+                }
+                return (w << 6) | Long.numberOfTrailingZeros(word);
+            }
+            rank -= bits;
+        }
+    }
+
+    private static int next(Object c, int from) {
+        if (c instanceof char[]) {
+            char[] values = (char[]) c;
+            int i = Arrays.binarySearch(values, (char) from);
+            if (i < 0) i = -i - 1;
+            return i < values.length ? values[i] : -1;
+        }
+        long[] words = ((Bitmap) c).words;
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) | Long.numberOfTrailingZeros(word);
+            }
+            if (++w == WORDS) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    private static long[] words(Object c) {
+        if (c instanceof Bitmap) {
+            return ((Bitmap) c).words.clone();
+        }
+        long[] words = new long[WORDS];
+        for (char low : (char[]) c) {
+            words[low >>> 6] |= 1L << low;
+        }
+        return words;
+    }
+
+    /**
+     * @return the smallest container for the bits, or null if empty
+     */
+    private static Object container(long[] words) {
+        int cardinality = 0;
+        for (long word : words) cardinality += Long.bitCount(word);
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality > ARRAY_LIMIT) {
+            return new Bitmap(words, cardinality);
+        }
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+
+    private static Object and(Object a, Object b) {
+        if (a instanceof char[] || b instanceof char[]) {
+            char[] values = (char[]) (a instanceof char[] ? a : b);
+            Object other = a instanceof char[] ? b : a;
+            char[] result = new char[values.length];
+            int n = 0;
+            for (char low : values) {
+                if (contains(other, low)) result[n++] = low;
+            }
+            return n == 0 ? null : Arrays.copyOf(result, n);
+        }
+        long[] words = words(a);
+        long[] other = ((Bitmap) b).words;
+        for (int w = 0; w < WORDS; w++) words[w] &= other[w];
+        return container(words);
+    }
+
+    private static Object or(Object a, Object b) {
+        if (a instanceof char[] && b instanceof char[]) {
+            char[] x = (char[]) a, y = (char[]) b;
+            char[] result = new char[x.length + y.length];
+            int n = 0, i = 0, j = 0;
+            while (i < x.length || j < y.length) {
+                if (j == y.length || (i < x.length && x[i] < y[j])) result[n++] = x[i++];
+                else if (i == x.length || x[i] > y[j]) result[n++] = y[j++];
+                else { result[n++] = x[i++]; j++; }
+            }
+            if (n <= ARRAY_LIMIT) {
+                return Arrays.copyOf(result, n);
+            }
+        }
+        long[] words = words(a);
+        long[] other = words(b);
+        for (int w = 0; w < WORDS; w++) words[w] |= other[w];
+        return container(words);
+    }
+
+    private static Object andNot(Object a, Object b) {
+        if (a instanceof char[]) {
+            char[] values = (char[]) a;
+            char[] result = new char[values.length];
+            int n = 0;
+            for (char low : values) {
+                if (!contains(b, low)) result[n++] = low;
+            }
+            return n == 0 ? null : Arrays.copyOf(result, n);
+        }
+        long[] words = words(a);
+        long[] other = words(b);
+        for (int w = 0; w < WORDS; w++) words[w] &= ~other[w];
+        return container(words);
+    }
+}
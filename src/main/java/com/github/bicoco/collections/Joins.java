@@ -0,0 +1,324 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Hash join and sort-merge join between two lists.
+ *
+ * The hash join builds the table on the smaller list. With an executor, keys
+ * are computed in ranges, the table is built in partitions by key hash and
+ * probed in ranges, all in parallel. The results keep the order of the left
+ * list and, for the same left element, the order of the right list.
+ *
+ * Null keys never match.
+ *
+ * @since 1.4
+ */
+final class Joins {
+
+    private Joins() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <L, R, K, V> List<V> hashJoin(List<L> left, List<R> right,
+                                         TransformFunction<L, K> leftKey, TransformFunction<R, K> rightKey,
+                                         final BiTransformFunction<L, R, V> combiner, final JoinType type,
+                                         ExecutorService executor) {
+        final int parallelism = executor == null ? 1 : Runtime.getRuntime().availableProcessors();
+        final L[] l = (L[]) left.toArray();
+        final R[] r = (R[]) right.toArray();
+        final Object[] lk = keys(l, leftKey, executor, parallelism);
+        final Object[] rk = keys(r, rightKey, executor, parallelism);
+
+        List<Callable<List<V>>> tasks = new ArrayList<Callable<List<V>>>();
+        if (r.length <= l.length) {
+            final Table table = build(rk, executor, parallelism);
+            for (final int[] range : Parallel.ranges(l.length, parallelism)) {
+                tasks.add(new Callable<List<V>>() {
+                    public List<V> call() {
+                        List<V> out = new ArrayList<V>();
+                        for (int i = range[0]; i < range[1]; i++) {
+                            int j = table.first(lk[i]);
+                            if (j < 0) {
+                                if (type == JoinType.LEFT) out.add(combiner.transform(l[i], null));
+                            } else if (type == JoinType.SEMI) {
+                                out.add(combiner.transform(l[i], r[j]));
+                            } else {
+                                for (; j >= 0; j = table.next[j]) {
+                                    out.add(combiner.transform(l[i], r[j]));
+                                }
+                            }
+                        }
+                        return out;
+                    }
+                });
+            }
+            return concat(Parallel.invokeAll(executor, tasks));
+        }
+
+        // the left list is smaller: probe with the right list and group the
+        // matches by left element to keep the order of the left list
+        final Table table = build(lk, executor, parallelism);
+        List<Callable<int[][]>> probes = new ArrayList<Callable<int[][]>>();
+        for (final int[] range : Parallel.ranges(r.length, parallelism)) {
+            probes.add(new Callable<int[][]>() {
+                public int[][] call() {
+                    IntPairs pairs = new IntPairs();
+                    for (int j = range[0]; j < range[1]; j++) {
+                        for (int i = table.first(rk[j]); i >= 0; i = table.next[i]) {
+                            pairs.add(i, j);
+                        }
+                    }
+                    return pairs.toArrays();
+                }
+            });
+        }
+        List<int[][]> matches = Parallel.invokeAll(executor, probes);
+
+        final int[] offsets = new int[l.length + 1];
+        for (int[][] pairs : matches) {
+            for (int i : pairs[0]) offsets[i + 1]++;
+        }
+        for (int i = 0; i < l.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        final int[] rights = new int[offsets[l.length]];
+        int[] fill = Arrays.copyOf(offsets, l.length);
+        for (int[][] pairs : matches) {
+            for (int p = 0; p < pairs[0].length; p++) {
+                rights[fill[pairs[0][p]]++] = pairs[1][p];
+            }
+        }
+
+        for (final int[] range : Parallel.ranges(l.length, parallelism)) {
+            tasks.add(new Callable<List<V>>() {
+                public List<V> call() {
+                    List<V> out = new ArrayList<V>();
+                    for (int i = range[0]; i < range[1]; i++) {
+                        int from = offsets[i], to = offsets[i + 1];
+                        if (from == to) {
+                            if (type == JoinType.LEFT) out.add(combiner.transform(l[i], null));
+                        } else if (type == JoinType.SEMI) {
+                            out.add(combiner.transform(l[i], r[rights[from]]));
+                        } else {
+                            for (int m = from; m < to; m++) {
+                                out.add(combiner.transform(l[i], r[rights[m]]));
+                            }
+                        }
+                    }
+                    return out;
+                }
+            });
+        }
+        return concat(Parallel.invokeAll(executor, tasks));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <L, R, K, V> List<V> mergeJoin(List<L> left, List<R> right,
+                                          TransformFunction<L, K> leftKey, TransformFunction<R, K> rightKey,
+                                          BiTransformFunction<L, R, V> combiner, JoinType type,
+                                          Comparator<? super K> comparator) {
+        R[] r = (R[]) right.toArray();
+        K[] rk = (K[]) keys(r, rightKey, null, 1);
+        // null keys never match, drop them so the comparator never sees a null
+        int length = 0;
+        for (int i = 0; i < r.length; i++) {
+            if (rk[i] != null) {
+                r[length] = r[i];
+                rk[length++] = rk[i];
+            }
+        }
+        List<V> result = new ArrayList<V>();
+        int from = 0, to = 0;
+        K previous = null;
+        boolean first = true;
+        for (L l : left) {
+            K k = leftKey.transform(l);
+            if (k == null) {
+                if (type == JoinType.LEFT) result.add(combiner.transform(l, null));
+                continue;
+            }
+            if (first || comparator.compare(previous, k) != 0) {
+                from = to;
+                while (from < length && comparator.compare(rk[from], k) < 0) from++;
+                to = from;
+                while (to < length && comparator.compare(rk[to], k) == 0) to++;
+                previous = k;
+                first = false;
+            }
+            if (from == to) {
+                if (type == JoinType.LEFT) result.add(combiner.transform(l, null));
+            } else if (type == JoinType.SEMI) {
+                result.add(combiner.transform(l, r[from]));
+            } else {
+                for (int j = from; j < to; j++) {
+                    result.add(combiner.transform(l, r[j]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Chained hash table of the indexes of the build side, split in
+     * partitions by the hash of key.
+     */
+    private static final class Table {
+
+        final HashMap<Object, Integer>[] heads;
+        final int[] next;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Table(int partitions, int size) {
+            heads = new HashMap[partitions];
+            next = new int[size];
+        }
+
+        /**
+         * @return first index with the key or -1, following indexes are in {@link #next}
+         */
+        int first(Object key) {
+            if (key == null) {
+                return -1;
+            }
+            Integer head = heads[partition(key, heads.length)].get(key);
+            return head == null ? -1 : head;
+        }
+    }
+
+    private static Table build(final Object[] keys, ExecutorService executor, final int parallelism) {
+        final Table table = new Table(parallelism, keys.length);
+        final int[] partitions = new int[keys.length];
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final int[] range : Parallel.ranges(keys.length, parallelism)) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    for (int i = range[0]; i < range[1]; i++) {
+                        partitions[i] = keys[i] == null ? -1 : partition(keys[i], parallelism);
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+
+        // group the indexes by partition in one pass, so each task reads only its own
+        final int[] start = new int[parallelism + 1];
+        for (int partition : partitions) {
+            if (partition >= 0) start[partition + 1]++;
+        }
+        for (int p = 0; p < parallelism; p++) {
+            start[p + 1] += start[p];
+        }
+        final int[] indexes = new int[start[parallelism]];
+        int[] fill = Arrays.copyOf(start, parallelism);
+        for (int i = 0; i < keys.length; i++) {
+            if (partitions[i] >= 0) indexes[fill[partitions[i]]++] = i;
+        }
+
+        tasks.clear();
+        for (int p = 0; p < parallelism; p++) {
+            final int partition = p;
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    HashMap<Object, Integer> heads = new HashMap<Object, Integer>();
+                    // walk backwards so each chain follows the order of the list
+                    for (int j = start[partition + 1] - 1; j >= start[partition]; j--) {
+                        int i = indexes[j];
+                        Integer previous = heads.put(keys[i], i);
+                        table.next[i] = previous == null ? -1 : previous;
+                    }
+                    table.heads[partition] = heads;
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+        return table;
+    }
+
+    private static <E, K> Object[] keys(final E[] elements, final TransformFunction<E, K> function,
+                                        ExecutorService executor, int parallelism) {
+        final Object[] keys = new Object[elements.length];
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final int[] range : Parallel.ranges(elements.length, parallelism)) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    for (int i = range[0]; i < range[1]; i++) {
+                        keys[i] = function.transform(elements[i]);
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+        return keys;
+    }
+
+    private static int partition(Object key, int partitions) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return (h & 0x7fffffff) % partitions;
+    }
+
+    private static <V> List<V> concat(List<List<V>> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int size = 0;
+        for (List<V> list : lists) size += list.size();
+        List<V> result = new ArrayList<V>(size);
+        for (List<V> list : lists) result.addAll(list);
+        return result;
+    }
+
+    private static final class IntPairs {
+
+        private int[] firsts = new int[16];
+        private int[] seconds = new int[16];
+        private int size;
+
+        void add(int first, int second) {
+            if (size == firsts.length) {
+                firsts = Arrays.copyOf(firsts, size * 2);
+                seconds = Arrays.copyOf(seconds, size * 2);
+            }
+            firsts[size] = first;
+            seconds[size++] = second;
+        }
+
+        int[][] toArrays() {
+            return new int[][] {Arrays.copyOf(firsts, size), Arrays.copyOf(seconds, size)};
+        }
+    }
+}
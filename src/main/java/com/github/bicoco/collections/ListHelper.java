@@ -23,10 +23,25 @@
 package com.github.bicoco.collections;
 
 import com.github.bicoco.collections.functions.*;
+import com.github.bicoco.collections.external.CloseableIterator;
+import com.github.bicoco.collections.external.ElementCodec;
+import com.github.bicoco.collections.external.ExternalSorter;
+import com.github.bicoco.collections.predicates.Predicate;
+import com.github.bicoco.collections.sketch.BloomFilter;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Helper methods to List Java Interface
@@ -36,6 +51,11 @@ import java.util.ListIterator;
 public class ListHelper<T> {
 
     private final List<T> list;
+    private List<LiveView<T>> views;
+    // weak, so views no longer read don't live as long as the helper
+    private List<WeakReference<TransformedList<T, ?>>> transformViews;
+    private Snapshot<T> snapshot;
+    private ResultCache cache;
 
     /**
      * Default constructor.
@@ -54,7 +74,7 @@ public class ListHelper<T> {
      * @param function function to execute in each element
      */
     public void each(EachFunction<T> function) {
-        for (T t : list) {
+        for (T t : elements(false)) {
             function.each(t);
         }
     }
@@ -66,7 +86,7 @@ public class ListHelper<T> {
      */
     public List<T> map(MapFunction<T> function) {
         ArrayList<T> result = new ArrayList<T>();
-        for (T t : list) result.add(function.map(t));
+        for (T t : elements(false)) result.add(function.map(t));
         return result;
     }
 
@@ -77,12 +97,44 @@ public class ListHelper<T> {
      */
     public <R> List<R> transform(TransformFunction<T,R> function) {
         ArrayList<R> result = new ArrayList<R>();
-        for (T t : list) {
+        for (T t : elements(false)) {
             result.add(function.transform(t));
         }
         return result;
     }
 
+    /**
+     * Transform the elements when they are read, caching the results.
+     * Only the elements read are transformed, like for first(), at(-1)
+     * or one page of the list. The cache is dropped when the list changes
+     * size or structure, or when this helper replaces elements; replacing
+     * elements with set outside this helper is not noticed.
+     * @param function function that transforms each element read
+     * @return read-only view of the transformed elements
+     * @since 1.4
+     */
+    public <R> List<R> transformView(TransformFunction<T,R> function) {
+        return transformView(function, true);
+    }
+
+    /**
+     * Transform the elements when they are read.
+     * @param function function that transforms each element read
+     * @param cache true to cache the results, false to transform on each read
+     * @return read-only view of the transformed elements
+     * @since 1.4
+     */
+    public <R> List<R> transformView(TransformFunction<T,R> function, boolean cache) {
+        TransformedList<T, R> view = TransformedList.of(list, function, cache);
+        if (cache) {
+            if (transformViews == null) {
+                transformViews = new ArrayList<WeakReference<TransformedList<T, ?>>>();
+            }
+            transformViews.add(new WeakReference<TransformedList<T, ?>>(view));
+        }
+        return view;
+    }
+
     // ------------------------------------------------------------------
     // Selecting Methods
     // ------------------------------------------------------------------
@@ -93,8 +145,20 @@ public class ListHelper<T> {
      * @return list of elements that the condition is true.
      */
     public List<T> select(ConditionFunction<T> function) {
+        if (cache != null && list instanceof VersionedList) {
+            return cache.select(list, function);
+        }
+        if (function instanceof Predicate) {
+            return ((Predicate<T>) function).select(elements(false));
+        }
+        if (list instanceof AbstractCompressedList) {
+            return selectCompressed(function);
+        }
+        if (list instanceof DictionaryStringList) {
+            return selectDictionary(function);
+        }
         ArrayList<T> result = new ArrayList<T>();
-        for (T t : list) {
+        for (T t : elements(false)) {
             if (function.condition(t)) {
                 result.add(t);
             }
@@ -102,6 +166,16 @@ public class ListHelper<T> {
         return result;
     }
 
+    @SuppressWarnings("unchecked")
+    private List<T> selectCompressed(ConditionFunction<T> function) {
+        return (List<T>) ((AbstractCompressedList<Number>) list).select((ConditionFunction<Number>) function);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> selectDictionary(ConditionFunction<T> function) {
+        return (List<T>) ((DictionaryStringList) list).select((ConditionFunction<String>) function);
+    }
+
     /**
      * Select all elements that condition returns false.
      * @param function Apply in each element and select if returns true.
@@ -109,7 +183,7 @@ public class ListHelper<T> {
      */
     public List<T> reject(ConditionFunction<T> function) {
         ArrayList<T> result = new ArrayList<T>();
-        for (T t : list) {
+        for (T t : elements(false)) {
             if (!function.condition(t)) {
                 result.add(t);
             }
@@ -117,6 +191,434 @@ public class ListHelper<T> {
         return result;
     }
 
+    /**
+     * Select the indexes of all elements that condition returns true, without
+     * copying the elements. Masks can be combined and viewed as a list.
+     * @param function Apply in each element and select if returns true.
+     * @return mask of the indexes where the condition is true.
+     * @see #view(IndexMask)
+     * @since 1.4
+     */
+    public IndexMask selectMask(ConditionFunction<T> function) {
+        IndexMask.Builder builder = new IndexMask.Builder(list.size());
+        int index = 0;
+        for (T t : elements(false)) {
+            if (function.condition(t)) {
+                builder.add(index);
+            }
+            index++;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Return a read-only view of the elements at the indexes of mask,
+     * without copying them.
+     * @param mask indexes of the elements
+     * @return list of the elements at the indexes of mask
+     * @since 1.4
+     */
+    public List<T> view(IndexMask mask) {
+        return new MaskedList<T>(list, mask);
+    }
+
+    /**
+     * Start a query over the elements, planned before it runs.
+     * @return query over the elements
+     * @see Query
+     * @since 1.4
+     */
+    public Query<T> query() {
+        return Query.from(list);
+    }
+
+    // ------------------------------------------------------------------
+    // Joining Methods
+    // ------------------------------------------------------------------
+
+    /**
+     * Combine each element with each element of other list with the same key.
+     * A hash table is built on the smaller list. Null keys never match.
+     * @param other list to join
+     * @param leftKey key of the elements of this list
+     * @param rightKey key of the elements of other list
+     * @param combiner function that combines two elements with the same key
+     * @return list of combined elements, in the order of this list
+     * @since 1.4
+     */
+    public <R, K, V> List<V> join(List<R> other, TransformFunction<T, K> leftKey,
+                                  TransformFunction<R, K> rightKey, BiTransformFunction<T, R, V> combiner) {
+        return join(other, leftKey, rightKey, combiner, JoinType.INNER);
+    }
+
+    /**
+     * Join the elements with the elements of other list with the same key.
+     * A hash table is built on the smaller list. Null keys never match.
+     * @param other list to join
+     * @param leftKey key of the elements of this list
+     * @param rightKey key of the elements of other list
+     * @param combiner function that combines two elements with the same key
+     * @param type kind of join
+     * @return list of combined elements, in the order of this list
+     * @since 1.4
+     */
+    public <R, K, V> List<V> join(List<R> other, TransformFunction<T, K> leftKey,
+                                  TransformFunction<R, K> rightKey, BiTransformFunction<T, R, V> combiner,
+                                  JoinType type) {
+        return Joins.hashJoin(list, other, leftKey, rightKey, combiner, type, null);
+    }
+
+    /**
+     * Join the elements with the elements of other list with the same key, computing
+     * keys, building and probing the hash table in parallel. The functions must be
+     * safe to call from many threads.
+     * @param other list to join
+     * @param leftKey key of the elements of this list
+     * @param rightKey key of the elements of other list
+     * @param combiner function that combines two elements with the same key
+     * @param type kind of join
+     * @param executor executor to run the phases of the join
+     * @return list of combined elements, in the order of this list
+     * @since 1.4
+     */
+    public <R, K, V> List<V> join(List<R> other, TransformFunction<T, K> leftKey,
+                                  TransformFunction<R, K> rightKey, BiTransformFunction<T, R, V> combiner,
+                                  JoinType type, ExecutorService executor) {
+        return Joins.hashJoin(list, other, leftKey, rightKey, combiner, type, executor);
+    }
+
+    /**
+     * Join the elements with the elements of other list with the same key, walking
+     * both lists once. Both lists must be sorted by key in the order of comparator.
+     * Null keys never match and are not passed to comparator.
+     * @param other list to join
+     * @param leftKey key of the elements of this list
+     * @param rightKey key of the elements of other list
+     * @param combiner function that combines two elements with the same key
+     * @param type kind of join
+     * @param comparator order of the keys in both lists
+     * @return list of combined elements, in the order of this list
+     * @since 1.4
+     */
+    public <R, K, V> List<V> mergeJoin(List<R> other, TransformFunction<T, K> leftKey,
+                                       TransformFunction<R, K> rightKey, BiTransformFunction<T, R, V> combiner,
+                                       JoinType type, Comparator<? super K> comparator) {
+        return Joins.mergeJoin(list, other, leftKey, rightKey, combiner, type, comparator);
+    }
+
+    /**
+     * Elements of this list followed by the elements of other list, without duplicates.
+     * Elements are compared with equals and hashCode.
+     * @param other other list
+     * @return elements of both lists, without duplicates
+     * @since 1.4
+     */
+    public List<T> union(List<T> other) {
+        return SetOperations.hash(SetOperations.Operation.UNION, list, other, null, null);
+    }
+
+    /**
+     * Elements of this list followed by the elements of other list, without duplicates.
+     * Elements are compared by the key returned by function.
+     * @param other other list
+     * @param key the function to get the key of element
+     * @return elements of both lists, without duplicates
+     * @since 1.4
+     */
+    public <K> List<T> union(List<T> other, TransformFunction<T, K> key) {
+        return SetOperations.hash(SetOperations.Operation.UNION, list, other, key, null);
+    }
+
+    /**
+     * Like {@link #union(List, TransformFunction)}, computing the keys and
+     * looking them up in ranges in parallel. The function must be safe to
+     * call from many threads.
+     * @param other other list
+     * @param key the function to get the key of element
+     * @param executor executor to compute the ranges
+     * @return elements of both lists, without duplicates
+     * @since 1.4
+     */
+    public <K> List<T> union(List<T> other, TransformFunction<T, K> key, ExecutorService executor) {
+        return SetOperations.hash(SetOperations.Operation.UNION, list, other, key, executor);
+    }
+
+    /**
+     * Like {@link #union(List)}, walking both lists once. Both lists must
+     * be sorted in the order of comparator, which also compares the elements.
+     * @param other other list, sorted
+     * @param comparator order of both lists
+     * @return union of the lists, sorted
+     * @since 1.4
+     */
+    public List<T> union(List<T> other, Comparator<? super T> comparator) {
+        return SetOperations.merge(SetOperations.Operation.UNION, list, other, comparator);
+    }
+
+    /**
+     * Elements of this list that are also in other list, without duplicates,
+     * in the order of this list.
+     * Elements are compared with equals and hashCode.
+     * @param other other list
+     * @return elements of this list also in other list
+     * @since 1.4
+     */
+    public List<T> intersect(List<T> other) {
+        return SetOperations.hash(SetOperations.Operation.INTERSECT, list, other, null, null);
+    }
+
+    /**
+     * Elements of this list that are also in other list, without duplicates,
+     * in the order of this list.
+     * Elements are compared by the key returned by function.
+     * @param other other list
+     * @param key the function to get the key of element
+     * @return elements of this list also in other list
+     * @since 1.4
+     */
+    public <K> List<T> intersect(List<T> other, TransformFunction<T, K> key) {
+        return SetOperations.hash(SetOperations.Operation.INTERSECT, list, other, key, null);
+    }
+
+    /**
+     * Like {@link #intersect(List, TransformFunction)}, computing the keys and
+     * looking them up in ranges in parallel. The function must be safe to
+     * call from many threads.
+     * @param other other list
+     * @param key the function to get the key of element
+     * @param executor executor to compute the ranges
+     * @return elements of this list also in other list
+     * @since 1.4
+     */
+    public <K> List<T> intersect(List<T> other, TransformFunction<T, K> key, ExecutorService executor) {
+        return SetOperations.hash(SetOperations.Operation.INTERSECT, list, other, key, executor);
+    }
+
+    /**
+     * Like {@link #intersect(List)}, walking both lists once. Both lists must
+     * be sorted in the order of comparator, which also compares the elements.
+     * @param other other list, sorted
+     * @param comparator order of both lists
+     * @return common elements, sorted
+     * @since 1.4
+     */
+    public List<T> intersect(List<T> other, Comparator<? super T> comparator) {
+        return SetOperations.merge(SetOperations.Operation.INTERSECT, list, other, comparator);
+    }
+
+    /**
+     * Elements of this list that are not in other list, keeping duplicates,
+     * in the order of this list.
+     * Elements are compared with equals and hashCode.
+     * @param other other list
+     * @return elements of this list not in other list
+     * @since 1.4
+     */
+    public List<T> difference(List<T> other) {
+        return SetOperations.hash(SetOperations.Operation.DIFFERENCE, list, other, null, null);
+    }
+
+    /**
+     * Elements of this list that are not in other list, keeping duplicates,
+     * in the order of this list.
+     * Elements are compared by the key returned by function.
+     * @param other other list
+     * @param key the function to get the key of element
+     * @return elements of this list not in other list
+     * @since 1.4
+     */
+    public <K> List<T> difference(List<T> other, TransformFunction<T, K> key) {
+        return SetOperations.hash(SetOperations.Operation.DIFFERENCE, list, other, key, null);
+    }
+
+    /**
+     * Like {@link #difference(List, TransformFunction)}, computing the keys and
+     * looking them up in ranges in parallel. The function must be safe to
+     * call from many threads.
+     * @param other other list
+     * @param key the function to get the key of element
+     * @param executor executor to compute the ranges
+     * @return elements of this list not in other list
+     * @since 1.4
+     */
+    public <K> List<T> difference(List<T> other, TransformFunction<T, K> key, ExecutorService executor) {
+        return SetOperations.hash(SetOperations.Operation.DIFFERENCE, list, other, key, executor);
+    }
+
+    /**
+     * Like {@link #difference(List)}, walking both lists once. Both lists must
+     * be sorted in the order of comparator, which also compares the elements.
+     * @param other other list, sorted
+     * @param comparator order of both lists
+     * @return elements of this list not in other list, sorted
+     * @since 1.4
+     */
+    public List<T> difference(List<T> other, Comparator<? super T> comparator) {
+        return SetOperations.merge(SetOperations.Operation.DIFFERENCE, list, other, comparator);
+    }
+
+    /**
+     * Elements of this list that are not in other list followed by the elements
+     * of other list that are not in this list, without duplicates.
+     * Elements are compared with equals and hashCode.
+     * @param other other list
+     * @return elements in only one of the lists
+     * @since 1.4
+     */
+    public List<T> symmetricDifference(List<T> other) {
+        return SetOperations.hash(SetOperations.Operation.SYMMETRIC_DIFFERENCE, list, other, null, null);
+    }
+
+    /**
+     * Elements of this list that are not in other list followed by the elements
+     * of other list that are not in this list, without duplicates.
+     * Elements are compared by the key returned by function.
+     * @param other other list
+     * @param key the function to get the key of element
+     * @return elements in only one of the lists
+     * @since 1.4
+     */
+    public <K> List<T> symmetricDifference(List<T> other, TransformFunction<T, K> key) {
+        return SetOperations.hash(SetOperations.Operation.SYMMETRIC_DIFFERENCE, list, other, key, null);
+    }
+
+    /**
+     * Like {@link #symmetricDifference(List, TransformFunction)}, computing the keys and
+     * looking them up in ranges in parallel. The function must be safe to
+     * call from many threads.
+     * @param other other list
+     * @param key the function to get the key of element
+     * @param executor executor to compute the ranges
+     * @return elements in only one of the lists
+     * @since 1.4
+     */
+    public <K> List<T> symmetricDifference(List<T> other, TransformFunction<T, K> key, ExecutorService executor) {
+        return SetOperations.hash(SetOperations.Operation.SYMMETRIC_DIFFERENCE, list, other, key, executor);
+    }
+
+    /**
+     * Like {@link #symmetricDifference(List)}, walking both lists once. Both lists must
+     * be sorted in the order of comparator, which also compares the elements.
+     * @param other other list, sorted
+     * @param comparator order of both lists
+     * @return elements in only one of the lists, sorted
+     * @since 1.4
+     */
+    public List<T> symmetricDifference(List<T> other, Comparator<? super T> comparator) {
+        return SetOperations.merge(SetOperations.Operation.SYMMETRIC_DIFFERENCE, list, other, comparator);
+    }
+
+    /**
+     * Compute the changes that turn this list into other list. The common
+     * prefix and suffix are skipped, so a few changes in a large list cost
+     * little more than a pass. Large differences use the patience heuristic,
+     * which finds a short script but not always the shortest one.
+     * @param other target list
+     * @return changes to apply with {@link #patch$(EditScript)}
+     * @since 1.4
+     */
+    public EditScript<T> diff(List<T> other) {
+        return Diff.diff(list, other, false);
+    }
+
+    /**
+     * Compute the changes that turn this list into other list.
+     * @param other target list
+     * @param minimal true to always find the shortest script, with Myers'
+     *                algorithm in O((N+M)D) time for D changes
+     * @return changes to apply with {@link #patch$(EditScript)}
+     * @since 1.4
+     */
+    public EditScript<T> diff(List<T> other, boolean minimal) {
+        return Diff.diff(list, other, minimal);
+    }
+
+    /**
+     * Combine the elements at the same index of this list and other list,
+     * walking both lists once, until the end of the shortest list.
+     * @param other list to combine
+     * @param function function that combines two elements
+     * @return list of combined elements
+     * @since 1.4
+     */
+    public <U, R> List<R> zip(List<U> other, BiTransformFunction<T, U, R> function) {
+        List<R> result = new ArrayList<R>(Math.min(list.size(), other.size()));
+        Iterator<T> left = list.iterator();
+        Iterator<U> right = other.iterator();
+        while (left.hasNext() && right.hasNext()) {
+            result.add(function.transform(left.next(), right.next()));
+        }
+        return result;
+    }
+
+    /**
+     * Execute a custom action for the elements at the same index of this list
+     * and other list, until the end of the shortest list.
+     * @param other list to walk with this list
+     * @param function function to execute with each pair of elements
+     * @since 1.4
+     */
+    public <U> void zipEach(List<U> other, BiEachFunction<T, U> function) {
+        Iterator<T> left = list.iterator();
+        Iterator<U> right = other.iterator();
+        while (left.hasNext() && right.hasNext()) {
+            function.each(left.next(), right.next());
+        }
+    }
+
+    /**
+     * Merge lists sorted by comparator in a new sorted list, in O(n log k)
+     * for k lists. Equal elements keep the order of the lists.
+     * @param lists sorted lists
+     * @param comparator order of the lists
+     * @return sorted list of all elements
+     * @since 1.4
+     */
+    public static <T> List<T> mergeSorted(List<? extends List<? extends T>> lists, Comparator<? super T> comparator) {
+        int size = 0;
+        for (List<? extends T> l : lists) {
+            size += l.size();
+        }
+        List<T> result = new ArrayList<T>(size);
+        Iterator<T> it = mergeSortedIterator(lists, comparator);
+        while (it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    /**
+     * Merge lists sorted by comparator as they are iterated, without copying them.
+     * @param lists sorted lists
+     * @param comparator order of the lists
+     * @return iterator over all elements in order
+     * @since 1.4
+     */
+    public static <T> Iterator<T> mergeSortedIterator(List<? extends List<? extends T>> lists,
+                                                     Comparator<? super T> comparator) {
+        return new SortedMerge<T>(lists, comparator);
+    }
+
+    /**
+     * Sort the elements in a streaming iterator without holding them all in
+     * memory, sorting chunks of at most maxInMemory elements and spilling them
+     * to temporary files merged back as the iterator is read. The budget is a
+     * number of elements, not of bytes, so pick it from the size of one
+     * element. Equal elements keep their order. The iterator must be closed,
+     * unless it is exhausted, to delete the temporary files.
+     * @param comparator order of the elements
+     * @param codec codec to write and read the elements in the temporary files
+     * @param maxInMemory number of elements sorted in memory before spilling them
+     * @return iterator of the sorted elements
+     * @throws IOException if the temporary files can't be written
+     * @see ExternalSorter
+     * @since 1.4
+     */
+    public CloseableIterator<T> sortExternal(Comparator<? super T> comparator, ElementCodec<T> codec,
+                                             int maxInMemory) throws IOException {
+        return new ExternalSorter<T>(comparator, codec).maxInMemory(maxInMemory).sort(elements(false));
+    }
+
     // ------------------------------------------------------------------
     // Modifying Methods
     // ------------------------------------------------------------------
@@ -131,6 +633,29 @@ public class ListHelper<T> {
             T t = function.map(it.next());
             it.set(t);
         }
+        replacedViews(list);
+    }
+
+    /**
+     * Modifing list applying new value for each element, splitting the list
+     * in ranges updated in parallel. Chunked lists are split in ranges of
+     * blocks. Lists without random access are modified in the current thread.
+     * @param function function to apply in each value that returns the new value
+     * @param executor executor to update the ranges
+     * @since 1.4
+     */
+    public void map$(MapFunction<T> function, ExecutorService executor) {
+        ChunkedList<T> chunked = chunked();
+        if (chunked != null) {
+            chunked.map(function, executor);
+            chunkedChanged();
+            replacedViews(list);
+        } else if (list instanceof RandomAccess) {
+            InPlace.map(list, function, executor);
+            replacedViews(list);
+        } else {
+            map$(function);
+        }
     }
 
     /**
@@ -138,6 +663,18 @@ public class ListHelper<T> {
      * @param function Apply in each element and select if returns true.
      */
     public void select$(ConditionFunction<T> function) {
+        ChunkedList<T> chunked = chunked();
+        if (chunked != null) {
+            chunked.retain(function, true, null);
+            chunkedChanged();
+            invalidateViews();
+            return;
+        }
+        if (InPlace.supportsSelect(list)) {
+            InPlace.select(list, function, true, null);
+            invalidateViews();
+            return;
+        }
         ListIterator<T> it = list.listIterator();
         while (it.hasNext()) {
             T t = it.next();
@@ -145,6 +682,30 @@ public class ListHelper<T> {
                 it.remove();
             }
         }
+        invalidateViews();
+    }
+
+    /**
+     * Select all elements that condition returns true, testing ranges of the
+     * list in parallel and moving the selected elements to their positions
+     * without copying the list. Lists other than array lists are modified
+     * in the current thread.
+     * @param function Apply in each element and select if returns true.
+     * @param executor executor to test and move the ranges
+     * @since 1.4
+     */
+    public void select$(ConditionFunction<T> function, ExecutorService executor) {
+        ChunkedList<T> chunked = chunked();
+        if (chunked != null) {
+            chunked.retain(function, true, executor);
+            chunkedChanged();
+            invalidateViews();
+        } else if (InPlace.supportsSelect(list)) {
+            InPlace.select(list, function, true, executor);
+            invalidateViews();
+        } else {
+            select$(function);
+        }
     }
 
     /**
@@ -152,6 +713,18 @@ public class ListHelper<T> {
      * @param function Apply in each element and select if returns false.
      */
     public void reject$(ConditionFunction<T> function) {
+        ChunkedList<T> chunked = chunked();
+        if (chunked != null) {
+            chunked.retain(function, false, null);
+            chunkedChanged();
+            invalidateViews();
+            return;
+        }
+        if (InPlace.supportsSelect(list)) {
+            InPlace.select(list, function, false, null);
+            invalidateViews();
+            return;
+        }
         ListIterator<T> it = list.listIterator();
         while (it.hasNext()) {
             T t = it.next();
@@ -159,18 +732,105 @@ public class ListHelper<T> {
                 it.remove();
             }
         }
+        invalidateViews();
     }
 
     /**
      * Remove null values of list.
      */
     public void compact$() {
+        ConditionFunction<T> notNull = new ConditionFunction<T>() {
+            @Override
+            public boolean condition(T t) {
+                return t != null;
+            }
+        };
+        ChunkedList<T> chunked = chunked();
+        if (chunked != null) {
+            chunked.retain(notNull, true, null);
+            chunkedChanged();
+            invalidateViews();
+            return;
+        }
+        if (InPlace.supportsSelect(list)) {
+            InPlace.select(list, notNull, true, null);
+            invalidateViews();
+            return;
+        }
         ListIterator<T> it = list.listIterator();
         while (it.hasNext()) {
             if (it.next() == null) {
                 it.remove();
             }
         }
+        invalidateViews();
+    }
+
+    /**
+     * @return the chunked list under list, also when it is versioned, or null
+     */
+    private ChunkedList<T> chunked() {
+        List<T> target = list instanceof VersionedList ? ((VersionedList<T>) list).unwrap() : list;
+        return target instanceof ChunkedList ? (ChunkedList<T>) target : null;
+    }
+
+    private void chunkedChanged() {
+        if (list instanceof VersionedList) {
+            ((VersionedList<T>) list).changed();
+        }
+    }
+
+    /**
+     * Apply the changes of a script made by {@link #diff(List)} to this list,
+     * which must be equal to the source list of the script.
+     * @param script changes to apply
+     * @throws IllegalArgumentException if the size of list is not the size of the source list
+     * @since 1.4
+     */
+    public void patch$(EditScript<T> script) {
+        if (list.size() != script.getSourceSize()) {
+            throw new IllegalArgumentException("Expected a list of size " + script.getSourceSize() + ", got " + list.size());
+        }
+        List<EditScript.Edit<T>> edits = script.getEdits();
+        if (list instanceof RandomAccess && edits.size() <= 16) {
+            // few edits, from the last one so the positions stay valid
+            for (int i = edits.size() - 1; i >= 0; i--) {
+                EditScript.Edit<T> edit = edits.get(i);
+                list.subList(edit.getPosition(), edit.getPosition() + edit.getDeleted()).clear();
+                list.addAll(edit.getPosition(), edit.getInserted());
+            }
+        } else if (list instanceof RandomAccess) {
+            // many edits, copy the list back once instead of shifting it for each edit
+            List<T> source = new ArrayList<T>(list);
+            list.clear();
+            int from = 0;
+            for (EditScript.Edit<T> edit : edits) {
+                list.addAll(source.subList(from, edit.getPosition()));
+                list.addAll(edit.getInserted());
+                from = edit.getPosition() + edit.getDeleted();
+            }
+            list.addAll(source.subList(from, source.size()));
+        } else {
+            ListIterator<T> it = list.listIterator();
+            int index = 0;
+            for (EditScript.Edit<T> edit : edits) {
+                for (; index < edit.getPosition(); index++) {
+                    it.next();
+                }
+                for (int i = 0; i < edit.getDeleted(); i++, index++) {
+                    it.next();
+                    it.remove();
+                }
+                for (T t : edit.getInserted()) {
+                    it.add(t);
+                }
+            }
+        }
+        List<T> inserted = new ArrayList<T>();
+        for (EditScript.Edit<T> edit : edits) {
+            inserted.addAll(edit.getInserted());
+        }
+        replacedViews(inserted);
     }
 
     /**
@@ -189,10 +849,176 @@ public class ListHelper<T> {
      * @return ListHelper to chaining methods
      */
     public ListHelper<T> push(T t) {
+        boolean current = snapshot != null && snapshot.isCurrent();
+        if (views != null) {
+            for (LiveView<T> view : views) {
+                view.pushing();
+            }
+        }
         this.list.add(t);
+        if (current) {
+            snapshot.pushed(t);
+        }
+        if (views != null) {
+            for (LiveView<T> view : views) {
+                view.pushed(t);
+            }
+        }
+        return this;
+    }
+
+    // ------------------------------------------------------------------
+    // Live Methods
+    // ------------------------------------------------------------------
+
+    /**
+     * Select all elements that condition returns true, updating the result
+     * in constant time for each element pushed through this helper.
+     * @param function Apply in each element and select if returns true.
+     * @return live list of elements that the condition is true.
+     * @since 1.4
+     */
+    public LiveSelect<T> liveSelect(ConditionFunction<T> function) {
+        return register(new LiveSelect<T>(list, function));
+    }
+
+    /**
+     * Count the elements where function returns true, updating the result
+     * in constant time for each element pushed through this helper.
+     * @param function the condition to consider element in count
+     * @return live count of elements
+     * @since 1.4
+     */
+    public LiveCount<T> liveCount(ConditionFunction<T> function) {
+        return register(new LiveCount<T>(list, function));
+    }
+
+    /**
+     * Transform the list on a single value, updating the result in constant
+     * time for each element pushed through this helper.
+     * @param initialValue initial value of the to be returned
+     * @param function the reduce function
+     * @return live reduced value
+     * @since 1.4
+     */
+    public <R> LiveReduce<T, R> liveReduce(R initialValue, ReduceFunction<T, R> function) {
+        return register(new LiveReduce<T, R>(list, initialValue, function));
+    }
+
+    /**
+     * Build a Bloom filter with the keys of all elements, kept up to date
+     * for each element pushed through this helper. A negative answer means
+     * no element has the key, found in constant time without a scan.
+     * The filter is sized for the current size of list.
+     * @param function the function to get the key of element
+     * @param fpp expected false positive probability, between 0 and 1
+     * @return filter of keys
+     * @since 1.4
+     */
+    public <K> BloomFilter<K> bloomIndex(TransformFunction<T, K> function, double fpp) {
+        return bloomIndex(function, list.size(), fpp);
+    }
+
+    /**
+     * Build a Bloom filter with the keys of all elements, sized for the
+     * expected number of elements after pushing.
+     * @param function the function to get the key of element
+     * @param expectedSize number of elements the filter is sized for
+     * @param fpp expected false positive probability, between 0 and 1
+     * @return filter of keys
+     * @since 1.4
+     */
+    public <K> BloomFilter<K> bloomIndex(TransformFunction<T, K> function, long expectedSize, double fpp) {
+        BloomFilter<K> filter = new BloomFilter<K>(Math.max(expectedSize, list.size()), fpp);
+        for (T t : list) {
+            filter.add(function.transform(t));
+        }
+        register(new BloomView<T, K>(list, filter, function));
+        return filter;
+    }
+
+    private <V extends LiveView<T>> V register(V view) {
+        if (views == null) {
+            views = new ArrayList<LiveView<T>>();
+        }
+        views.add(view);
+        return view;
+    }
+
+    private void invalidateViews() {
+        if (transformViews != null) {
+            Iterator<WeakReference<TransformedList<T, ?>>> it = transformViews.iterator();
+            while (it.hasNext()) {
+                TransformedList<T, ?> view = it.next().get();
+                if (view == null) {
+                    it.remove();
+                } else {
+                    view.invalidate();
+                }
+            }
+        }
+        if (snapshot != null) {
+            snapshot.invalidate();
+        }
+        if (views != null) {
+            for (LiveView<T> view : views) {
+                view.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Invalidate the views after elements were put in the list in place of
+     * others, and give the new elements to the views that only add.
+     */
+    private void replacedViews(Iterable<T> elements) {
+        invalidateViews();
+        if (views != null) {
+            for (LiveView<T> view : views) {
+                view.replaced(elements);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Adaptive Methods
+    // ------------------------------------------------------------------
+
+    /**
+     * Read lists without random access, like {@link java.util.LinkedList},
+     * from an array copy: indexed methods copy the list at once, other
+     * methods on the second pass over the same elements. The copy is kept
+     * until the list changes. Lists with random access are read directly.
+     * @return snapshot with the number of reads served by the copy and of copies
+     * @since 1.4
+     */
+    public Snapshot<T> adaptive() {
+        if (snapshot == null) {
+            snapshot = new Snapshot<T>(list);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Keep the results of {@link #select}, {@link #count} and {@link #reduce}
+     * in cache while the list doesn't change. Only a {@link VersionedList}
+     * knows when it changes, other lists are not cached.
+     * @param cache cache of results, can be shared by many helpers
+     * @return ListHelper to chaining methods
+     * @since 1.4
+     */
+    public ListHelper<T> cache(ResultCache cache) {
+        this.cache = cache;
         return this;
     }
 
+    private List<T> elements(boolean indexed) {
+        if (snapshot == null || list instanceof RandomAccess) {
+            return list;
+        }
+        return snapshot.read(indexed);
+    }
+
     // ------------------------------------------------------------------
     // Accessing Methods
     // ------------------------------------------------------------------
@@ -204,15 +1030,16 @@ public class ListHelper<T> {
      * @return Element at the index
      */
     public T at(int index) {
+        List<T> elements = elements(true);
         if (index < 0) {
-            index = list.size() + index;
+            index = elements.size() + index;
         }
 
-        if (index >= list.size()) {
+        if (index >= elements.size()) {
             return null;
         }
 
-        return list.get(index);
+        return elements.get(index);
     }
 
     /**
@@ -222,7 +1049,7 @@ public class ListHelper<T> {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public T fetch(int index) {
-        return list.get(index);
+        return elements(true).get(index);
     }
 
     /**
@@ -232,11 +1059,101 @@ public class ListHelper<T> {
      * @return element of list or default value
      */
     public T fetch(int index, T def) {
-        try {
-            return list.get(index);
-        } catch (IndexOutOfBoundsException e) {
+        List<T> elements = elements(true);
+        if (index < 0 || index >= elements.size()) {
             return def;
         }
+        return elements.get(index);
+    }
+
+    /**
+     * Get the elements at many indexes, like {@link #fetch(int, Object)} for
+     * each index. Lists without random access are walked once, in the order
+     * of the sorted indexes.
+     * @param indexes indexes of the elements
+     * @param def value of the indexes out of range
+     * @return list with the element of each index, in the order of indexes
+     * @since 1.4
+     */
+    public List<T> fetchAll(int[] indexes, T def) {
+        int size = list.size();
+        List<T> result = new ArrayList<T>(indexes.length);
+        List<T> elements = elements(true);
+        if (elements instanceof RandomAccess) {
+            for (int index : indexes) {
+                result.add(index >= 0 && index < size ? elements.get(index) : def);
+            }
+            return result;
+        }
+        for (int i = 0; i < indexes.length; i++) {
+            result.add(def);
+        }
+        ListIterator<T> it = list.listIterator();
+        T current = null;
+        for (long entry : sortedInRange(indexes, size)) {
+            int index = (int) (entry >>> 32);
+            while (it.nextIndex() <= index) {
+                current = it.next();
+            }
+            result.set((int) entry, current);
+        }
+        return result;
+    }
+
+    /**
+     * Set the element at each index to the value at the same position,
+     * ignoring indexes out of range. When an index repeats, the last value
+     * is kept. Lists without random access are walked once, in the order of
+     * the sorted indexes.
+     * @param indexes indexes of the elements
+     * @param values new values, one for each index
+     * @return number of elements set
+     * @since 1.4
+     */
+    public int setAll(int[] indexes, T[] values) {
+        if (indexes.length != values.length) {
+            throw new IllegalArgumentException("Expected " + indexes.length + " values, got " + values.length);
+        }
+        int size = list.size();
+        int count = 0;
+        if (list instanceof RandomAccess) {
+            for (int i = 0; i < indexes.length; i++) {
+                int index = indexes[i];
+                if (index >= 0 && index < size) {
+                    list.set(index, values[i]);
+                    count++;
+                }
+            }
+        } else {
+            ListIterator<T> it = list.listIterator();
+            for (long entry : sortedInRange(indexes, size)) {
+                int index = (int) (entry >>> 32);
+                while (it.nextIndex() <= index) {
+                    it.next();
+                }
+                it.set(values[(int) entry]);
+                count++;
+            }
+        }
+        replacedViews(Arrays.asList(values));
+        return count;
+    }
+
+    /**
+     * Indexes in range with their positions, packed as index &lt;&lt; 32 | position
+     * and sorted by index and then by position.
+     */
+    private static long[] sortedInRange(int[] indexes, int size) {
+        long[] entries = new long[indexes.length];
+        int n = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] >= 0 && indexes[i] < size) {
+                entries[n++] = ((long) indexes[i] << 32) | i;
+            }
+        }
+        entries = Arrays.copyOf(entries, n);
+        Arrays.sort(entries);
+        return entries;
     }
 
     /**
@@ -273,6 +1190,42 @@ public class ListHelper<T> {
         return list.subList(n, list.size());
     }
 
+    /**
+     * Get k elements chosen uniformly at random, or all elements if list
+     * has less than k elements, walking the list once.
+     * @param k number of elements
+     * @param seed seed of the random numbers, the same seed returns the same sample
+     * @return list of sampled elements
+     * @since 1.4
+     */
+    public List<T> sample(int k, long seed) {
+        if (k < 0) throw new IllegalArgumentException("Sample size can't be negative: " + k);
+        return Sampling.reservoir(elements(false), k, new Random(seed));
+    }
+
+    /**
+     * Get k elements chosen uniformly at random, sampling ranges of the list
+     * in parallel. Lists without random access are sampled in the current thread.
+     * @param k number of elements
+     * @param seed seed of the random numbers, the same seed returns the same sample
+     * @param executor executor to sample the ranges
+     * @return list of sampled elements
+     * @since 1.4
+     */
+    public List<T> sample(int k, long seed, ExecutorService executor) {
+        if (k < 0) throw new IllegalArgumentException("Sample size can't be negative: " + k);
+        List<T> elements = elements(true);
+        if (!(elements instanceof RandomAccess)) {
+            return sample(k, seed);
+        }
+        ChunkedList<T> chunked = chunked();
+        if (chunked != null) {
+            // reads from several threads must not update the block index
+            chunked.buildIndex();
+        }
+        return Sampling.parallel(elements, k, seed, executor);
+    }
+
     // ------------------------------------------------------------------
     // Information Methods
     // ------------------------------------------------------------------
@@ -318,9 +1271,21 @@ public class ListHelper<T> {
      * @return the size of list
      */
     public int count(ConditionFunction<T> function) {
+        if (cache != null && list instanceof VersionedList) {
+            return cache.count(list, function);
+        }
+        if (function instanceof Predicate) {
+            return ((Predicate<T>) function).count(elements(false));
+        }
+        if (list instanceof AbstractCompressedList) {
+            return countCompressed(function);
+        }
+        if (list instanceof DictionaryStringList) {
+            return countDictionary(function);
+        }
         int count = 0;
         if (isNotEmpty()) {
-            for (T t : list) {
+            for (T t : elements(false)) {
                 if (function.condition(t)) {
                     count += 1;
                 }
@@ -328,6 +1293,40 @@ public class ListHelper<T> {
         }
         return count;
     }
+
+    @SuppressWarnings("unchecked")
+    private int countCompressed(ConditionFunction<T> function) {
+        return ((AbstractCompressedList<Number>) list).count((ConditionFunction<Number>) function);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int countDictionary(ConditionFunction<T> function) {
+        return ((DictionaryStringList) list).count((ConditionFunction<String>) function);
+    }
+
+    /**
+     * Count the elements by the key returned by function.
+     * @param function the function to get the key of element
+     * @return number of elements of each key, in the order the keys were first seen
+     * @since 1.4
+     */
+    public <K> Map<K, Integer> countBy(TransformFunction<T, K> function) {
+        if (list instanceof DictionaryStringList) {
+            return countByDictionary(function);
+        }
+        Map<K, Integer> result = new LinkedHashMap<K, Integer>();
+        for (T t : elements(false)) {
+            K key = function.transform(t);
+            Integer count = result.get(key);
+            result.put(key, count == null ? 1 : count + 1);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K> Map<K, Integer> countByDictionary(TransformFunction<T, K> function) {
+        return ((DictionaryStringList) list).countBy((TransformFunction<String, K>) function);
+    }
     
     /**
      * Returns true if all of the values in the list pass the predicate truth test
@@ -335,7 +1334,7 @@ public class ListHelper<T> {
      * @return true if all elements pass on test
      */
 	public boolean all(ConditionFunction<T> function) {
-		for (T t : list) {
+		for (T t : elements(false)) {
 			if (!function.condition(t)) {
 				return false;
 			}
@@ -349,7 +1348,7 @@ public class ListHelper<T> {
      * @return true if any elements pass on test
      */
 	public boolean any(ConditionFunction<T> function) {
-		for (T t : list) {
+		for (T t : elements(false)) {
 			if (function.condition(t)) {
 				return true;
 			}
@@ -365,8 +1364,11 @@ public class ListHelper<T> {
      * @since 1.2
      */
 	public <R> R reduce(R initialValue, ReduceFunction<T, R> function) {
+        if (cache != null && list instanceof VersionedList) {
+            return cache.reduce(list, initialValue, function);
+        }
         R returnValue = initialValue;
-		for (T t : list) {
+		for (T t : elements(false)) {
 			returnValue = function.reduce(returnValue, t);
 		}
 		return returnValue;
@@ -0,0 +1,65 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+
+import java.util.List;
+
+/**
+ * Number of elements where a condition returns true, kept up to date as
+ * elements are pushed.
+ *
+ * @see ListHelper#liveCount(ConditionFunction)
+ * @since 1.4
+ */
+public class LiveCount<T> extends LiveView<T> {
+
+    private final ConditionFunction<T> function;
+    private int count;
+
+    LiveCount(List<T> list, ConditionFunction<T> function) {
+        super(list);
+        this.function = function;
+    }
+
+    @Override
+    void add(T t) {
+        if (function.condition(t)) {
+            count += 1;
+        }
+    }
+
+    @Override
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * @return number of elements of list where the condition returns true
+     */
+    public int get() {
+        refresh();
+        return count;
+    }
+}
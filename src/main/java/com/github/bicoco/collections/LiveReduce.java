@@ -0,0 +1,65 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+import java.util.List;
+
+/**
+ * Reduction of the elements of list in a single value, kept up to date as
+ * elements are pushed.
+ *
+ * @see ListHelper#liveReduce(Object, ReduceFunction)
+ * @since 1.4
+ */
+public class LiveReduce<T, R> extends LiveView<T> {
+
+    private final R initialValue;
+    private final ReduceFunction<T, R> function;
+    private R value;
+
+    LiveReduce(List<T> list, R initialValue, ReduceFunction<T, R> function) {
+        super(list);
+        this.initialValue = initialValue;
+        this.function = function;
+    }
+
+    @Override
+    void add(T t) {
+        value = function.reduce(value, t);
+    }
+
+    @Override
+    void clear() {
+        value = initialValue;
+    }
+
+    /**
+     * @return the reduced value of the elements of list
+     */
+    public R get() {
+        refresh();
+        return value;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Elements where a condition returns true, kept up to date as elements are
+ * pushed.
+ *
+ * @see ListHelper#liveSelect(ConditionFunction)
+ * @since 1.4
+ */
+public class LiveSelect<T> extends LiveView<T> {
+
+    private final ConditionFunction<T> function;
+    private final List<T> selected = new ArrayList<T>();
+    private final List<T> view = Collections.unmodifiableList(selected);
+
+    LiveSelect(List<T> list, ConditionFunction<T> function) {
+        super(list);
+        this.function = function;
+    }
+
+    @Override
+    void add(T t) {
+        if (function.condition(t)) {
+            selected.add(t);
+        }
+    }
+
+    @Override
+    void clear() {
+        selected.clear();
+    }
+
+    /**
+     * @return read-only list of elements where the condition returns true
+     */
+    public List<T> get() {
+        refresh();
+        return view;
+    }
+}
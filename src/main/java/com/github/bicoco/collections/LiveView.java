@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Result of an operation over a list that is kept up to date as elements are
+ * pushed through the {@link ListHelper} that created it, in constant time per
+ * element.
+ *
+ * When the list is changed outside the helper, the change is noticed by its
+ * size or by a list iterator of the list failing fast, and the view is
+ * rebuilt with a full pass on the next read. Replacing elements with
+ * {@link List#set} outside the helper is not noticed, so call
+ * {@link #invalidate()}.
+ *
+ * @since 1.4
+ */
+public abstract class LiveView<T> {
+
+    private final List<T> list;
+    private ListIterator<T> probe;
+    private int seen = -1;
+    private int rebuilds;
+
+    LiveView(List<T> list) {
+        this.list = list;
+    }
+
+    /**
+     * Include a new element at the end of list.
+     */
+    abstract void add(T t);
+
+    /**
+     * Go back to the result of an empty list.
+     */
+    abstract void clear();
+
+    /**
+     * Called by the helper before adding an element to the end of list.
+     */
+    void pushing() {
+        if (!isCurrent()) {
+            seen = -1;
+        }
+    }
+
+    /**
+     * Called by the helper after adding an element to the end of list.
+     */
+    void pushed(T t) {
+        if (seen >= 0 && seen == list.size() - 1) {
+            add(t);
+            watch();
+        } else {
+            seen = -1;
+        }
+    }
+
+    /**
+     * Called by the helper after putting elements in the list in place of
+     * others. Views rebuilt on the next read have nothing to do.
+     */
+    void replaced(Iterable<T> elements) {
+    }
+
+    /**
+     * Rebuild the view if the list changed outside the helper.
+     */
+    void refresh() {
+        if (!isCurrent()) {
+            clear();
+            for (T t : list) {
+                add(t);
+            }
+            watch();
+            rebuilds++;
+        }
+    }
+
+    private boolean isCurrent() {
+        if (seen < 0 || list.size() != seen) {
+            return false;
+        }
+        try {
+            if (probe.hasPrevious()) {
+                probe.previous();
+                probe.next();
+            }
+            return true;
+        } catch (ConcurrentModificationException e) {
+            return false;
+        }
+    }
+
+    private void watch() {
+        seen = list.size();
+        probe = list.listIterator(seen);
+    }
+
+    /**
+     * Force a rebuild on the next read.
+     */
+    public void invalidate() {
+        seen = -1;
+    }
+
+    /**
+     * @return how many times the view was computed with a full pass on the list
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+}
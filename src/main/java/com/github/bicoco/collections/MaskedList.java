@@ -0,0 +1,87 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Read-only view of the elements of a list at the indexes of a mask.
+ *
+ * @since 1.4
+ */
+class MaskedList<T> extends AbstractList<T> {
+
+    private final List<T> list;
+    private final IndexMask mask;
+
+    MaskedList(List<T> list, IndexMask mask) {
+        this.list = list;
+        this.mask = mask;
+    }
+
+    @Override
+    public T get(int index) {
+        return list.get(mask.select(index));
+    }
+
+    @Override
+    public int size() {
+        return mask.cardinality();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (list instanceof RandomAccess) {
+            return super.iterator();
+        }
+        // walk the list only once when get(int) is not constant time
+        return new Iterator<T>() {
+            private final ListIterator<T> it = list.listIterator();
+            private int next = mask.nextSetBit(0);
+
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            public T next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                while (it.nextIndex() < next) {
+                    it.next();
+                }
+                next = mask.nextSetBit(next + 1);
+                return it.next();
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Utilities to split work over ranges of a list and run it in an executor.
+ *
+ * @since 1.4
+ */
+final class Parallel {
+
+    private Parallel() {
+    }
+
+    /**
+     * Split [0, size) in at most n ranges of similar length.
+     */
+    static List<int[]> ranges(int size, int n) {
+        List<int[]> ranges = new ArrayList<int[]>();
+        int step = Math.max(1, (size + n - 1) / n);
+        for (int from = 0; from < size; from += step) {
+            ranges.add(new int[] {from, Math.min(size, from + step)});
+        }
+        return ranges;
+    }
+
+    /**
+     * Run the tasks in the executor, or in the current thread if it is null.
+     * @return the results in the order of the tasks
+     */
+    static <V> List<V> invokeAll(ExecutorService executor, List<? extends Callable<V>> tasks) {
+        List<V> results = new ArrayList<V>(tasks.size());
+        try {
+            if (executor == null || tasks.size() == 1) {
+                for (Callable<V> task : tasks) {
+                    results.add(task.call());
+                }
+            } else {
+                for (Future<V> future : executor.invokeAll(tasks)) {
+                    results.add(future.get());
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return results;
+    }
+}
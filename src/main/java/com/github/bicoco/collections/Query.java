@@ -0,0 +1,419 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.TransformFunction;
+
+/**
+ * Declarative chain of operations over a list, rewritten by a planner
+ * before it runs.
+ *
+ * <pre>
+ * List&lt;String&gt; names = Query.from(persons)
+ *         .where(adult)
+ *         .orderBy(byAge)
+ *         .map(name)
+ *         .limit(10)
+ *         .list();
+ * </pre>
+ *
+ * The planner applies these rules, see {@link #explain()}:
+ * <ul>
+ * <li>filters run before the sorts that precede them;</li>
+ * <li>limits run before the maps that precede them, since maps don't change the count;</li>
+ * <li>a sort followed by a limit keeps only the first elements in a heap (top-n);</li>
+ * <li>adjacent filters and adjacent maps are fused, adjacent limits keep the smallest;</li>
+ * <li>filters, maps and limits between sorts run in a single pass, stopping
+ * as soon as a limit is reached.</li>
+ * </ul>
+ * Filters are never moved before maps, since they test the mapped value.
+ * Sorts are stable, so the plan returns the same elements in the same order
+ * as running each operation in full.
+ *
+ * Queries are immutable, each method returns a new query.
+ *
+ * @since 1.4
+ */
+public final class Query<T> {
+
+    private final Iterable<?> source;
+    private final List<Step> steps;
+
+    private Query(Iterable<?> source, List<Step> steps) {
+        this.source = source;
+        this.steps = steps;
+    }
+
+    /**
+     * Start a query over the elements of iterable.
+     */
+    public static <T> Query<T> from(Iterable<T> source) {
+        return new Query<T>(source, Collections.<Step>emptyList());
+    }
+
+    /**
+     * Keep only elements where condition is true.
+     */
+    public Query<T> where(ConditionFunction<? super T> condition) {
+        return add(new Step(Kind.FILTER, condition));
+    }
+
+    /**
+     * Transform each element.
+     */
+    public <R> Query<R> map(TransformFunction<? super T, R> function) {
+        return add(new Step(Kind.MAP, function));
+    }
+
+    /**
+     * Sort elements, keeping equal elements in their order.
+     */
+    public Query<T> orderBy(Comparator<? super T> comparator) {
+        return add(new Step(Kind.SORT, comparator));
+    }
+
+    /**
+     * Keep only the first n elements.
+     */
+    public Query<T> limit(int n) {
+        if (n < 0) throw new IllegalArgumentException("Limit can't be negative: " + n);
+        Step step = new Step(Kind.LIMIT, null);
+        step.n = n;
+        return add(step);
+    }
+
+    private <R> Query<R> add(Step step) {
+        List<Step> result = new ArrayList<Step>(steps);
+        result.add(step);
+        return new Query<R>(source, result);
+    }
+
+    /**
+     * Run the query.
+     * @return new list with the result
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> list() {
+        List<Object> result = new ArrayList<Object>();
+        Sink sink = new Collect(result);
+        List<Step> plan = plan();
+        for (int i = plan.size() - 1; i >= 0; i--) {
+            sink = plan.get(i).sink(sink);
+        }
+        for (Object element : source) {
+            if (!sink.accept(element)) {
+                break;
+            }
+        }
+        sink.end();
+        return (List<T>) result;
+    }
+
+    /**
+     * Describe the plan, from the last operation to the scan of the source.
+     */
+    public String explain() {
+        List<Step> plan = plan();
+        StringBuilder text = new StringBuilder();
+        String indent = "";
+        for (int i = plan.size() - 1; i >= 0; i--) {
+            text.append(indent).append(plan.get(i)).append('\n');
+            indent += "  ";
+        }
+        text.append(indent).append("Scan");
+        if (source instanceof List) {
+            text.append(" (").append(((List<?>) source).size()).append(" elements)");
+        }
+        return text.toString();
+    }
+
+    List<Step> plan() {
+        List<Step> plan = new ArrayList<Step>();
+        for (Step step : steps) {
+            plan.add(step.copy());
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < plan.size(); i++) {
+                Step before = plan.get(i - 1), step = plan.get(i);
+                if ((step.kind == Kind.FILTER && before.kind == Kind.SORT)
+                        || (step.kind == Kind.LIMIT && before.kind == Kind.MAP)) {
+                    plan.set(i - 1, step);
+                    plan.set(i, before);
+                    changed = true;
+                } else if (step.kind == before.kind && step.kind != Kind.SORT) {
+                    before.fuse(step);
+                    plan.remove(i);
+                    changed = true;
+                }
+            }
+        }
+        for (int i = 1; i < plan.size(); i++) {
+            Step before = plan.get(i - 1), step = plan.get(i);
+            if (step.kind == Kind.LIMIT && before.kind == Kind.SORT) {
+                before.kind = Kind.TOP_N;
+                before.n = step.n;
+                plan.remove(i);
+            }
+        }
+        return plan;
+    }
+
+    enum Kind {
+        FILTER, MAP, SORT, TOP_N, LIMIT
+    }
+
+    /**
+     * Operation of the query, with the functions fused in it.
+     */
+    static final class Step {
+        Kind kind;
+        final List<Object> functions = new ArrayList<Object>();
+        int n;
+
+        Step(Kind kind, Object function) {
+            this.kind = kind;
+            if (function != null) {
+                functions.add(function);
+            }
+        }
+
+        Step copy() {
+            Step copy = new Step(kind, null);
+            copy.functions.addAll(functions);
+            copy.n = n;
+            return copy;
+        }
+
+        void fuse(Step next) {
+            functions.addAll(next.functions);
+            n = Math.min(n, next.n);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Sink sink(Sink next) {
+            switch (kind) {
+            case FILTER:
+                return new Filter(next, functions.toArray(new ConditionFunction[functions.size()]));
+            case MAP:
+                return new Map(next, functions.toArray(new TransformFunction[functions.size()]));
+            case LIMIT:
+                return new Limit(next, n);
+            default:
+                return new Sort(next, (Comparator<Object>) functions.get(0), kind == Kind.TOP_N ? n : -1);
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+            case FILTER:
+                return "Filter" + (functions.size() > 1 ? " (" + functions.size() + " fused)" : "");
+            case MAP:
+                return "Map" + (functions.size() > 1 ? " (" + functions.size() + " fused)" : "");
+            case LIMIT:
+                return "Limit (" + n + ")";
+            case TOP_N:
+                return "TopN (" + n + ")";
+            default:
+                return "Sort";
+            }
+        }
+    }
+
+    /**
+     * Receives the elements of the previous operation.
+     */
+    abstract static class Sink {
+        final Sink next;
+
+        Sink(Sink next) {
+            this.next = next;
+        }
+
+        /**
+         * @return false when no more elements are needed
+         */
+        abstract boolean accept(Object element);
+
+        void end() {
+            next.end();
+        }
+    }
+
+    private static final class Collect extends Sink {
+        private final List<Object> result;
+
+        Collect(List<Object> result) {
+            super(null);
+            this.result = result;
+        }
+
+        @Override
+        boolean accept(Object element) {
+            result.add(element);
+            return true;
+        }
+
+        @Override
+        void end() {
+        }
+    }
+
+    private static final class Filter extends Sink {
+        private final ConditionFunction<Object>[] conditions;
+
+        Filter(Sink next, ConditionFunction<Object>[] conditions) {
+            super(next);
+            this.conditions = conditions;
+        }
+
+        @Override
+        boolean accept(Object element) {
+            for (ConditionFunction<Object> condition : conditions) {
+                if (!condition.condition(element)) {
+                    return true;
+                }
+            }
+            return next.accept(element);
+        }
+    }
+
+    private static final class Map extends Sink {
+        private final TransformFunction<Object, Object>[] functions;
+
+        Map(Sink next, TransformFunction<Object, Object>[] functions) {
+            super(next);
+            this.functions = functions;
+        }
+
+        @Override
+        boolean accept(Object element) {
+            for (TransformFunction<Object, Object> function : functions) {
+                element = function.transform(element);
+            }
+            return next.accept(element);
+        }
+    }
+
+    private static final class Limit extends Sink {
+        private int remaining;
+
+        Limit(Sink next, int n) {
+            super(next);
+            this.remaining = n;
+        }
+
+        @Override
+        boolean accept(Object element) {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            return next.accept(element) && remaining > 0;
+        }
+    }
+
+    /**
+     * Stable sort of all elements, or of the first n elements with a heap
+     * holding the worst of them at its head.
+     */
+    private static final class Sort extends Sink {
+        private final Comparator<Object> comparator;
+        private final int n;
+        private final List<Object> elements = new ArrayList<Object>();
+        private PriorityQueue<Object[]> heap;
+        private long sequence;
+
+        Sort(Sink next, Comparator<Object> comparator, int n) {
+            super(next);
+            this.comparator = comparator;
+            this.n = n;
+            if (n > 0) {
+                heap = new PriorityQueue<Object[]>(n, new Comparator<Object[]>() {
+                    @Override
+                    public int compare(Object[] a, Object[] b) {
+                        return -order(a, b);
+                    }
+                });
+            }
+        }
+
+        private int order(Object[] a, Object[] b) {
+            int result = comparator.compare(a[0], b[0]);
+            if (result != 0) {
+                return result;
+            }
+            long x = (Long) a[1], y = (Long) b[1];
+            return x < y ? -1 : (x == y ? 0 : 1);
+        }
+
+        @Override
+        boolean accept(Object element) {
+            if (n < 0) {
+                elements.add(element);
+            } else if (n > 0) {
+                Object[] entry = new Object[] {element, sequence++};
+                if (heap.size() < n) {
+                    heap.add(entry);
+                } else if (order(entry, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+            return n != 0;
+        }
+
+        @Override
+        void end() {
+            if (n < 0) {
+                Collections.sort(elements, comparator);
+            } else if (n > 0) {
+                List<Object[]> entries = new ArrayList<Object[]>(heap);
+                Collections.sort(entries, new Comparator<Object[]>() {
+                    @Override
+                    public int compare(Object[] a, Object[] b) {
+                        return order(a, b);
+                    }
+                });
+                for (Object[] entry : entries) {
+                    elements.add(entry[0]);
+                }
+            }
+            for (Object element : elements) {
+                if (!next.accept(element)) {
+                    break;
+                }
+            }
+            next.end();
+        }
+    }
+}
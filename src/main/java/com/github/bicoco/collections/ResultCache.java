@@ -0,0 +1,290 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of select, count and reduce results of {@link VersionedList}s, for
+ * the same function called many times on a list that rarely changes.
+ *
+ * Results are kept by list and function identity with the version of the
+ * list they were computed at, so any change to the list makes them a miss.
+ * Other lists are never cached. The least recently used results are evicted
+ * when the cache holds more than the maximum number of results or the
+ * maximum weight, the number of selected elements plus one for each result.
+ *
+ * <pre>
+ * ResultCache cache = new ResultCache(1000, 1000000);
+ * ListHelper&lt;Order&gt; orders = new ListHelper&lt;Order&gt;(VersionedList.of(list)).cache(cache);
+ * orders.select(OPEN);
+ * </pre>
+ *
+ * The cache can be shared by threads.
+ *
+ * @see ListHelper#cache(ResultCache)
+ * @since 1.4
+ */
+public class ResultCache {
+
+    private static final int SELECT = 0;
+    private static final int COUNT = 1;
+    private static final int REDUCE = 2;
+    private static final Object NULL = new Object();
+    // reduce results shared by callers and used as keys
+    private static final Set<Class<?>> IMMUTABLE = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+            Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class));
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries maximum number of results
+     * @param maxWeight maximum number of selected elements, plus one for each result
+     */
+    public ResultCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache limits must be positive: " + maxEntries + ", " + maxWeight);
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Select all elements that condition returns true, or a copy of the cached result.
+     * @param list list of elements
+     * @param function Apply in each element and select if returns true.
+     * @return list of elements that the condition is true.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> select(List<T> list, ConditionFunction<T> function) {
+        if (!(list instanceof VersionedList)) {
+            return new ListHelper<T>(list).select(function);
+        }
+        Key key = new Key(SELECT, list, function, null);
+        long version = ((VersionedList<T>) list).version();
+        List<T> result = (List<T>) get(key, version);
+        if (result == null) {
+            result = new ListHelper<T>(list).select(function);
+            put(key, version, result, result.size() + 1);
+        }
+        return new ArrayList<T>(result);
+    }
+
+    /**
+     * Number of elements where function returns true, or the cached result.
+     * @param list list of elements
+     * @param function the condition to consider element in count
+     * @return number of elements
+     */
+    public <T> int count(List<T> list, ConditionFunction<T> function) {
+        if (!(list instanceof VersionedList)) {
+            return new ListHelper<T>(list).count(function);
+        }
+        Key key = new Key(COUNT, list, function, null);
+        long version = ((VersionedList<T>) list).version();
+        Integer result = (Integer) get(key, version);
+        if (result == null) {
+            result = new ListHelper<T>(list).count(function);
+            put(key, version, result, 1);
+        }
+        return result;
+    }
+
+    /**
+     * Transform the list on a single value, or the cached value. Results are
+     * kept by the identity of function and the equality of initial value,
+     * and the same value is returned on each hit, so only immutable values
+     * are cached: null, strings, booleans, characters and the boxed and big
+     * numbers. Reducing into a mutable value, like a map or a digest, is
+     * computed on each call.
+     * @param list list of elements
+     * @param initialValue initial value of the to be returned
+     * @param function the reduce function
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public <T, R> R reduce(List<T> list, R initialValue, ReduceFunction<T, R> function) {
+        if (!(list instanceof VersionedList) || !immutable(initialValue)) {
+            return new ListHelper<T>(list).reduce(initialValue, function);
+        }
+        Key key = new Key(REDUCE, list, function, initialValue);
+        long version = ((VersionedList<T>) list).version();
+        Object cached = get(key, version);
+        if (cached != null) {
+            return cached == NULL ? null : (R) cached;
+        }
+        R result = new ListHelper<T>(list).reduce(initialValue, function);
+        if (immutable(result)) {
+            put(key, version, result == null ? NULL : result, 1);
+        }
+        return result;
+    }
+
+    /**
+     * Values that can be shared by callers and used as keys, checked by exact
+     * class since subclasses of the big numbers can be mutable.
+     */
+    private static boolean immutable(Object value) {
+        return value == null || IMMUTABLE.contains(value.getClass());
+    }
+
+    private synchronized Object get(Key key, long version) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            hits++;
+            return entry.value;
+        }
+        misses++;
+        return null;
+    }
+
+    private synchronized void put(Key key, long version, Object value, long weight) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            this.weight -= old.weight;
+        }
+        if (weight > maxWeight) {
+            return;
+        }
+        entries.put(key, new Entry(version, value, weight));
+        this.weight += weight;
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries || this.weight > maxWeight) {
+            this.weight -= it.next().weight;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Remove all results.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return number of results in the cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return weight of the results in the cache
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return hits over the calls on versioned lists, or 0 before the first call
+     */
+    public synchronized double getHitRate() {
+        long calls = hits + misses;
+        return calls == 0 ? 0 : (double) hits / calls;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ResultCache(" + entries.size() + " results, weight " + weight + ", hits " + hits
+                + ", misses " + misses + ", evictions " + evictions + ")";
+    }
+
+    private static final class Key {
+
+        private final int operation;
+        private final Object list;
+        private final Object function;
+        private final Object initialValue;
+
+        Key(int operation, Object list, Object function, Object initialValue) {
+            this.operation = operation;
+            this.list = list;
+            this.function = function;
+            this.initialValue = initialValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return operation == other.operation && list == other.list && function == other.function
+                    && (initialValue == null ? other.initialValue == null : initialValue.equals(other.initialValue));
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 31 * operation + System.identityHashCode(list);
+            hash = 31 * hash + System.identityHashCode(function);
+            return 31 * hash + (initialValue == null ? 0 : initialValue.hashCode());
+        }
+    }
+
+    private static final class Entry {
+
+        final long version;
+        final Object value;
+        final long weight;
+
+        Entry(long version, Object value, long weight) {
+            this.version = version;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
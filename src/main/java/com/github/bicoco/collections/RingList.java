@@ -0,0 +1,233 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+/**
+ * List of the last pushed elements, bounded by count and optionally by
+ * age. Pushing to a full list evicts the oldest element; with a maximum
+ * age, pushing also evicts the elements older than the age of the new one.
+ *
+ * Aggregates of the window are kept up to date on each push and eviction
+ * in constant amortized time, see {@link #aggregate(Object, ReduceFunction)}.
+ *
+ * <pre>
+ * RingList&lt;Integer&gt; last = new RingList&lt;Integer&gt;(1000);
+ * WindowAggregate&lt;Integer&gt; max = last.aggregate(Integer.MIN_VALUE, maxFunction);
+ * last.push(12).push(7);
+ * max.get();
+ * </pre>
+ *
+ * Elements can't be replaced nor removed, except by {@link #clear()}.
+ * This implementation is not synchronized.
+ *
+ * @since 1.4
+ */
+public class RingList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final Object[] elements;
+    private final long[] timestamps;
+    private final long maxAge;
+    private int head;
+    private int size;
+    private final List<WindowAggregate<T>> aggregates = new ArrayList<WindowAggregate<T>>();
+
+    /**
+     * Window of the last capacity elements.
+     * @param capacity maximum number of elements
+     */
+    public RingList(int capacity) {
+        this(capacity, -1);
+    }
+
+    /**
+     * Window of the last capacity elements not older than maxAge.
+     * @param capacity maximum number of elements
+     * @param maxAge maximum age of elements, in the unit of the timestamps
+     *               (milliseconds when pushed without timestamp)
+     */
+    public RingList(int capacity, long maxAge) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.elements = new Object[capacity];
+        this.timestamps = maxAge < 0 ? null : new long[capacity];
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Keep the aggregate of the elements in the window, computed with an
+     * associative function with identity, like sum, min or max. Uses two
+     * stacks: the oldest elements keep the aggregate of themselves and all
+     * newer elements of the stack, so each element is combined a constant
+     * number of times.
+     * @param identity value that doesn't change the aggregate
+     * @param function associative function combining two values
+     * @return the aggregate of the window
+     */
+    public WindowAggregate<T> aggregate(T identity, ReduceFunction<T, T> function) {
+        return register(new WindowAggregate<T>(this, identity, function, null));
+    }
+
+    /**
+     * Keep the aggregate of the elements in the window, removing evicted
+     * elements with the inverse function, like subtracting them from a sum.
+     * @param identity value that doesn't change the aggregate
+     * @param function associative function combining two values
+     * @param inverse function removing the second value from the first
+     * @return the aggregate of the window
+     */
+    public WindowAggregate<T> aggregate(T identity, ReduceFunction<T, T> function, ReduceFunction<T, T> inverse) {
+        return register(new WindowAggregate<T>(this, identity, function, inverse));
+    }
+
+    private WindowAggregate<T> register(WindowAggregate<T> aggregate) {
+        aggregates.add(aggregate);
+        for (int i = 0; i < size; i++) {
+            aggregate.pushed(get(i));
+        }
+        return aggregate;
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) elements[slot(index)];
+    }
+
+    /**
+     * Timestamp of the element at index, only for lists with maximum age.
+     */
+    public long timestamp(int index) {
+        if (timestamps == null) {
+            throw new IllegalStateException("List has no maximum age");
+        }
+        get(index);
+        return timestamps[slot(index)];
+    }
+
+    /**
+     * Identical to {@link #push(Object)}.
+     */
+    @Override
+    public boolean add(T t) {
+        push(t);
+        return true;
+    }
+
+    /**
+     * Add element to the end of window, evicting the oldest elements.
+     * @param t element to push
+     * @return this list to chaining methods
+     */
+    public RingList<T> push(T t) {
+        return push(t, System.currentTimeMillis());
+    }
+
+    /**
+     * Add element with timestamp to the end of window, evicting the oldest
+     * element when full and the elements older than maxAge before timestamp.
+     * Timestamps must not decrease.
+     * @param t element to push
+     * @param timestamp time of the element
+     * @return this list to chaining methods
+     */
+    public RingList<T> push(T t, long timestamp) {
+        if (size > 0 && timestamps != null && timestamp < timestamps[slot(size - 1)]) {
+            throw new IllegalArgumentException("Timestamp " + timestamp + " before last timestamp");
+        }
+        expire(timestamp);
+        if (size == elements.length) {
+            evict();
+        }
+        int slot = slot(size);
+        elements[slot] = t;
+        if (timestamps != null) {
+            timestamps[slot] = timestamp;
+        }
+        size++;
+        modCount++;
+        for (WindowAggregate<T> aggregate : aggregates) {
+            aggregate.pushed(t);
+        }
+        return this;
+    }
+
+    /**
+     * Evict the elements older than maxAge at time now.
+     * @param now current time in the unit of the timestamps
+     * @return number of evicted elements
+     */
+    public int expire(long now) {
+        int evicted = 0;
+        if (timestamps != null) {
+            while (size > 0 && now - timestamps[head] > maxAge) {
+                evict();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        while (size > 0) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        @SuppressWarnings("unchecked")
+        T t = (T) elements[head];
+        elements[head] = null;
+        head = (head + 1) % elements.length;
+        size--;
+        modCount++;
+        for (WindowAggregate<T> aggregate : aggregates) {
+            aggregate.evicted(t);
+        }
+    }
+
+    private int slot(int index) {
+        int slot = head + index;
+        return slot >= elements.length ? slot - elements.length : slot;
+    }
+}
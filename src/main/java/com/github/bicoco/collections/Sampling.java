@@ -0,0 +1,128 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Uniform random samples of lists.
+ *
+ * @since 1.4
+ */
+final class Sampling {
+
+    private Sampling() {
+    }
+
+    /**
+     * Reservoir sampling with geometric jumps (Li's algorithm L), which draws
+     * O(k log(n/k)) random numbers instead of one per element.
+     */
+    static <T> List<T> reservoir(Collection<T> elements, int k, Random random) {
+        List<T> reservoir = new ArrayList<T>(Math.min(k, elements.size()));
+        if (k == 0) {
+            return reservoir;
+        }
+        double w = Math.exp(Math.log(random.nextDouble()) / k);
+        long next = k;
+        long position = 0;
+        for (T t : elements) {
+            if (position < k) {
+                reservoir.add(t);
+                if (position == k - 1) {
+                    next = k + skip(w, random);
+                }
+            } else if (position == next) {
+                reservoir.set(random.nextInt(k), t);
+                w *= Math.exp(Math.log(random.nextDouble()) / k);
+                next = position + 1 + skip(w, random);
+            }
+            position++;
+        }
+        return reservoir;
+    }
+
+    private static long skip(double w, Random random) {
+        double skip = Math.floor(Math.log(random.nextDouble()) / Math.log(1 - w));
+        return skip >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE / 2 : (long) skip;
+    }
+
+    /**
+     * Sample ranges of list in parallel and merge the samples, drawing how
+     * many elements come from each range from the multivariate
+     * hypergeometric distribution of the range sizes.
+     */
+    static <T> List<T> parallel(final List<T> list, final int k, long seed, ExecutorService executor) {
+        List<int[]> ranges = Parallel.ranges(list.size(), executor == null ? 1 : Runtime.getRuntime().availableProcessors());
+        List<Callable<List<T>>> tasks = new ArrayList<Callable<List<T>>>();
+        for (int r = 0; r < ranges.size(); r++) {
+            final int[] range = ranges.get(r);
+            final Random random = new Random(seed + 0x9E3779B97F4A7C15L * (r + 1));
+            tasks.add(new Callable<List<T>>() {
+                @Override
+                public List<T> call() {
+                    return reservoir(list.subList(range[0], range[1]), k, random);
+                }
+            });
+        }
+        List<List<T>> samples = Parallel.invokeAll(executor, tasks);
+
+        Random random = new Random(seed);
+        int[] remaining = new int[ranges.size()];
+        int total = 0;
+        for (int r = 0; r < remaining.length; r++) {
+            remaining[r] = ranges.get(r)[1] - ranges.get(r)[0];
+            total += remaining[r];
+        }
+        int[] taken = new int[remaining.length];
+        for (int j = 0; j < k && total > 0; j++) {
+            int x = random.nextInt(total);
+            int r = 0;
+            while (x >= remaining[r]) {
+                x -= remaining[r++];
+            }
+            remaining[r]--;
+            total--;
+            taken[r]++;
+        }
+
+        List<T> result = new ArrayList<T>(Math.min(k, list.size()));
+        for (int r = 0; r < taken.length; r++) {
+            List<T> sample = samples.get(r);
+            // partial shuffle, the first taken[r] elements are a uniform subset
+            for (int i = 0; i < taken[r]; i++) {
+                int j = i + random.nextInt(sample.size() - i);
+                T t = sample.get(j);
+                sample.set(j, sample.get(i));
+                sample.set(i, t);
+                result.add(t);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.TransformFunction;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Union, intersection and differences of two lists, with the semantics of
+ * Ruby arrays: union, intersection and symmetric difference have no
+ * duplicates, difference keeps the duplicates of the left list.
+ *
+ * The hash strategy keeps the order of the left list, followed by the
+ * right list for union and symmetric difference. When all keys are Integers
+ * or all are Longs they are kept in an open addressing table of longs
+ * instead of a HashSet. With an executor, keys and membership are computed
+ * in ranges in parallel.
+ *
+ * The merge strategy walks two lists sorted by a comparator once, and
+ * returns sorted results.
+ *
+ * @since 1.4
+ */
+final class SetOperations {
+
+    enum Operation { UNION, INTERSECT, DIFFERENCE, SYMMETRIC_DIFFERENCE }
+
+    private SetOperations() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T, K> List<T> hash(Operation operation, List<T> left, List<T> right,
+                               TransformFunction<T, K> key, ExecutorService executor) {
+        int parallelism = executor == null ? 1 : Runtime.getRuntime().availableProcessors();
+        T[] l = (T[]) left.toArray();
+        T[] r = (T[]) right.toArray();
+        Object[] lk = key == null ? l : keys(l, key, executor, parallelism);
+        Object[] rk = key == null ? r : keys(r, key, executor, parallelism);
+        boolean longs = sameIntegralType(lk, rk);
+
+        List<T> result = new ArrayList<T>();
+        Keys seen = newKeys(longs, 16);
+        if (operation == Operation.UNION) {
+            add(result, seen, l, lk, null);
+            add(result, seen, r, rk, null);
+            return result;
+        }
+        boolean[] inRight = contains(fill(newKeys(longs, rk.length), rk), lk, executor, parallelism);
+        if (operation == Operation.DIFFERENCE) {
+            for (int i = 0; i < l.length; i++) {
+                if (!inRight[i]) result.add(l[i]);
+            }
+        } else if (operation == Operation.INTERSECT) {
+            add(result, seen, l, lk, inRight);
+        } else {
+            boolean[] inLeft = contains(fill(newKeys(longs, lk.length), lk), rk, executor, parallelism);
+            invert(inRight);
+            invert(inLeft);
+            add(result, seen, l, lk, inRight);
+            add(result, seen, r, rk, inLeft);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> List<T> merge(Operation operation, List<T> left, List<T> right, Comparator<? super T> comparator) {
+        T[] l = (T[]) left.toArray();
+        T[] r = (T[]) right.toArray();
+        List<T> result = new ArrayList<T>();
+        int i = 0, j = 0;
+        while (i < l.length && j < r.length) {
+            int c = comparator.compare(l[i], r[j]);
+            switch (operation) {
+                case UNION:
+                    addDistinct(result, c <= 0 ? l[i] : r[j], comparator);
+                    if (c <= 0) i++; else j++;
+                    break;
+                case INTERSECT:
+                    if (c == 0) addDistinct(result, l[i], comparator);
+                    if (c <= 0) i++; else j++;
+                    break;
+                case DIFFERENCE:
+                    if (c < 0) result.add(l[i]);
+                    if (c <= 0) i++; else j++;
+                    break;
+                default:
+                    if (c < 0) {
+                        addDistinct(result, l[i++], comparator);
+                    } else if (c > 0) {
+                        addDistinct(result, r[j++], comparator);
+                    } else {
+                        T value = l[i];
+                        while (i < l.length && comparator.compare(l[i], value) == 0) i++;
+                        while (j < r.length && comparator.compare(r[j], value) == 0) j++;
+                    }
+            }
+        }
+        if (operation != Operation.INTERSECT) {
+            for (; i < l.length; i++) {
+                if (operation == Operation.DIFFERENCE) {
+                    result.add(l[i]);
+                } else {
+                    addDistinct(result, l[i], comparator);
+                }
+            }
+        }
+        if (operation == Operation.UNION || operation == Operation.SYMMETRIC_DIFFERENCE) {
+            for (; j < r.length; j++) {
+                addDistinct(result, r[j], comparator);
+            }
+        }
+        return result;
+    }
+
+    private static <T> void addDistinct(List<T> result, T t, Comparator<? super T> comparator) {
+        if (result.isEmpty() || comparator.compare(result.get(result.size() - 1), t) != 0) {
+            result.add(t);
+        }
+    }
+
+    /**
+     * Add the elements whose key is seen for the first time, and that are
+     * selected when selected isn't null.
+     */
+    private static <T> void add(List<T> result, Keys seen, T[] elements, Object[] keys, boolean[] selected) {
+        for (int i = 0; i < elements.length; i++) {
+            if ((selected == null || selected[i]) && seen.add(keys[i])) {
+                result.add(elements[i]);
+            }
+        }
+    }
+
+    private static Keys fill(Keys set, Object[] keys) {
+        for (Object key : keys) {
+            set.add(key);
+        }
+        return set;
+    }
+
+    private static boolean[] contains(final Keys set, final Object[] keys,
+                                      ExecutorService executor, int parallelism) {
+        final boolean[] contains = new boolean[keys.length];
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final int[] range : Parallel.ranges(keys.length, parallelism)) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    for (int i = range[0]; i < range[1]; i++) {
+                        contains[i] = set.contains(keys[i]);
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+        return contains;
+    }
+
+    private static void invert(boolean[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = !values[i];
+        }
+    }
+
+    private static <E, K> Object[] keys(final E[] elements, final TransformFunction<E, K> function,
+                                        ExecutorService executor, int parallelism) {
+        final Object[] keys = new Object[elements.length];
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final int[] range : Parallel.ranges(elements.length, parallelism)) {
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    for (int i = range[0]; i < range[1]; i++) {
+                        keys[i] = function.transform(elements[i]);
+                    }
+                    return null;
+                }
+            });
+        }
+        Parallel.invokeAll(executor, tasks);
+        return keys;
+    }
+
+    /**
+     * @return true if all keys are Integers or all are Longs
+     */
+    private static boolean sameIntegralType(Object[] left, Object[] right) {
+        Object first = left.length > 0 ? left[0] : (right.length > 0 ? right[0] : null);
+        if (!(first instanceof Integer) && !(first instanceof Long)) {
+            return false;
+        }
+        Class<?> type = first.getClass();
+        for (Object key : left) {
+            if (key == null || key.getClass() != type) return false;
+        }
+        for (Object key : right) {
+            if (key == null || key.getClass() != type) return false;
+        }
+        return true;
+    }
+
+    private static Keys newKeys(boolean longs, int expected) {
+        return longs ? new LongKeys(expected) : new ObjectKeys();
+    }
+
+    /**
+     * Set of keys, safe to read from many threads once filled.
+     */
+    private interface Keys {
+
+        /**
+         * @return true if the key was not in the set
+         */
+        boolean add(Object key);
+
+        boolean contains(Object key);
+    }
+
+    private static final class ObjectKeys implements Keys {
+
+        private final HashSet<Object> set = new HashSet<Object>();
+
+        public boolean add(Object key) {
+            return set.add(key);
+        }
+
+        public boolean contains(Object key) {
+            return set.contains(key);
+        }
+    }
+
+    /**
+     * Open addressing table of longs with linear probing. Zero marks the
+     * empty slots, so the key zero is kept apart.
+     */
+    private static final class LongKeys implements Keys {
+
+        private long[] table;
+        private int size;
+        private boolean zero;
+
+        LongKeys(int expected) {
+            int capacity = 16;
+            while (capacity < expected * 2) capacity <<= 1;
+            table = new long[capacity];
+        }
+
+        public boolean add(Object key) {
+            long value = ((Number) key).longValue();
+            if (value == 0) {
+                boolean added = !zero;
+                zero = true;
+                return added;
+            }
+            if (!insert(table, value)) {
+                return false;
+            }
+            if (++size * 2 > table.length) {
+                long[] larger = new long[table.length * 2];
+                for (long old : table) {
+                    if (old != 0) insert(larger, old);
+                }
+                table = larger;
+            }
+            return true;
+        }
+
+        public boolean contains(Object key) {
+            long value = ((Number) key).longValue();
+            if (value == 0) {
+                return zero;
+            }
+            int mask = table.length - 1;
+            for (int i = slot(value, mask); table[i] != 0; i = (i + 1) & mask) {
+                if (table[i] == value) return true;
+            }
+            return false;
+        }
+
+        private static boolean insert(long[] table, long value) {
+            int mask = table.length - 1;
+            int i = slot(value, mask);
+            for (; table[i] != 0; i = (i + 1) & mask) {
+                if (table[i] == value) return false;
+            }
+            table[i] = value;
+            return true;
+        }
+
+        private static int slot(long value, int mask) {
+            long h = value * 0x9e3779b97f4a7c15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+}
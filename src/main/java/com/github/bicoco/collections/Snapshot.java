@@ -0,0 +1,159 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+/**
+ * Array copy of a list without random access, like a {@link java.util.LinkedList},
+ * used by an adaptive {@link ListHelper} for indexed and repeated reads.
+ *
+ * Indexed reads copy the list at once. Passes over the whole list copy it
+ * on the second pass, so a single pass costs no more than before. The copy
+ * is kept until the list changes, which is noticed by its size or by a list
+ * iterator of the list failing fast. Replacing elements with
+ * {@link List#set} outside the helper is not noticed, so call
+ * {@link #invalidate()}.
+ *
+ * @see ListHelper#adaptive()
+ * @since 1.4
+ */
+public class Snapshot<T> {
+
+    private final List<T> list;
+    private ListIterator<T> probe;
+    private int size;
+    private Object[] elements;
+    private int passes;
+    private int hits;
+    private int rebuilds;
+
+    Snapshot(List<T> list) {
+        this.list = list;
+    }
+
+    /**
+     * Elements to read, the copy if it is current or worth building.
+     * @param indexed true for reads by index
+     */
+    List<T> read(boolean indexed) {
+        if (!isCurrent()) {
+            watch();
+            elements = null;
+            passes = 0;
+        }
+        if (elements != null) {
+            hits++;
+            return new Elements();
+        }
+        if (indexed || passes > 0) {
+            elements = list.toArray();
+            rebuilds++;
+            return new Elements();
+        }
+        passes++;
+        return list;
+    }
+
+    /**
+     * @return true if the list didn't change since it was last watched
+     */
+    boolean isCurrent() {
+        if (probe == null || list.size() != size) {
+            return false;
+        }
+        try {
+            if (probe.hasPrevious()) {
+                probe.previous();
+                probe.next();
+            }
+            return true;
+        } catch (ConcurrentModificationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Called by the helper after adding an element to the end of a list that was current.
+     */
+    void pushed(T t) {
+        if (elements != null) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+            }
+            elements[size] = t;
+        }
+        watch();
+    }
+
+    private void watch() {
+        size = list.size();
+        probe = list.listIterator(size);
+    }
+
+    /**
+     * Drop the copy, it is built again on the next indexed or repeated read.
+     */
+    public void invalidate() {
+        probe = null;
+    }
+
+    /**
+     * @return number of reads served by the copy
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return how many times the list was copied
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    private class Elements extends AbstractList<T> implements RandomAccess {
+
+        private final Object[] elements = Snapshot.this.elements;
+        private final int size = Snapshot.this.size;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (T) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.bicoco.collections.functions.KeyFunction;
+
+/**
+ * Helper methods to lists kept sorted by a comparator or by a numeric key.
+ * Searches are binary, or interpolation searches for numeric keys, so the
+ * list should be random access.
+ *
+ * With a numeric key, {@link #eytzinger(boolean)} keeps a copy of the keys
+ * in Eytzinger (breadth-first) order, where the first levels of the search
+ * share few cache lines. The copy is rebuilt when the size of the list
+ * changes, so the list must not be modified in other ways while it is on.
+ *
+ * The helper doesn't check that the list is sorted, searches in an
+ * unsorted list return unspecified results.
+ *
+ * @since 1.4
+ */
+public class SortedListHelper<T> {
+
+    private final List<T> list;
+    private final Comparator<? super T> comparator;
+    private final KeyFunction<? super T> key;
+
+    private boolean eytzinger;
+    private long[] tree;
+    private int[] ranks;
+    private int treeSize = -1;
+
+    /**
+     * Helper to a list sorted by comparator.
+     * @param list the sorted list
+     * @param comparator order of the list
+     */
+    public SortedListHelper(List<T> list, Comparator<? super T> comparator) {
+        this.list = list;
+        this.comparator = comparator;
+        this.key = null;
+    }
+
+    /**
+     * Helper to a list sorted by ascending numeric key.
+     * @param list the sorted list
+     * @param key key of the elements
+     */
+    public SortedListHelper(List<T> list, KeyFunction<? super T> key) {
+        this.list = list;
+        this.comparator = null;
+        this.key = key;
+    }
+
+    /**
+     * Search keys in a copy in Eytzinger order, only for numeric keys.
+     * @param enabled true to keep the copy
+     * @return this helper
+     */
+    public SortedListHelper<T> eytzinger(boolean enabled) {
+        if (key == null) {
+            throw new IllegalStateException("Eytzinger layout requires a numeric key");
+        }
+        this.eytzinger = enabled;
+        this.tree = null;
+        this.ranks = null;
+        this.treeSize = -1;
+        return this;
+    }
+
+    // ------------------------------------------------------------------
+    // Searching Methods
+    // ------------------------------------------------------------------
+
+    /**
+     * Index of the first element equal to element in the order of the list.
+     * @param element element to search
+     * @return index of element, or -1 if not found
+     */
+    public int indexOf(T element) {
+        if (key != null) {
+            return indexOfKey(key.key(element));
+        }
+        int index = lowerBound(element);
+        return index < list.size() && comparator.compare(list.get(index), element) == 0 ? index : -1;
+    }
+
+    /**
+     * Index of the first element with key, only for numeric keys.
+     * @param value key to search
+     * @return index of the element, or -1 if not found
+     */
+    public int indexOfKey(long value) {
+        int index = lowerBoundOfKey(value);
+        return index < list.size() && key.key(list.get(index)) == value ? index : -1;
+    }
+
+    /**
+     * True if list has an element equal to element in the order of the list.
+     */
+    public boolean contains(T element) {
+        return indexOf(element) >= 0;
+    }
+
+    /**
+     * View of the elements from lo to hi, both inclusive.
+     * @param lo first element of range
+     * @param hi last element of range
+     * @return view of the elements of list in range
+     */
+    public List<T> range(T lo, T hi) {
+        if (key != null) {
+            return rangeOfKeys(key.key(lo), key.key(hi));
+        }
+        int from = lowerBound(lo);
+        return list.subList(from, Math.max(from, upperBound(hi)));
+    }
+
+    /**
+     * View of the elements with keys from lo to hi, both inclusive.
+     */
+    public List<T> rangeOfKeys(long lo, long hi) {
+        int from = lowerBoundOfKey(lo);
+        int to = hi == Long.MAX_VALUE ? list.size() : lowerBoundOfKey(hi + 1);
+        return list.subList(from, Math.max(from, to));
+    }
+
+    /**
+     * Number of elements from lo to hi, both inclusive.
+     */
+    public int countBetween(T lo, T hi) {
+        return range(lo, hi).size();
+    }
+
+    /**
+     * Number of elements with keys from lo to hi, both inclusive.
+     */
+    public int countBetweenKeys(long lo, long hi) {
+        return rangeOfKeys(lo, hi).size();
+    }
+
+    // ------------------------------------------------------------------
+    // Modifying Methods
+    // ------------------------------------------------------------------
+
+    /**
+     * Insert element keeping the order, after the elements equal to it.
+     * @param element element to insert
+     * @return index of the inserted element
+     */
+    public int insertSorted(T element) {
+        int index;
+        if (key != null) {
+            long value = key.key(element);
+            index = value == Long.MAX_VALUE ? list.size() : lowerBoundOfKey(value + 1);
+        } else {
+            index = upperBound(element);
+        }
+        list.add(index, element);
+        return index;
+    }
+
+    /**
+     * Insert elements keeping the order.
+     * @param ts elements to insert
+     */
+    public void push(T... ts) {
+        for (T t : ts) {
+            insertSorted(t);
+        }
+    }
+
+    /**
+     * Insert element keeping the order.
+     * @param t element to insert
+     * @return SortedListHelper to chaining methods
+     */
+    public SortedListHelper<T> push(T t) {
+        insertSorted(t);
+        return this;
+    }
+
+    // ------------------------------------------------------------------
+    // Bounds
+    // ------------------------------------------------------------------
+
+    private int lowerBound(T element) {
+        int low = 0, high = list.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(list.get(middle), element) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(T element) {
+        int low = 0, high = list.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(list.get(middle), element) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Index of the first element with key greater or equal to value.
+     */
+    int lowerBoundOfKey(long value) {
+        if (eytzinger) {
+            return eytzingerLowerBound(value);
+        }
+        int low = 0, high = list.size();
+        // interpolation while the keys are spread evenly, binary search after that
+        for (int probes = 0; low < high && probes < 4; probes++) {
+            long first = key.key(list.get(low));
+            long last = key.key(list.get(high - 1));
+            if (value <= first) {
+                return low;
+            }
+            if (value > last) {
+                return high;
+            }
+            double fraction = ((double) value - first) / ((double) last - first);
+            int guess = low + (int) (fraction * (high - 1 - low));
+            if (key.key(list.get(guess)) < value) {
+                low = guess + 1;
+            } else {
+                high = guess;
+            }
+        }
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key.key(list.get(middle)) < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int eytzingerLowerBound(long value) {
+        int n = list.size();
+        if (treeSize != n) {
+            buildTree(n);
+        }
+        int k = 1;
+        while (k <= n) {
+            k = 2 * k + (tree[k] < value ? 1 : 0);
+        }
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k == 0 ? n : ranks[k];
+    }
+
+    private void buildTree(int n) {
+        tree = new long[n + 1];
+        ranks = new int[n + 1];
+        long[] keys = new long[n];
+        int i = 0;
+        for (T t : list) {
+            keys[i++] = key.key(t);
+        }
+        fill(keys, 0, 1);
+        treeSize = n;
+    }
+
+    /**
+     * Fill the tree in order: left subtree, node, right subtree.
+     * @return next sorted index to place
+     */
+    private int fill(long[] keys, int next, int k) {
+        if (k < tree.length) {
+            next = fill(keys, next, 2 * k);
+            tree[k] = keys[next];
+            ranks[k] = next++;
+            next = fill(keys, next, 2 * k + 1);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the elements of many sorted lists in order, keeping the
+ * next element of each list in a binary heap: O(log k) per element for k
+ * lists. Equal elements come in the order of the lists, so the merge is
+ * stable.
+ *
+ * @since 1.4
+ */
+final class SortedMerge<T> implements Iterator<T> {
+
+    private final Comparator<? super T> comparator;
+    private final Iterator<? extends T>[] iterators;
+    private final Object[] heads;
+    // indexes of the lists with elements left, as a heap of their heads
+    private final int[] heap;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SortedMerge(List<? extends List<? extends T>> lists, Comparator<? super T> comparator) {
+        this.comparator = comparator;
+        this.iterators = new Iterator[lists.size()];
+        this.heads = new Object[lists.size()];
+        this.heap = new int[lists.size()];
+        for (int i = 0; i < iterators.length; i++) {
+            iterators[i] = lists.get(i).iterator();
+            if (iterators[i].hasNext()) {
+                heads[i] = iterators[i].next();
+                heap[size++] = i;
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            down(i);
+        }
+    }
+
+    public boolean hasNext() {
+        return size > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int list = heap[0];
+        T result = (T) heads[list];
+        if (iterators[list].hasNext()) {
+            heads[list] = iterators[list].next();
+        } else {
+            heads[list] = null;
+            heap[0] = heap[--size];
+        }
+        down(0);
+        return result;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private void down(int i) {
+        int list = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], list)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean less(int a, int b) {
+        int result = comparator.compare((T) heads[a], (T) heads[b]);
+        return result < 0 || (result == 0 && a < b);
+    }
+}
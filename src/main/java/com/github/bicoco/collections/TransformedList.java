@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+import com.github.bicoco.collections.functions.TransformFunction;
+
+/**
+ * Read-only view of the elements of a list transformed on read.
+ *
+ * Results are cached in pages of slots allocated on the first read of an
+ * index of the page, so the cost is proportional to the indexes read. The
+ * cache is dropped when the list changes, which is noticed by its size or
+ * by a list iterator of the list failing fast, and by the {@link ListHelper}
+ * that made the view when it replaces elements. Replacing elements with
+ * {@link List#set} outside that helper is not noticed.
+ *
+ * @since 1.4
+ */
+class TransformedList<T, R> extends AbstractList<R> {
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    // slot not computed yet, since null is a valid result
+    private static final Object EMPTY = new Object();
+
+    private final List<T> list;
+    private final TransformFunction<T, R> function;
+    private final boolean cache;
+    private Object[][] pages;
+    private ListIterator<T> probe;
+    private int cachedSize = -1;
+
+    TransformedList(List<T> list, TransformFunction<T, R> function, boolean cache) {
+        this.list = list;
+        this.function = function;
+        this.cache = cache;
+    }
+
+    /**
+     * Create a view with random access if the list has it.
+     */
+    static <T, R> TransformedList<T, R> of(List<T> list, TransformFunction<T, R> function, boolean cache) {
+        return list instanceof RandomAccess
+                ? new RandomAccessTransformedList<T, R>(list, function, cache)
+                : new TransformedList<T, R>(list, function, cache);
+    }
+
+    /**
+     * Drop the cached results.
+     */
+    void invalidate() {
+        probe = null;
+    }
+
+    @Override
+    public R get(int index) {
+        if (!cache) {
+            return function.transform(list.get(index));
+        }
+        if (index < 0 || index >= list.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + list.size());
+        }
+        R cached = cached(index);
+        return cached != EMPTY ? cached : store(index, list.get(index));
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public Iterator<R> iterator() {
+        if (list instanceof RandomAccess) {
+            return super.iterator();
+        }
+        // walk the list only once when get(int) is not constant time
+        return new Iterator<R>() {
+            private final ListIterator<T> it = list.listIterator();
+
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public R next() {
+                int index = it.nextIndex();
+                T t = it.next();
+                if (!cache) {
+                    return function.transform(t);
+                }
+                R cached = cached(index);
+                return cached != EMPTY ? cached : store(index, t);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private R cached(int index) {
+        if (!isCurrent()) {
+            cachedSize = list.size();
+            pages = new Object[(cachedSize + PAGE_SIZE - 1) >>> PAGE_BITS][];
+            probe = list.listIterator(cachedSize);
+        }
+        Object[] page = pages[index >>> PAGE_BITS];
+        return (R) (page == null ? EMPTY : page[index & (PAGE_SIZE - 1)]);
+    }
+
+    private boolean isCurrent() {
+        if (probe == null || list.size() != cachedSize) {
+            return false;
+        }
+        try {
+            if (probe.hasPrevious()) {
+                probe.previous();
+                probe.next();
+            }
+            return true;
+        } catch (ConcurrentModificationException e) {
+            return false;
+        }
+    }
+
+    private R store(int index, T t) {
+        R result = function.transform(t);
+        Object[] page = pages[index >>> PAGE_BITS];
+        if (page == null) {
+            page = new Object[Math.min(PAGE_SIZE, cachedSize - (index & ~(PAGE_SIZE - 1)))];
+            Arrays.fill(page, EMPTY);
+            pages[index >>> PAGE_BITS] = page;
+        }
+        page[index & (PAGE_SIZE - 1)] = result;
+        return result;
+    }
+
+    private static class RandomAccessTransformedList<T, R> extends TransformedList<T, R> implements RandomAccess {
+
+        RandomAccessTransformedList(List<T> list, TransformFunction<T, R> function, boolean cache) {
+            super(list, function, cache);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+/**
+ * List that counts its changes. Every method that changes the list, including
+ * {@link #set} and the methods of its iterators and sub lists, increments
+ * {@link #version()}, so a result computed at one version is still the
+ * result while the version is the same.
+ *
+ * Changes to the elements themselves, or to the wrapped list directly, are
+ * not seen: keep only the versioned list.
+ *
+ * @see ResultCache
+ * @since 1.4
+ */
+public class VersionedList<T> extends AbstractList<T> {
+
+    private final List<T> list;
+    private long version;
+
+    VersionedList(List<T> list) {
+        this.list = list;
+    }
+
+    /**
+     * Wrap a list, keeping random access if the list has it.
+     * @param list list to wrap
+     * @return the versioned list
+     */
+    public static <T> VersionedList<T> of(List<T> list) {
+        return list instanceof RandomAccess ? new RandomAccessVersionedList<T>(list) : new VersionedList<T>(list);
+    }
+
+    /**
+     * @return number of changes since the list was wrapped
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return the wrapped list
+     */
+    List<T> unwrap() {
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public T get(int index) {
+        return list.get(index);
+    }
+
+    @Override
+    public T set(int index, T t) {
+        T old = list.set(index, t);
+        version++;
+        return old;
+    }
+
+    @Override
+    public void add(int index, T t) {
+        list.add(index, t);
+        changed();
+    }
+
+    @Override
+    public T remove(int index) {
+        T old = list.remove(index);
+        changed();
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        list.subList(fromIndex, toIndex).clear();
+        changed();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return listIterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator(final int index) {
+        final ListIterator<T> it = list.listIterator(index);
+        return new ListIterator<T>() {
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public T next() {
+                return it.next();
+            }
+
+            public boolean hasPrevious() {
+                return it.hasPrevious();
+            }
+
+            public T previous() {
+                return it.previous();
+            }
+
+            public int nextIndex() {
+                return it.nextIndex();
+            }
+
+            public int previousIndex() {
+                return it.previousIndex();
+            }
+
+            public void remove() {
+                it.remove();
+                changed();
+            }
+
+            public void set(T t) {
+                it.set(t);
+                version++;
+            }
+
+            public void add(T t) {
+                it.add(t);
+                changed();
+            }
+        };
+    }
+
+    /**
+     * Count a change made to the wrapped list directly.
+     */
+    void changed() {
+        version++;
+        modCount++;
+    }
+
+    private static class RandomAccessVersionedList<T> extends VersionedList<T> implements RandomAccess {
+
+        RandomAccessVersionedList(List<T> list) {
+            super(list);
+        }
+    }
+}
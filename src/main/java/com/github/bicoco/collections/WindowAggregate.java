@@ -0,0 +1,114 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections;
+
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+/**
+ * Aggregate of the elements in the window of a {@link RingList}, updated
+ * as elements are pushed and evicted.
+ *
+ * Without inverse, the aggregate keeps two stacks. New elements are
+ * combined into the aggregate of the back stack. When the oldest element is
+ * evicted and the front stack is empty, all elements move to the front
+ * stack, each keeping the aggregate of itself and the newer elements of the
+ * front. The window aggregate combines the front of the front stack with
+ * the back aggregate.
+ *
+ * @see RingList#aggregate(Object, ReduceFunction)
+ * @since 1.4
+ */
+public final class WindowAggregate<T> {
+
+    private final RingList<T> list;
+    private final T identity;
+    private final ReduceFunction<T, T> function;
+    private final ReduceFunction<T, T> inverse;
+
+    private T back;
+    // aggregates of the front stack, from the oldest element
+    private Object[] front;
+    private int frontStart;
+    private int frontSize;
+    private long combines;
+
+    WindowAggregate(RingList<T> list, T identity, ReduceFunction<T, T> function, ReduceFunction<T, T> inverse) {
+        this.list = list;
+        this.identity = identity;
+        this.function = function;
+        this.inverse = inverse;
+        this.back = identity;
+        this.front = inverse == null ? new Object[list.capacity()] : null;
+    }
+
+    /**
+     * Aggregate of the elements in the window, or identity if it is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+        if (frontSize == 0) {
+            return back;
+        }
+        combines++;
+        return function.reduce((T) front[frontStart], back);
+    }
+
+    /**
+     * Number of times the function was called, to check the cost per element.
+     */
+    public long getCombines() {
+        return combines;
+    }
+
+    void pushed(T t) {
+        combines++;
+        back = function.reduce(back, t);
+    }
+
+    @SuppressWarnings("unchecked")
+    void evicted(T t) {
+        if (inverse != null) {
+            combines++;
+            back = inverse.reduce(back, t);
+            return;
+        }
+        if (frontSize == 0) {
+            // the window before eviction: t and the elements after it
+            int n = list.size() + 1;
+            T aggregate = identity;
+            for (int i = n - 1; i >= 1; i--) {
+                aggregate = function.reduce(list.get(i - 1), aggregate);
+                front[i] = aggregate;
+                combines++;
+            }
+            front[0] = function.reduce(t, aggregate);
+            combines++;
+            frontStart = 0;
+            frontSize = n;
+            back = identity;
+        }
+        front[frontStart] = null;
+        frontStart++;
+        frontSize--;
+    }
+}
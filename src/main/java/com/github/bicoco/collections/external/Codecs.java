@@ -0,0 +1,169 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.external;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Codecs of common element types. All of them support null elements.
+ *
+ * @since 1.4
+ */
+public class Codecs {
+
+    private static final ElementCodec<String> STRINGS = new ElementCodec<String>() {
+        public void write(DataOutput out, String s) throws IOException {
+            writeBytes(out, s == null ? null : s.getBytes("UTF-8"));
+        }
+
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = readBytes(in);
+            return bytes == null ? null : new String(bytes, "UTF-8");
+        }
+    };
+
+    private static final ElementCodec<Integer> INTEGERS = new ElementCodec<Integer>() {
+        public void write(DataOutput out, Integer i) throws IOException {
+            out.writeBoolean(i != null);
+            if (i != null) out.writeInt(i);
+        }
+
+        public Integer read(DataInput in) throws IOException {
+            return in.readBoolean() ? in.readInt() : null;
+        }
+    };
+
+    private static final ElementCodec<Long> LONGS = new ElementCodec<Long>() {
+        public void write(DataOutput out, Long l) throws IOException {
+            out.writeBoolean(l != null);
+            if (l != null) out.writeLong(l);
+        }
+
+        public Long read(DataInput in) throws IOException {
+            return in.readBoolean() ? in.readLong() : null;
+        }
+    };
+
+    private static final ElementCodec<Double> DOUBLES = new ElementCodec<Double>() {
+        public void write(DataOutput out, Double d) throws IOException {
+            out.writeBoolean(d != null);
+            if (d != null) out.writeDouble(d);
+        }
+
+        public Double read(DataInput in) throws IOException {
+            return in.readBoolean() ? in.readDouble() : null;
+        }
+    };
+
+    private static final ElementCodec<?> SERIALIZABLE = new ElementCodec<Object>() {
+        public void write(DataOutput out, Object o) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream objects = new ObjectOutputStream(bytes);
+            objects.writeObject(o);
+            objects.close();
+            writeBytes(out, bytes.toByteArray());
+        }
+
+        public Object read(DataInput in) throws IOException {
+            ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)));
+            try {
+                return objects.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Class of element not found: " + e.getMessage());
+            } finally {
+                objects.close();
+            }
+        }
+    };
+
+    private Codecs() {
+    }
+
+    /**
+     * Codec writing strings in UTF-8, prefixed by their length.
+     * @return codec of strings
+     */
+    public static ElementCodec<String> strings() {
+        return STRINGS;
+    }
+
+    /**
+     * Codec writing integers in 4 bytes, after a flag for null.
+     * @return codec of integers
+     */
+    public static ElementCodec<Integer> integers() {
+        return INTEGERS;
+    }
+
+    /**
+     * Codec writing longs in 8 bytes, after a flag for null.
+     * @return codec of longs
+     */
+    public static ElementCodec<Long> longs() {
+        return LONGS;
+    }
+
+    /**
+     * Codec writing doubles in 8 bytes, after a flag for null.
+     * @return codec of doubles
+     */
+    public static ElementCodec<Double> doubles() {
+        return DOUBLES;
+    }
+
+    /**
+     * Codec using Java serialization, much slower and bigger than a codec
+     * written for the type.
+     * @return codec of serializable elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Serializable> ElementCodec<T> serializable() {
+        return (ElementCodec<T>) SERIALIZABLE;
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
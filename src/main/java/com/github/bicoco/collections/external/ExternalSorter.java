@@ -0,0 +1,434 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.external;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sort more elements than fit in memory. Elements are read in chunks of at
+ * most {@link #maxInMemory(int)} elements, each chunk is sorted and spilled
+ * to a temporary file in the local disk, and the sorted runs are merged back
+ * in a streaming iterator. The memory budget counts elements, not bytes.
+ * Lists can also be sorted with
+ * {@link com.github.bicoco.collections.ListHelper#sortExternal}.
+ *
+ * The sort is stable. The counters of progress and spilling can be read from
+ * other threads while a sort is running; they accumulate over all the sorts
+ * of the sorter.
+ *
+ * <pre>
+ * ExternalSorter&lt;String&gt; sorter = new ExternalSorter&lt;String&gt;(comparator, Codecs.strings())
+ *         .maxInMemory(1000000);
+ * CloseableIterator&lt;String&gt; it = sorter.sort(lines);
+ * try {
+ *     while (it.hasNext()) write(it.next());
+ * } finally {
+ *     it.close();
+ * }
+ * </pre>
+ *
+ * @since 1.4
+ */
+public class ExternalSorter<T> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Comparator<? super T> comparator;
+    private final ElementCodec<T> codec;
+    private int maxInMemory = 100000;
+    private int maxFanIn = 64;
+    private File directory;
+    private boolean distinct;
+
+    private final AtomicLong elementsRead = new AtomicLong();
+    private final AtomicLong elementsReturned = new AtomicLong();
+    private final AtomicLong runsSpilled = new AtomicLong();
+    private final AtomicLong elementsSpilled = new AtomicLong();
+    private final AtomicLong bytesSpilled = new AtomicLong();
+    private final AtomicLong mergePasses = new AtomicLong();
+
+    /**
+     * @param comparator order of the elements
+     * @param codec codec to write and read the elements in the runs
+     */
+    public ExternalSorter(Comparator<? super T> comparator, ElementCodec<T> codec) {
+        this.comparator = comparator;
+        this.codec = codec;
+    }
+
+    /**
+     * Define the memory budget as the number of elements sorted in memory
+     * before spilling them to disk, not as bytes: pick it from the size of
+     * one element. Default is 100000.
+     * @param elements number of elements
+     * @return this sorter
+     */
+    public ExternalSorter<T> maxInMemory(int elements) {
+        if (elements < 1) {
+            throw new IllegalArgumentException("maxInMemory must be positive: " + elements);
+        }
+        this.maxInMemory = elements;
+        return this;
+    }
+
+    /**
+     * Define the number of runs merged at once, which is the number of files
+     * open by the merge. More runs are merged in intermediate passes. Default is 64.
+     * @param runs number of runs
+     * @return this sorter
+     */
+    public ExternalSorter<T> maxFanIn(int runs) {
+        if (runs < 2) {
+            throw new IllegalArgumentException("maxFanIn must be at least 2: " + runs);
+        }
+        this.maxFanIn = runs;
+        return this;
+    }
+
+    /**
+     * Define the directory of the temporary files. Default is java.io.tmpdir.
+     * @param directory local directory
+     * @return this sorter
+     */
+    public ExternalSorter<T> directory(File directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * Keep only the first of the elements the comparator considers equal.
+     * @param distinct true to remove duplicates
+     * @return this sorter
+     */
+    public ExternalSorter<T> distinct(boolean distinct) {
+        this.distinct = distinct;
+        return this;
+    }
+
+    /**
+     * Sort the elements. The returned iterator must be closed, unless it is
+     * exhausted, to delete the temporary files.
+     * @param elements elements to sort
+     * @return iterator of the sorted elements
+     * @throws IOException if the runs can't be written
+     */
+    public CloseableIterator<T> sort(Iterable<T> elements) throws IOException {
+        List<File> runs = new ArrayList<File>();
+        List<T> buffer = new ArrayList<T>();
+        boolean done = false;
+        try {
+            for (T t : elements) {
+                buffer.add(t);
+                elementsRead.incrementAndGet();
+                if (buffer.size() == maxInMemory) {
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                }
+            }
+            CloseableIterator<T> result;
+            if (runs.isEmpty()) {
+                Collections.sort(buffer, comparator);
+                result = new Merge(Collections.<Run>singletonList(new Run(buffer.iterator())), true);
+            } else {
+                if (!buffer.isEmpty()) {
+                    runs.add(spill(buffer));
+                }
+                buffer = null;
+                while (runs.size() > maxFanIn) {
+                    // merge consecutive runs in place of them, so ties keep the order of the runs
+                    for (int i = 0; i < runs.size(); i++) {
+                        List<File> group = runs.subList(i, Math.min(i + maxFanIn, runs.size()));
+                        if (group.size() == 1) {
+                            break;
+                        }
+                        Merge merge = new Merge(open(new ArrayList<File>(group)), false);
+                        try {
+                            File merged = write(merge);
+                            group.clear();
+                            runs.add(i, merged);
+                        } finally {
+                            merge.close();
+                        }
+                        mergePasses.incrementAndGet();
+                    }
+                }
+                result = new Merge(open(runs), true);
+            }
+            done = true;
+            return result;
+        } finally {
+            if (!done) {
+                delete(runs);
+            }
+        }
+    }
+
+    /**
+     * @return number of elements read from the input
+     */
+    public long getElementsRead() {
+        return elementsRead.get();
+    }
+
+    /**
+     * @return number of sorted elements returned by the iterators
+     */
+    public long getElementsReturned() {
+        return elementsReturned.get();
+    }
+
+    /**
+     * @return number of runs written to disk, including intermediate merges
+     */
+    public long getRunsSpilled() {
+        return runsSpilled.get();
+    }
+
+    /**
+     * @return number of elements written to disk, including intermediate merges
+     */
+    public long getElementsSpilled() {
+        return elementsSpilled.get();
+    }
+
+    /**
+     * @return number of bytes written to disk, including intermediate merges
+     */
+    public long getBytesSpilled() {
+        return bytesSpilled.get();
+    }
+
+    /**
+     * @return number of intermediate merges, needed when there are more runs than the max fan-in
+     */
+    public long getMergePasses() {
+        return mergePasses.get();
+    }
+
+    private File spill(List<T> buffer) throws IOException {
+        Collections.sort(buffer, comparator);
+        return write(buffer.iterator());
+    }
+
+    private File write(Iterator<T> it) throws IOException {
+        File file = File.createTempFile("list-helpers-run", ".bin", directory);
+        file.deleteOnExit();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        boolean done = false;
+        try {
+            T last = null;
+            boolean first = true;
+            while (it.hasNext()) {
+                T t = it.next();
+                if (distinct && !first && comparator.compare(last, t) == 0) {
+                    continue;
+                }
+                out.writeBoolean(true);
+                codec.write(out, t);
+                elementsSpilled.incrementAndGet();
+                last = t;
+                first = false;
+            }
+            out.writeBoolean(false);
+            done = true;
+        } finally {
+            out.close();
+            if (!done && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+        runsSpilled.incrementAndGet();
+        bytesSpilled.addAndGet(file.length());
+        return file;
+    }
+
+    private List<Run> open(List<File> files) throws IOException {
+        List<Run> runs = new ArrayList<Run>();
+        try {
+            for (File file : files) {
+                runs.add(new Run(file, runs.size()));
+            }
+        } catch (IOException e) {
+            for (Run run : runs) run.close();
+            delete(files);
+            throw e;
+        }
+        return runs;
+    }
+
+    private static void delete(List<File> files) {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Sorted sequence of elements, from memory or from a file.
+     */
+    private class Run {
+
+        private final int index;
+        private final File file;
+        private final DataInputStream in;
+        private final Iterator<T> elements;
+        private T head;
+
+        Run(Iterator<T> elements) {
+            this.index = 0;
+            this.file = null;
+            this.in = null;
+            this.elements = elements;
+        }
+
+        Run(File file, int index) throws IOException {
+            this.index = index;
+            this.file = file;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            this.elements = null;
+        }
+
+        /**
+         * Read the next element to head.
+         * @return false if the run is exhausted
+         */
+        boolean advance() throws IOException {
+            if (elements != null) {
+                if (!elements.hasNext()) return false;
+                head = elements.next();
+                return true;
+            }
+            if (!in.readBoolean()) return false;
+            head = codec.read(in);
+            return true;
+        }
+
+        void close() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // nothing to do, the file is deleted next
+                }
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * K-way merge of runs with a heap, ties broken by run index to keep the sort stable.
+     */
+    private class Merge implements CloseableIterator<T> {
+
+        private final List<Run> runs;
+        private final boolean output;
+        private final PriorityQueue<Run> heap;
+        private boolean ready;
+        private boolean first = true;
+        private T next;
+        private T last;
+
+        /**
+         * @param output true if the elements are returned to the caller, false in intermediate merges
+         */
+        Merge(List<Run> runs, boolean output) throws IOException {
+            this.runs = runs;
+            this.output = output;
+            this.heap = new PriorityQueue<Run>(Math.max(1, runs.size()), new Comparator<Run>() {
+                public int compare(Run a, Run b) {
+                    int c = comparator.compare(a.head, b.head);
+                    return c != 0 ? c : a.index - b.index;
+                }
+            });
+            boolean done = false;
+            try {
+                for (Run run : runs) {
+                    if (run.advance()) heap.add(run);
+                }
+                done = true;
+            } finally {
+                if (!done) close();
+            }
+        }
+
+        public boolean hasNext() {
+            while (!ready && !heap.isEmpty()) {
+                Run run = heap.poll();
+                T t = run.head;
+                try {
+                    if (run.advance()) heap.add(run);
+                } catch (IOException e) {
+                    close();
+                    throw new IllegalStateException("Error reading sorted run " + run.file, e);
+                }
+                if (distinct && !first && comparator.compare(last, t) == 0) {
+                    continue;
+                }
+                next = t;
+                last = t;
+                first = false;
+                ready = true;
+            }
+            if (!ready) {
+                close();
+            }
+            return ready;
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            if (output) {
+                elementsReturned.incrementAndGet();
+            }
+            return next;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void close() {
+            heap.clear();
+            for (Run run : runs) {
+                run.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.flow;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher fed by a producer through a buffer of fixed capacity. When the
+ * subscriber is slower than the producer the buffer fills up and
+ * {@link #offer(Object)} refuses the elements, or {@link #put(Object)} waits,
+ * so a bursty producer can't make the memory grow without bound.
+ *
+ * Only one subscriber is accepted. Null elements are not accepted.
+ *
+ * @since 1.4
+ */
+public class BoundedSource<T> implements Publisher<T> {
+
+    private final ArrayBlockingQueue<T> buffer;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile Subscriber<? super T> subscriber;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private boolean terminated;
+
+    /**
+     * @param capacity max number of elements waiting for the subscriber
+     */
+    public BoundedSource(int capacity) {
+        this.buffer = new ArrayBlockingQueue<T>(capacity);
+    }
+
+    public void subscribe(final Subscriber<? super T> subscriber) {
+        synchronized (this) {
+            if (this.subscriber != null) {
+                subscriber.onSubscribe(new Subscription() {
+                    public void request(long n) {
+                    }
+
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("BoundedSource accepts only one subscriber"));
+                return;
+            }
+            this.subscriber = subscriber;
+        }
+        subscriber.onSubscribe(new Subscription() {
+            public void request(long n) {
+                if (n <= 0) {
+                    error(new IllegalArgumentException("Request must be positive: " + n));
+                    return;
+                }
+                Demand.add(requested, n);
+                drain();
+            }
+
+            public void cancel() {
+                cancelled = true;
+                buffer.clear();
+            }
+        });
+        drain();
+    }
+
+    /**
+     * Add element if the buffer is not full.
+     * @param t element to publish
+     * @return false if the buffer is full or the source is completed or cancelled
+     */
+    public boolean offer(T t) {
+        if (done || cancelled || !buffer.offer(t)) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        drain();
+        return true;
+    }
+
+    /**
+     * Add element, waiting for room in the buffer if it is full.
+     * @param t element to publish
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void put(T t) throws InterruptedException {
+        if (done || cancelled) {
+            rejected.incrementAndGet();
+            return;
+        }
+        buffer.put(t);
+        drain();
+    }
+
+    /**
+     * Signal that no more elements will be published.
+     */
+    public void complete() {
+        done = true;
+        drain();
+    }
+
+    /**
+     * Signal a failure of the producer to the subscriber.
+     * @param throwable the failure
+     */
+    public void error(Throwable throwable) {
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    /**
+     * @return number of elements waiting for the subscriber
+     */
+    public int buffered() {
+        return buffer.size();
+    }
+
+    /**
+     * @return number of elements refused because the buffer was full, or after completion
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @return true if the subscriber cancelled its subscription
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Subscriber<? super T> s = subscriber;
+            if (cancelled) {
+                buffer.clear();
+            } else if (s != null && !terminated) {
+                while (requested.get() > 0) {
+                    T t = buffer.poll();
+                    if (t == null) {
+                        break;
+                    }
+                    Demand.consume(requested);
+                    s.onNext(t);
+                }
+                if (done && buffer.isEmpty()) {
+                    terminated = true;
+                    if (error != null) {
+                        s.onError(error);
+                    } else {
+                        s.onComplete();
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.flow;
+
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Subscriber that reduces all elements in a single value, requesting them in
+ * batches, and presents the value as a {@link Future}.
+ *
+ * @since 1.4
+ */
+class FoldSubscriber<T, R> implements Subscriber<T>, Future<R> {
+
+    private final ReduceFunction<T, R> function;
+    private final int batchSize;
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile Subscription subscription;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private volatile R value;
+    private int consumed;
+
+    FoldSubscriber(R initialValue, ReduceFunction<T, R> function, int batchSize) {
+        this.value = initialValue;
+        this.function = function;
+        this.batchSize = batchSize;
+    }
+
+    public void onSubscribe(Subscription subscription) {
+        if (this.subscription != null || latch.getCount() == 0) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    public void onNext(T item) {
+        if (latch.getCount() == 0) {
+            return;
+        }
+        try {
+            value = function.reduce(value, item);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            onError(e);
+            return;
+        }
+        consumed++;
+        if (consumed >= (batchSize + 1) / 2) {
+            subscription.request(consumed);
+            consumed = 0;
+        }
+    }
+
+    public void onError(Throwable throwable) {
+        if (latch.getCount() != 0) {
+            error = throwable;
+            latch.countDown();
+        }
+    }
+
+    public void onComplete() {
+        latch.countDown();
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (latch.getCount() == 0) {
+            return false;
+        }
+        cancelled = true;
+        Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+        latch.countDown();
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return latch.getCount() == 0;
+    }
+
+    public R get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return result();
+    }
+
+    public R get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return result();
+    }
+
+    private R result() throws ExecutionException {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        if (error != null) {
+            throw new ExecutionException(error);
+        }
+        return value;
+    }
+}
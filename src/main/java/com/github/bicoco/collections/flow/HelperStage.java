@@ -0,0 +1,179 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.flow;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processing stage between a publisher and a subscriber. It requests
+ * elements from upstream in batches and keeps requested or buffered at most
+ * batchSize elements, asking for a new batch when half of them were
+ * consumed or dropped.
+ *
+ * @since 1.4
+ */
+abstract class HelperStage<I, O> implements Subscriber<I>, Publisher<O> {
+
+    /**
+     * Returned by {@link #apply(Object)} to drop an element.
+     */
+    static final Object DROP = new Object();
+
+    private final Publisher<I> upstream;
+    private final int batchSize;
+    private final ConcurrentLinkedQueue<O> queue = new ConcurrentLinkedQueue<O>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile Subscription subscription;
+    private volatile Subscriber<? super O> downstream;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private boolean terminated;
+
+    HelperStage(Publisher<I> upstream, int batchSize) {
+        this.upstream = upstream;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the transformed element or {@link #DROP}
+     */
+    abstract Object apply(I item);
+
+    public void subscribe(Subscriber<? super O> subscriber) {
+        synchronized (this) {
+            if (downstream != null) {
+                throw new IllegalStateException("A stage accepts only one subscriber");
+            }
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(new Subscription() {
+            public void request(long n) {
+                if (n <= 0) {
+                    cancel();
+                    onError(new IllegalArgumentException("Request must be positive: " + n));
+                    return;
+                }
+                Demand.add(requested, n);
+                drain();
+            }
+
+            public void cancel() {
+                cancelled = true;
+                Subscription s = subscription;
+                if (s != null) {
+                    s.cancel();
+                }
+                drain();
+            }
+        });
+        upstream.subscribe(this);
+    }
+
+    public void onSubscribe(Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        }
+        drain();
+    }
+
+    @SuppressWarnings("unchecked")
+    public void onNext(I item) {
+        if (done) {
+            return;
+        }
+        Object result;
+        try {
+            result = apply(item);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            onError(e);
+            return;
+        }
+        if (result == DROP) {
+            pending.decrementAndGet();
+        } else {
+            queue.offer((O) result);
+        }
+        drain();
+    }
+
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Subscriber<? super O> s = downstream;
+            if (cancelled) {
+                queue.clear();
+            } else if (s != null && !terminated) {
+                while (requested.get() > 0) {
+                    O o = queue.poll();
+                    if (o == null) {
+                        break;
+                    }
+                    Demand.consume(requested);
+                    pending.decrementAndGet();
+                    s.onNext(o);
+                }
+                if (done && (error != null || queue.isEmpty())) {
+                    terminated = true;
+                    queue.clear();
+                    if (error != null) {
+                        s.onError(error);
+                    } else {
+                        s.onComplete();
+                    }
+                } else if (!done && subscription != null) {
+                    int p = pending.get();
+                    if (p <= batchSize / 2) {
+                        pending.addAndGet(batchSize - p);
+                        subscription.request(batchSize - p);
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.flow;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of the elements of a list or other iterable, read only as they
+ * are requested. Each subscriber receives all the elements.
+ *
+ * @since 1.4
+ */
+public class IterablePublisher<T> implements Publisher<T> {
+
+    private final Iterable<T> elements;
+
+    /**
+     * @param elements elements to publish
+     */
+    public IterablePublisher(Iterable<T> elements) {
+        this.elements = elements;
+    }
+
+    public void subscribe(final Subscriber<? super T> subscriber) {
+        final Iterator<T> it = elements.iterator();
+        final AtomicLong requested = new AtomicLong();
+        final AtomicInteger wip = new AtomicInteger();
+        subscriber.onSubscribe(new Subscription() {
+            private volatile boolean cancelled;
+            private boolean terminated;
+
+            public void request(long n) {
+                if (n <= 0) {
+                    cancelled = true;
+                    subscriber.onError(new IllegalArgumentException("Request must be positive: " + n));
+                    return;
+                }
+                Demand.add(requested, n);
+                if (wip.getAndIncrement() != 0) {
+                    return;
+                }
+                int missed = 1;
+                do {
+                    while (!cancelled && !terminated && requested.get() > 0 && it.hasNext()) {
+                        Demand.consume(requested);
+                        subscriber.onNext(it.next());
+                    }
+                    if (!cancelled && !terminated && !it.hasNext()) {
+                        terminated = true;
+                        subscriber.onComplete();
+                    }
+                    missed = wip.addAndGet(-missed);
+                } while (missed != 0);
+            }
+
+            public void cancel() {
+                cancelled = true;
+            }
+        });
+    }
+}
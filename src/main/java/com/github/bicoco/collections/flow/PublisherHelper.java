@@ -0,0 +1,197 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.flow;
+
+import com.github.bicoco.collections.functions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Helper methods of {@link com.github.bicoco.collections.ListHelper} as
+ * processing stages over a {@link Publisher}, so elements can be selected,
+ * transformed and reduced as they arrive instead of buffered in a list.
+ *
+ * Each stage requests elements from the previous one in batches of
+ * batchSize and never holds more than batchSize elements, so the memory
+ * stays bounded when the subscriber is slower than the producer.
+ *
+ * <pre>
+ * BoundedSource&lt;Event&gt; source = new BoundedSource&lt;Event&gt;(1024);
+ * Future&lt;Integer&gt; errors = new PublisherHelper&lt;Event&gt;(source)
+ *         .select(isError)
+ *         .count();
+ * </pre>
+ *
+ * @since 1.4
+ */
+public class PublisherHelper<T> {
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final Publisher<T> publisher;
+    private final int batchSize;
+
+    /**
+     * @param publisher publisher of the elements
+     */
+    public PublisherHelper(Publisher<T> publisher) {
+        this(publisher, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param publisher publisher of the elements
+     * @param batchSize number of elements requested at once by each stage
+     */
+    public PublisherHelper(Publisher<T> publisher, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Publish the elements of a list or other iterable.
+     * @param elements elements to publish
+     * @return helper of the elements
+     */
+    public static <T> PublisherHelper<T> from(Iterable<T> elements) {
+        return new PublisherHelper<T>(new IterablePublisher<T>(elements));
+    }
+
+    /**
+     * @return the publisher of the elements, to subscribe any subscriber
+     */
+    public Publisher<T> publisher() {
+        return publisher;
+    }
+
+    /**
+     * Publish all elements that condition returns true.
+     * @param function Apply in each element and select if returns true.
+     * @return helper of the selected elements
+     */
+    public PublisherHelper<T> select(final ConditionFunction<T> function) {
+        return stage(new HelperStage<T, T>(publisher, batchSize) {
+            Object apply(T t) {
+                return function.condition(t) ? t : DROP;
+            }
+        });
+    }
+
+    /**
+     * Publish all elements that condition returns false.
+     * @param function Apply in each element and reject if returns true.
+     * @return helper of the elements not rejected
+     */
+    public PublisherHelper<T> reject(final ConditionFunction<T> function) {
+        return stage(new HelperStage<T, T>(publisher, batchSize) {
+            Object apply(T t) {
+                return function.condition(t) ? DROP : t;
+            }
+        });
+    }
+
+    /**
+     * Publish a new value for each element.
+     * @param function function to apply in each value that returns the new value
+     * @return helper of the new values
+     */
+    public PublisherHelper<T> map(final MapFunction<T> function) {
+        return stage(new HelperStage<T, T>(publisher, batchSize) {
+            Object apply(T t) {
+                return function.map(t);
+            }
+        });
+    }
+
+    /**
+     * Publish a value of another type for each element.
+     * @param function function to apply in each element
+     * @return helper of the transformed elements
+     */
+    public <R> PublisherHelper<R> transform(final TransformFunction<T, R> function) {
+        return stage(new HelperStage<T, R>(publisher, batchSize) {
+            Object apply(T t) {
+                return function.transform(t);
+            }
+        });
+    }
+
+    /**
+     * Execute a custom action for each element.
+     * @param function function to execute in each element
+     * @return future completed when the publisher completes
+     */
+    public Future<Void> each(final EachFunction<T> function) {
+        return reduce(null, new ReduceFunction<T, Void>() {
+            public Void reduce(Void memo, T t) {
+                function.each(t);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Transform all elements on a single value.
+     * @param initialValue initial value of the to be returned
+     * @param function the reduce function
+     * @return future of the value, completed when the publisher completes
+     */
+    public <R> Future<R> reduce(R initialValue, ReduceFunction<T, R> function) {
+        FoldSubscriber<T, R> subscriber = new FoldSubscriber<T, R>(initialValue, function, batchSize);
+        publisher.subscribe(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Count the elements.
+     * @return future of the number of elements, completed when the publisher completes
+     */
+    public Future<Integer> count() {
+        return reduce(0, new ReduceFunction<T, Integer>() {
+            public Integer reduce(Integer memo, T t) {
+                return memo + 1;
+            }
+        });
+    }
+
+    /**
+     * Collect all elements in a list.
+     * @return future of the list, completed when the publisher completes
+     */
+    public Future<List<T>> toList() {
+        return reduce((List<T>) new ArrayList<T>(), new ReduceFunction<T, List<T>>() {
+            public List<T> reduce(List<T> memo, T t) {
+                memo.add(t);
+                return memo;
+            }
+        });
+    }
+
+    private <R> PublisherHelper<R> stage(HelperStage<T, R> stage) {
+        return new PublisherHelper<R>(stage, batchSize);
+    }
+}
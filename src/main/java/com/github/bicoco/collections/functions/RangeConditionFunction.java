@@ -0,0 +1,46 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.functions;
+
+/**
+ * Condition that can also be evaluated against a range of values, used by
+ * block-structured lists to skip or accept whole blocks without decoding them.
+ *
+ * @since 1.4
+ */
+public interface RangeConditionFunction<T> extends ConditionFunction<T> {
+
+    /**
+     * @param min smallest value of the range
+     * @param max greatest value of the range
+     * @return false only if no value between min and max can pass the condition
+     */
+    boolean mayMatch(T min, T max);
+
+    /**
+     * @param min smallest value of the range
+     * @param max greatest value of the range
+     * @return true only if every value between min and max passes the condition
+     */
+    boolean matchesAll(T min, T max);
+}
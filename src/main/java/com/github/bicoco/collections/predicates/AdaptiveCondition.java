@@ -0,0 +1,254 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+
+/**
+ * Conjunction or disjunction of conditions that reorders them by the cost
+ * and selectivity observed while it is evaluated.
+ *
+ * One in each {@link #sampleEvery(int)} evaluations runs all conditions,
+ * measuring the time and result of each. After each window of samples the
+ * conditions are ordered by expected cost: cost / (1 - selectivity) for and,
+ * cost / selectivity for or, so that cheap conditions that decide the
+ * result run first. Once the order is the same for {@link #STABLE_WINDOWS}
+ * windows, or after {@link #MAX_WINDOWS} windows, it is frozen and sampling
+ * stops, so the order no longer changes.
+ *
+ * Conditions are expected to have no side effects, since the order they
+ * run and whether they run at all change over time.
+ *
+ * @see Conditions
+ * @since 1.4
+ */
+public final class AdaptiveCondition<T> implements ConditionFunction<T> {
+
+    /** Windows with the same order before freezing it. */
+    public static final int STABLE_WINDOWS = 3;
+
+    /** Windows before freezing the order even if it isn't stable. */
+    public static final int MAX_WINDOWS = 32;
+
+    private final boolean and;
+    private final List<ConditionFunction<? super T>> conditions;
+
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLongArray nanos;
+    private final AtomicLongArray passes;
+
+    private int sampleEvery = 16;
+    private int window = 64;
+
+    private volatile int[] order;
+    private volatile boolean frozen;
+    private int windows;
+    private int stableWindows;
+    private int reorders;
+
+    AdaptiveCondition(boolean and, List<? extends ConditionFunction<? super T>> conditions) {
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("At least one condition is required");
+        }
+        this.and = and;
+        this.conditions = new ArrayList<ConditionFunction<? super T>>(conditions);
+        this.nanos = new AtomicLongArray(conditions.size());
+        this.passes = new AtomicLongArray(conditions.size());
+        this.order = new int[conditions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Sample one in every n evaluations, 16 by default.
+     */
+    public AdaptiveCondition<T> sampleEvery(int n) {
+        if (n < 1) throw new IllegalArgumentException("Sample rate must be positive: " + n);
+        this.sampleEvery = n;
+        return this;
+    }
+
+    /**
+     * Samples between decisions about the order, 64 by default.
+     */
+    public AdaptiveCondition<T> window(int samples) {
+        if (samples < 1) throw new IllegalArgumentException("Window must be positive: " + samples);
+        this.window = samples;
+        return this;
+    }
+
+    @Override
+    public boolean condition(T t) {
+        if (!frozen && evaluations.getAndIncrement() % sampleEvery == 0) {
+            return sample(t);
+        }
+        for (int index : order) {
+            if (conditions.get(index).condition(t) != and) {
+                return !and;
+            }
+        }
+        return and;
+    }
+
+    private boolean sample(T t) {
+        boolean result = and;
+        for (int i = 0; i < conditions.size(); i++) {
+            long start = System.nanoTime();
+            boolean pass = conditions.get(i).condition(t);
+            nanos.addAndGet(i, System.nanoTime() - start);
+            if (pass) {
+                passes.incrementAndGet(i);
+            }
+            if (pass != and) {
+                result = !and;
+            }
+        }
+        if (samples.incrementAndGet() % window == 0) {
+            decide();
+        }
+        return result;
+    }
+
+    private synchronized void decide() {
+        if (frozen) {
+            return;
+        }
+        final long count = samples.get();
+        final double[] expected = new double[conditions.size()];
+        for (int i = 0; i < expected.length; i++) {
+            double cost = (double) nanos.get(i) / count + 1;
+            double selectivity = (double) passes.get(i) / count;
+            double decisive = and ? 1 - selectivity : selectivity;
+            expected[i] = cost / Math.max(decisive, 1e-6);
+        }
+        Integer[] sorted = new Integer[expected.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int result = Double.compare(expected[a], expected[b]);
+                return result != 0 ? result : a - b;
+            }
+        });
+        int[] next = new int[sorted.length];
+        for (int i = 0; i < next.length; i++) {
+            next[i] = sorted[i];
+        }
+
+        windows++;
+        if (Arrays.equals(next, order)) {
+            stableWindows++;
+        } else {
+            stableWindows = 0;
+            reorders++;
+            order = next;
+        }
+        if (stableWindows >= STABLE_WINDOWS || windows >= MAX_WINDOWS) {
+            frozen = true;
+        }
+    }
+
+    /**
+     * Forget the statistics and start learning the order again, for
+     * example when the data changes.
+     */
+    public synchronized void reset() {
+        for (int i = 0; i < conditions.size(); i++) {
+            nanos.set(i, 0);
+            passes.set(i, 0);
+        }
+        samples.set(0);
+        windows = 0;
+        stableWindows = 0;
+        frozen = false;
+    }
+
+    /**
+     * Indexes of the conditions in the order they are evaluated.
+     */
+    public int[] getOrder() {
+        return order.clone();
+    }
+
+    /**
+     * True when the order no longer changes.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Number of times the order changed.
+     */
+    public synchronized int getReorders() {
+        return reorders;
+    }
+
+    public long getEvaluations() {
+        return evaluations.get();
+    }
+
+    public long getSamples() {
+        return samples.get();
+    }
+
+    /**
+     * Fraction of sampled elements where the condition at index was true.
+     */
+    public double getSelectivity(int index) {
+        long count = samples.get();
+        return count == 0 ? 0 : (double) passes.get(index) / count;
+    }
+
+    /**
+     * Mean time in nanoseconds of the condition at index on sampled elements.
+     */
+    public double getCost(int index) {
+        long count = samples.get();
+        return count == 0 ? 0 : (double) nanos.get(index) / count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(and ? "and" : "or");
+        text.append(frozen ? " frozen" : " learning").append(" [");
+        int[] current = order;
+        for (int i = 0; i < current.length; i++) {
+            if (i > 0) text.append(", ");
+            text.append('#').append(current[i])
+                    .append(String.format(" sel=%.2f cost=%.0fns", getSelectivity(current[i]), getCost(current[i])));
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.predicates;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of class files, enough for the compiled predicates.
+ *
+ * Classes are written in version 49 (Java 5), which is verified by type
+ * inference and so doesn't need stack map frames.
+ *
+ * @since 1.4
+ */
+final class ClassWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> entries = new HashMap<String, Integer>();
+    private int poolCount = 1;
+
+    private final ByteArrayOutputStream memberBytes = new ByteArrayOutputStream();
+    private final List<byte[]> fields = new ArrayList<byte[]>();
+    private final List<byte[]> methods = new ArrayList<byte[]>();
+
+    private final String name;
+    private final String superName;
+    private final int codeName;
+
+    /**
+     * @param name internal name of class, like java/lang/Object
+     * @param superName internal name of super class
+     */
+    ClassWriter(String name, String superName) {
+        this.name = name;
+        this.superName = superName;
+        this.codeName = utf8("Code");
+    }
+
+    String name() {
+        return name;
+    }
+
+    int utf8(String value) {
+        String key = "U" + value;
+        Integer index = entries.get(key);
+        if (index == null) {
+            try {
+                pool.writeByte(1);
+                pool.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = add(key, 1);
+        }
+        return index;
+    }
+
+    int classRef(String internalName) {
+        return ref("C", 7, utf8(internalName), -1);
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return ref("F", 9, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return ref("M", 10, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return ref("I", 11, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        return ref("N", 12, utf8(name), utf8(descriptor));
+    }
+
+    private int ref(String kind, int tag, int first, int second) {
+        String key = kind + first + ":" + second;
+        Integer index = entries.get(key);
+        if (index == null) {
+            try {
+                pool.writeByte(tag);
+                pool.writeShort(first);
+                if (second >= 0) {
+                    pool.writeShort(second);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = add(key, 1);
+        }
+        return index;
+    }
+
+    private int add(String key, int slots) {
+        int index = poolCount;
+        entries.put(key, index);
+        poolCount += slots;
+        return index;
+    }
+
+    void field(int access, String name, String descriptor) {
+        fields.add(member(access, utf8(name), utf8(descriptor), null));
+    }
+
+    Code method(int access, String name, String descriptor) {
+        return new Code(access, utf8(name), utf8(descriptor));
+    }
+
+    byte[] toByteArray() {
+        int thisClass = classRef(name);
+        int superClass = classRef(superName);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(poolCount);
+            out.write(poolBytes.toByteArray());
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+            out.writeShort(fields.size());
+            for (byte[] field : fields) out.write(field);
+            out.writeShort(methods.size());
+            for (byte[] method : methods) out.write(method);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] member(int access, int name, int descriptor, byte[] code) {
+        memberBytes.reset();
+        DataOutputStream out = new DataOutputStream(memberBytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            if (code == null) {
+                out.writeShort(0);
+            } else {
+                out.writeShort(1);
+                out.write(code);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return memberBytes.toByteArray();
+    }
+
+    /**
+     * Label of a position in the code, jumps to it are patched when it is marked.
+     */
+    static final class Label {
+        int position = -1;
+        final List<int[]> jumps = new ArrayList<int[]>();
+    }
+
+    /**
+     * Bytecode of a method.
+     */
+    final class Code {
+
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private byte[] code = new byte[64];
+        private int length;
+
+        Code(int access, int name, int descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        Code op(int opcode) {
+            put(opcode);
+            return this;
+        }
+
+        Code op(int opcode, int u1) {
+            put(opcode);
+            put(u1);
+            return this;
+        }
+
+        Code opShort(int opcode, int u2) {
+            put(opcode);
+            put(u2 >> 8);
+            put(u2);
+            return this;
+        }
+
+        Code invokeInterface(int index, int arguments) {
+            opShort(0xB9, index);
+            put(arguments + 1);
+            put(0);
+            return this;
+        }
+
+        Code pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                return op(0x03 + value);
+            }
+            if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                return op(0x10, value);
+            }
+            return opShort(0x11, value);
+        }
+
+        Code jump(int opcode, Label label) {
+            int at = length;
+            put(opcode);
+            if (label.position >= 0) {
+                int offset = label.position - at;
+                put(offset >> 8);
+                put(offset);
+            } else {
+                label.jumps.add(new int[] {at, length});
+                put(0);
+                put(0);
+            }
+            return this;
+        }
+
+        Code mark(Label label) {
+            label.position = length;
+            for (int[] jump : label.jumps) {
+                int offset = length - jump[0];
+                code[jump[1]] = (byte) (offset >> 8);
+                code[jump[1] + 1] = (byte) offset;
+            }
+            label.jumps.clear();
+            return this;
+        }
+
+        void end(int maxStack, int maxLocals) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                out.writeShort(codeName);
+                out.writeInt(12 + length);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(length);
+                out.write(code, 0, length);
+                out.writeShort(0);
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            methods.add(member(access, name, descriptor, bytes.toByteArray()));
+        }
+
+        private void put(int b) {
+            if (length == code.length) {
+                byte[] bigger = new byte[length * 2];
+                System.arraycopy(code, 0, bigger, 0, length);
+                code = bigger;
+            }
+            code[length++] = (byte) b;
+        }
+    }
+}
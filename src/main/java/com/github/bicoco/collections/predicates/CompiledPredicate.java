@@ -0,0 +1,72 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.predicates;
+
+import java.util.List;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+
+/**
+ * Predicate compiled to bytecode for one class of elements. The generated
+ * class reads the properties directly, with no reflection nor boxing of
+ * primitive properties, and its own select and count loops call the
+ * condition directly.
+ *
+ * @see Predicate#compile(Class)
+ * @since 1.4
+ */
+public abstract class CompiledPredicate<T> implements ConditionFunction<T> {
+
+    private Class<?> type;
+
+    protected CompiledPredicate() {
+    }
+
+    /**
+     * Class of elements accepted by this predicate.
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    void setType(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Evaluate the predicate, null elements don't match.
+     * @throws ClassCastException if element isn't instance of the compiled class
+     */
+    @Override
+    public abstract boolean condition(T element);
+
+    /**
+     * Count elements matching the predicate.
+     */
+    public abstract int count(List<T> list);
+
+    /**
+     * Select elements matching the predicate in a new list.
+     */
+    public abstract List<T> select(List<T> list);
+}
@@ -0,0 +1,118 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.predicates;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+
+/**
+ * Combinators of conditions that learn the best order to evaluate them.
+ *
+ * <pre>
+ * AdaptiveCondition&lt;Order&gt; valid = Conditions.and(isPaid, hasStock, passesFraudCheck);
+ * List&lt;Order&gt; result = select(orders, valid);
+ * </pre>
+ *
+ * @see AdaptiveCondition
+ * @since 1.4
+ */
+public class Conditions {
+
+    /**
+     * Condition true when both conditions are true.
+     * @param first condition to combine
+     * @param second condition to combine
+     * @return the combined condition
+     */
+    public static <T> AdaptiveCondition<T> and(ConditionFunction<? super T> first, ConditionFunction<? super T> second) {
+        List<ConditionFunction<? super T>> conditions = new ArrayList<ConditionFunction<? super T>>(2);
+        conditions.add(first);
+        conditions.add(second);
+        return and(conditions);
+    }
+
+    /**
+     * Condition true when the three conditions are true.
+     * @param first condition to combine
+     * @param second condition to combine
+     * @param third condition to combine
+     * @return the combined condition
+     */
+    public static <T> AdaptiveCondition<T> and(ConditionFunction<? super T> first, ConditionFunction<? super T> second,
+                                               ConditionFunction<? super T> third) {
+        List<ConditionFunction<? super T>> conditions = new ArrayList<ConditionFunction<? super T>>(3);
+        conditions.add(first);
+        conditions.add(second);
+        conditions.add(third);
+        return and(conditions);
+    }
+
+    /**
+     * Condition true when all conditions are true.
+     * @param conditions conditions to combine
+     * @return the combined condition
+     */
+    public static <T> AdaptiveCondition<T> and(List<? extends ConditionFunction<? super T>> conditions) {
+        return new AdaptiveCondition<T>(true, conditions);
+    }
+
+    /**
+     * Condition true when any of both conditions is true.
+     * @param first condition to combine
+     * @param second condition to combine
+     * @return the combined condition
+     */
+    public static <T> AdaptiveCondition<T> or(ConditionFunction<? super T> first, ConditionFunction<? super T> second) {
+        List<ConditionFunction<? super T>> conditions = new ArrayList<ConditionFunction<? super T>>(2);
+        conditions.add(first);
+        conditions.add(second);
+        return or(conditions);
+    }
+
+    /**
+     * Condition true when any of the three conditions is true.
+     * @param first condition to combine
+     * @param second condition to combine
+     * @param third condition to combine
+     * @return the combined condition
+     */
+    public static <T> AdaptiveCondition<T> or(ConditionFunction<? super T> first, ConditionFunction<? super T> second,
+                                              ConditionFunction<? super T> third) {
+        List<ConditionFunction<? super T>> conditions = new ArrayList<ConditionFunction<? super T>>(3);
+        conditions.add(first);
+        conditions.add(second);
+        conditions.add(third);
+        return or(conditions);
+    }
+
+    /**
+     * Condition true when any of conditions is true.
+     * @param conditions conditions to combine
+     * @return the combined condition
+     */
+    public static <T> AdaptiveCondition<T> or(List<? extends ConditionFunction<? super T>> conditions) {
+        return new AdaptiveCondition<T>(false, conditions);
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.predicates;
+
+/**
+ * Comparisons of a property with a value.
+ *
+ * @since 1.4
+ */
+enum Operator {
+
+    EQ("=="), NE("!="), GT(">"), GE(">="), LT("<"), LE("<="),
+    STARTS_WITH("startsWith"), ENDS_WITH("endsWith"), CONTAINS("contains"),
+    IS_NULL("isNull"), NOT_NULL("notNull");
+
+    final String symbol;
+
+    Operator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    boolean isOrdering() {
+        return this == GT || this == GE || this == LT || this == LE;
+    }
+
+    boolean isEquality() {
+        return this == EQ || this == NE;
+    }
+
+    boolean isString() {
+        return this == STARTS_WITH || this == ENDS_WITH || this == CONTAINS;
+    }
+
+    boolean isNullCheck() {
+        return this == IS_NULL || this == NOT_NULL;
+    }
+}
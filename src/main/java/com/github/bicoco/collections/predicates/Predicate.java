@@ -0,0 +1,195 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.predicates;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+
+/**
+ * Condition over properties of the elements, built with {@link Predicates#where(String)}.
+ * Clauses joined with {@link #and(String)} bind tighter than {@link #or(String)}.
+ *
+ * The predicate is compiled to bytecode for the class of the elements the
+ * first time it is evaluated, see {@link #compile(Class)}. Predicates are
+ * immutable and can be shared between threads.
+ *
+ * @since 1.4
+ */
+public final class Predicate<T> implements ConditionFunction<T> {
+
+    private final List<List<Clause>> groups;
+    private volatile CompiledPredicate<T> compiled;
+
+    Predicate() {
+        this.groups = Collections.emptyList();
+    }
+
+    private Predicate(List<List<Clause>> groups) {
+        this.groups = groups;
+    }
+
+    /**
+     * Add a clause that must match together with the last clauses.
+     * @param property name of property
+     * @return the property to compare
+     */
+    public Property<T> and(String property) {
+        return new Property<T>(this, property, false);
+    }
+
+    /**
+     * Add a clause that matches when the previous clauses don't match.
+     * @param property name of property
+     * @return the property to compare
+     */
+    public Property<T> or(String property) {
+        return new Property<T>(this, property, true);
+    }
+
+    Predicate<T> with(Clause clause, boolean or) {
+        List<List<Clause>> result = new ArrayList<List<Clause>>(groups);
+        if (or || result.isEmpty()) {
+            result.add(Collections.singletonList(clause));
+        } else {
+            List<Clause> last = new ArrayList<Clause>(result.get(result.size() - 1));
+            last.add(clause);
+            result.set(result.size() - 1, Collections.unmodifiableList(last));
+        }
+        return new Predicate<T>(Collections.unmodifiableList(result));
+    }
+
+    List<List<Clause>> groups() {
+        return groups;
+    }
+
+    /**
+     * Compile this predicate for a class of elements. Compiled classes are
+     * cached by class and shape of the predicate, so predicates differing
+     * only on values share the same generated code.
+     *
+     * @param type class of elements
+     * @return the compiled predicate
+     * @throws IllegalArgumentException if a property can't be read from a public class
+     */
+    public CompiledPredicate<T> compile(Class<?> type) {
+        return PredicateCompiler.compile(this, type);
+    }
+
+    /**
+     * Evaluate the predicate, null elements don't match.
+     */
+    @Override
+    public boolean condition(T element) {
+        if (element == null) {
+            return false;
+        }
+        return compiledFor(element).condition(element);
+    }
+
+    /**
+     * Select elements matching the predicate in a new list.
+     */
+    public List<T> select(List<T> list) {
+        CompiledPredicate<T> predicate = compiledFor(list);
+        if (predicate != null && allInstances(list, predicate.getType())) {
+            return predicate.select(list);
+        }
+        // elements of other classes, compiled one by one
+        List<T> result = new ArrayList<T>();
+        for (T element : list) {
+            if (condition(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count elements matching the predicate.
+     */
+    public int count(List<T> list) {
+        CompiledPredicate<T> predicate = compiledFor(list);
+        if (predicate != null && allInstances(list, predicate.getType())) {
+            return predicate.count(list);
+        }
+        // elements of other classes, compiled one by one
+        int count = 0;
+        for (T element : list) {
+            if (condition(element)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check the classes before the compiled loop, so exceptions of the getters
+     * are not mistaken for elements of other classes and no getter runs twice.
+     */
+    private static boolean allInstances(List<?> list, Class<?> type) {
+        Class<?> checked = null;
+        for (Object element : list) {
+            if (element != null && element.getClass() != checked) {
+                if (!type.isInstance(element)) {
+                    return false;
+                }
+                checked = element.getClass();
+            }
+        }
+        return true;
+    }
+
+    private CompiledPredicate<T> compiledFor(List<T> list) {
+        for (T element : list) {
+            if (element != null) {
+                return compiledFor(element);
+            }
+        }
+        return null;
+    }
+
+    private CompiledPredicate<T> compiledFor(Object element) {
+        CompiledPredicate<T> predicate = compiled;
+        if (predicate == null || !predicate.getType().isInstance(element)) {
+            predicate = compile(element.getClass());
+            compiled = predicate;
+        }
+        return predicate;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (List<Clause> group : groups) {
+            if (text.length() > 0) text.append(" or ");
+            for (int i = 0; i < group.size(); i++) {
+                if (i > 0) text.append(" and ");
+                text.append(group.get(i));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,537 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.predicates;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.bicoco.collections.predicates.ClassWriter.Code;
+import com.github.bicoco.collections.predicates.ClassWriter.Label;
+
+/**
+ * Generates a subclass of {@link CompiledPredicate} for a predicate and a
+ * class of elements.
+ *
+ * The values compared are kept in typed fields of the generated class, so
+ * one generated class serves every predicate with the same shape: same
+ * properties, operators and kinds of values. Numbers are compared in the
+ * widest type of property and value (int, long or double).
+ *
+ * @since 1.4
+ */
+final class PredicateCompiler {
+
+    private static final String BASE = "com/github/bicoco/collections/predicates/CompiledPredicate";
+    private static final String PREFIX = "com/github/bicoco/collections/predicates/Generated$";
+
+    private static final int ICONST_0 = 0x03, ICONST_1 = 0x04;
+    private static final int ILOAD_2 = 0x1C, ALOAD = 0x19, ALOAD_0 = 0x2A, ALOAD_1 = 0x2B, ALOAD_2 = 0x2C, ALOAD_3 = 0x2D;
+    private static final int AALOAD = 0x32, ISTORE_2 = 0x3D, ASTORE = 0x3A, ASTORE_2 = 0x4D, ASTORE_3 = 0x4E;
+    private static final int POP = 0x57, POP2 = 0x58, DUP = 0x59, IINC = 0x84;
+    private static final int I2L = 0x85, I2D = 0x87, L2D = 0x8A, F2D = 0x8D, LCMP = 0x94, DCMPL = 0x97, DCMPG = 0x98;
+    private static final int IFEQ = 0x99, IFNE = 0x9A, IFLT = 0x9B, IFGE = 0x9C, IFGT = 0x9D, IFLE = 0x9E;
+    private static final int IF_ICMPEQ = 0x9F, IF_ICMPNE = 0xA0, IF_ICMPLT = 0xA1, IF_ICMPGE = 0xA2, IF_ICMPGT = 0xA3, IF_ICMPLE = 0xA4;
+    private static final int GOTO = 0xA7, IRETURN = 0xAC, ARETURN = 0xB0, RETURN = 0xB1;
+    private static final int GETFIELD = 0xB4, PUTFIELD = 0xB5, INVOKEVIRTUAL = 0xB6, INVOKESPECIAL = 0xB7;
+    private static final int NEW = 0xBB, CHECKCAST = 0xC0, IFNULL = 0xC6, IFNONNULL = 0xC7;
+
+    private static final AtomicInteger counter = new AtomicInteger();
+    private static final Map<Class<?>, Map<String, WeakReference<Class<?>>>> cache =
+            new WeakHashMap<Class<?>, Map<String, WeakReference<Class<?>>>>();
+
+    private PredicateCompiler() {
+    }
+
+    static <T> CompiledPredicate<T> compile(Predicate<T> predicate, Class<?> type) {
+        Class<?> owner = owner(predicate.groups(), type);
+        List<List<Term>> groups = new ArrayList<List<Term>>();
+        List<Object> constants = new ArrayList<Object>();
+        StringBuilder shape = new StringBuilder();
+        for (List<Clause> clauses : predicate.groups()) {
+            List<Term> terms = new ArrayList<Term>();
+            for (Clause clause : clauses) {
+                Term term = new Term(clause, accessor(owner, clause.property));
+                if (term.compare != 'N') {
+                    term.field = constants.size();
+                    constants.add(term.constant);
+                }
+                terms.add(term);
+                shape.append(clause.property).append(' ').append(clause.operator).append(' ').append(term.compare).append(';');
+            }
+            groups.add(terms);
+            shape.append('|');
+        }
+
+        Class<?> generated = generated(owner, shape.toString(), groups);
+        try {
+            @SuppressWarnings("unchecked")
+            CompiledPredicate<T> result = (CompiledPredicate<T>) generated.getConstructor(Object[].class)
+                    .newInstance(new Object[] {constants.toArray()});
+            result.setType(owner);
+            return result;
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Class<?> generated(Class<?> owner, String shape, List<List<Term>> groups) {
+        synchronized (cache) {
+            Map<String, WeakReference<Class<?>>> shapes = cache.get(owner);
+            if (shapes == null) {
+                shapes = new HashMap<String, WeakReference<Class<?>>>();
+                cache.put(owner, shapes);
+            }
+            WeakReference<Class<?>> reference = shapes.get(shape);
+            Class<?> generated = reference == null ? null : reference.get();
+            if (generated == null) {
+                String name = PREFIX + counter.incrementAndGet();
+                byte[] bytes = generate(name, internalName(owner), groups);
+                generated = new Loader(owner.getClassLoader()).define(name.replace('/', '.'), bytes);
+                shapes.put(shape, new WeakReference<Class<?>>(generated));
+            }
+            return generated;
+        }
+    }
+
+    /**
+     * The first public class, from type to its super classes, where all
+     * properties can be read.
+     */
+    private static Class<?> owner(List<List<Clause>> groups, Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                continue;
+            }
+            boolean found = true;
+            for (List<Clause> clauses : groups) {
+                for (Clause clause : clauses) {
+                    found = found && accessor(c, clause.property) != null;
+                }
+            }
+            if (found) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Properties of " + type.getName() + " can't be read from a public class");
+    }
+
+    private static Member accessor(Class<?> type, String property) {
+        String capitalized = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String name : new String[] {"get" + capitalized, "is" + capitalized, property}) {
+            try {
+                Method method = type.getMethod(name);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try next name
+            }
+        }
+        try {
+            Field field = type.getField(property);
+            if (!Modifier.isStatic(field.getModifiers())) {
+                return field;
+            }
+        } catch (NoSuchFieldException e) {
+            // not found
+        }
+        return null;
+    }
+
+    /**
+     * Kind of the value of a primitive or wrapper type: I for int, J for long,
+     * D for double, Z for boolean, L for other objects.
+     */
+    private static char kind(Class<?> type) {
+        if (type == int.class || type == short.class || type == byte.class || type == char.class
+                || type == Integer.class || type == Short.class || type == Byte.class || type == Character.class) {
+            return 'I';
+        }
+        if (type == long.class || type == Long.class) {
+            return 'J';
+        }
+        if (type == double.class || type == float.class || type == Double.class || type == Float.class) {
+            return 'D';
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return 'Z';
+        }
+        return 'L';
+    }
+
+    /**
+     * Clause resolved for the owner class.
+     */
+    private static final class Term {
+        final Clause clause;
+        final Member member;
+        final Class<?> type;
+        final char kind;
+        final char compare;
+        final Object constant;
+        int field = -1;
+
+        Term(Clause clause, Member member) {
+            this.clause = clause;
+            this.member = member;
+            this.type = member instanceof Method ? ((Method) member).getReturnType() : ((Field) member).getType();
+            this.kind = kind(type);
+            Operator operator = clause.operator;
+            Object value = clause.value;
+            if (operator.isNullCheck()) {
+                compare = 'N';
+                constant = null;
+            } else if (operator.isString()) {
+                if (type.isPrimitive() || !type.isAssignableFrom(String.class)) {
+                    throw invalid();
+                }
+                compare = 'S';
+                constant = value;
+            } else if (kind == 'Z') {
+                if (!(value instanceof Boolean) || !operator.isEquality()) {
+                    throw invalid();
+                }
+                compare = 'I';
+                constant = ((Boolean) value) ? 1 : 0;
+            } else if (kind != 'L') {
+                char valueKind = kind(value.getClass());
+                if (value instanceof Number && valueKind == 'L') {
+                    // BigDecimal, AtomicLong and others are compared as double
+                    valueKind = 'D';
+                }
+                if (valueKind != 'I' && valueKind != 'J' && valueKind != 'D') {
+                    throw invalid();
+                }
+                compare = kind == 'D' || valueKind == 'D' ? 'D' : (kind == 'J' || valueKind == 'J' ? 'J' : 'I');
+                constant = number(value, compare);
+            } else {
+                compare = operator.isEquality() ? 'L' : 'C';
+                constant = value;
+            }
+        }
+
+        String descriptor() {
+            switch (compare) {
+            case 'I':
+            case 'J':
+            case 'D':
+                return String.valueOf(compare);
+            case 'S':
+                return "Ljava/lang/String;";
+            default:
+                return "Ljava/lang/Object;";
+            }
+        }
+
+        private IllegalArgumentException invalid() {
+            return new IllegalArgumentException("Property " + clause.property + " of type "
+                    + type.getName() + " can't be compared with " + clause);
+        }
+    }
+
+    private static Object number(Object value, char compare) {
+        Number number = value instanceof Character ? Integer.valueOf((Character) value) : (Number) value;
+        switch (compare) {
+        case 'I':
+            return number.intValue();
+        case 'J':
+            return number.longValue();
+        default:
+            return number.doubleValue();
+        }
+    }
+
+    private static byte[] generate(String name, String owner, List<List<Term>> groups) {
+        ClassWriter cw = new ClassWriter(name, BASE);
+        List<Term> fields = new ArrayList<Term>();
+        for (List<Term> terms : groups) {
+            for (Term term : terms) {
+                if (term.field >= 0) {
+                    cw.field(ClassWriter.ACC_PRIVATE | ClassWriter.ACC_FINAL, "v" + term.field, term.descriptor());
+                    fields.add(term);
+                }
+            }
+        }
+
+        Code init = cw.method(ClassWriter.ACC_PUBLIC, "<init>", "([Ljava/lang/Object;)V");
+        init.op(ALOAD_0).opShort(INVOKESPECIAL, cw.methodRef(BASE, "<init>", "()V"));
+        for (Term term : fields) {
+            init.op(ALOAD_0).op(ALOAD_1).pushInt(term.field).op(AALOAD);
+            switch (term.compare) {
+            case 'I':
+                init.opShort(CHECKCAST, cw.classRef("java/lang/Integer"));
+                init.opShort(INVOKEVIRTUAL, cw.methodRef("java/lang/Integer", "intValue", "()I"));
+                break;
+            case 'J':
+                init.opShort(CHECKCAST, cw.classRef("java/lang/Long"));
+                init.opShort(INVOKEVIRTUAL, cw.methodRef("java/lang/Long", "longValue", "()J"));
+                break;
+            case 'D':
+                init.opShort(CHECKCAST, cw.classRef("java/lang/Double"));
+                init.opShort(INVOKEVIRTUAL, cw.methodRef("java/lang/Double", "doubleValue", "()D"));
+                break;
+            case 'S':
+                init.opShort(CHECKCAST, cw.classRef("java/lang/String"));
+                break;
+            default:
+                break;
+            }
+            init.opShort(PUTFIELD, cw.fieldRef(name, "v" + term.field, term.descriptor()));
+        }
+        init.op(RETURN).end(4, 2);
+
+        Code condition = cw.method(ClassWriter.ACC_PUBLIC | ClassWriter.ACC_FINAL, "condition", "(Ljava/lang/Object;)Z");
+        Label no = new Label();
+        condition.op(ALOAD_1).jump(IFNULL, no);
+        condition.op(ALOAD_1).opShort(CHECKCAST, cw.classRef(owner)).op(ASTORE_2);
+        for (List<Term> terms : groups) {
+            Label next = new Label();
+            for (Term term : terms) {
+                clause(cw, condition, name, owner, term, next);
+            }
+            condition.op(ICONST_1).op(IRETURN);
+            condition.mark(next);
+        }
+        condition.mark(no).op(ICONST_0).op(IRETURN).end(6, 3);
+
+        int iterator = cw.interfaceMethodRef("java/util/List", "iterator", "()Ljava/util/Iterator;");
+        int hasNext = cw.interfaceMethodRef("java/util/Iterator", "hasNext", "()Z");
+        int next = cw.interfaceMethodRef("java/util/Iterator", "next", "()Ljava/lang/Object;");
+        int self = cw.methodRef(name, "condition", "(Ljava/lang/Object;)Z");
+
+        Code count = cw.method(ClassWriter.ACC_PUBLIC, "count", "(Ljava/util/List;)I");
+        Label loop = new Label(), end = new Label();
+        count.op(ICONST_0).op(ISTORE_2);
+        count.op(ALOAD_1).invokeInterface(iterator, 0).op(ASTORE_3);
+        count.mark(loop).op(ALOAD_3).invokeInterface(hasNext, 0).jump(IFEQ, end);
+        count.op(ALOAD_0).op(ALOAD_3).invokeInterface(next, 0).opShort(INVOKEVIRTUAL, self).jump(IFEQ, loop);
+        count.op(IINC).op(2).op(1).jump(GOTO, loop);
+        count.mark(end).op(ILOAD_2).op(IRETURN).end(2, 4);
+
+        Code select = cw.method(ClassWriter.ACC_PUBLIC, "select", "(Ljava/util/List;)Ljava/util/List;");
+        loop = new Label();
+        end = new Label();
+        select.opShort(NEW, cw.classRef("java/util/ArrayList")).op(DUP)
+                .opShort(INVOKESPECIAL, cw.methodRef("java/util/ArrayList", "<init>", "()V")).op(ASTORE_2);
+        select.op(ALOAD_1).invokeInterface(iterator, 0).op(ASTORE_3);
+        select.mark(loop).op(ALOAD_3).invokeInterface(hasNext, 0).jump(IFEQ, end);
+        select.op(ALOAD_3).invokeInterface(next, 0).op(ASTORE, 4);
+        select.op(ALOAD_0).op(ALOAD, 4).opShort(INVOKEVIRTUAL, self).jump(IFEQ, loop);
+        select.op(ALOAD_2).op(ALOAD, 4)
+                .invokeInterface(cw.interfaceMethodRef("java/util/List", "add", "(Ljava/lang/Object;)Z"), 1)
+                .op(POP).jump(GOTO, loop);
+        select.mark(end).op(ALOAD_2).op(ARETURN).end(3, 5);
+
+        return cw.toByteArray();
+    }
+
+    /**
+     * Code of a clause, jumping to fail when the clause doesn't match.
+     */
+    private static void clause(ClassWriter cw, Code code, String name, String owner, Term term, Label fail) {
+        Operator operator = term.clause.operator;
+        code.op(ALOAD_2);
+        if (term.member instanceof Method) {
+            Method method = (Method) term.member;
+            code.opShort(INVOKEVIRTUAL, cw.methodRef(owner, method.getName(), "()" + descriptor(term.type)));
+        } else {
+            code.opShort(GETFIELD, cw.fieldRef(owner, term.member.getName(), descriptor(term.type)));
+        }
+
+        if (term.type.isPrimitive()) {
+            if (operator.isNullCheck()) {
+                code.op(term.type == long.class || term.type == double.class ? POP2 : POP);
+                if (operator == Operator.IS_NULL) {
+                    code.jump(GOTO, fail);
+                }
+                return;
+            }
+            if (term.type == float.class) {
+                code.op(F2D);
+            }
+            compare(cw, code, name, term, fail);
+            return;
+        }
+
+        if (operator.isNullCheck()) {
+            code.jump(operator == Operator.IS_NULL ? IFNONNULL : IFNULL, fail);
+            return;
+        }
+
+        Label isNull = new Label(), end = new Label();
+        code.op(DUP).jump(IFNULL, isNull);
+        switch (term.compare) {
+        case 'I':
+        case 'J':
+        case 'D':
+            unbox(cw, code, term.type);
+            compare(cw, code, name, term, fail);
+            break;
+        case 'L':
+            code.op(ALOAD_0).opShort(GETFIELD, cw.fieldRef(name, "v" + term.field, term.descriptor()));
+            code.opShort(INVOKEVIRTUAL, cw.methodRef("java/lang/Object", "equals", "(Ljava/lang/Object;)Z"));
+            code.jump(operator == Operator.EQ ? IFEQ : IFNE, fail);
+            break;
+        case 'C':
+            code.opShort(CHECKCAST, cw.classRef("java/lang/Comparable"));
+            code.op(ALOAD_0).opShort(GETFIELD, cw.fieldRef(name, "v" + term.field, term.descriptor()));
+            code.invokeInterface(cw.interfaceMethodRef("java/lang/Comparable", "compareTo", "(Ljava/lang/Object;)I"), 1);
+            code.jump(negate(operator, IFEQ), fail);
+            break;
+        default:
+            String method = operator == Operator.STARTS_WITH ? "startsWith" : (operator == Operator.ENDS_WITH ? "endsWith" : "contains");
+            String argument = operator == Operator.CONTAINS ? "Ljava/lang/CharSequence;" : "Ljava/lang/String;";
+            code.opShort(CHECKCAST, cw.classRef("java/lang/String"));
+            code.op(ALOAD_0).opShort(GETFIELD, cw.fieldRef(name, "v" + term.field, term.descriptor()));
+            code.opShort(INVOKEVIRTUAL, cw.methodRef("java/lang/String", method, "(" + argument + ")Z"));
+            code.jump(IFEQ, fail);
+            break;
+        }
+        code.jump(GOTO, end);
+        code.mark(isNull).op(POP);
+        if (operator != Operator.NE) {
+            code.jump(GOTO, fail);
+        }
+        code.mark(end);
+    }
+
+    private static void unbox(ClassWriter cw, Code code, Class<?> type) {
+        String wrapper = internalName(type);
+        if (type == Character.class) {
+            code.opShort(INVOKEVIRTUAL, cw.methodRef(wrapper, "charValue", "()C"));
+        } else if (type == Boolean.class) {
+            code.opShort(INVOKEVIRTUAL, cw.methodRef(wrapper, "booleanValue", "()Z"));
+        } else if (kind(type) == 'I') {
+            code.opShort(INVOKEVIRTUAL, cw.methodRef(wrapper, "intValue", "()I"));
+        } else if (kind(type) == 'J') {
+            code.opShort(INVOKEVIRTUAL, cw.methodRef(wrapper, "longValue", "()J"));
+        } else {
+            code.opShort(INVOKEVIRTUAL, cw.methodRef(wrapper, "doubleValue", "()D"));
+        }
+    }
+
+    /**
+     * Compare the unboxed property on the stack with the constant.
+     */
+    private static void compare(ClassWriter cw, Code code, String name, Term term, Label fail) {
+        char kind = term.kind == 'Z' ? 'I' : term.kind;
+        if (kind == 'I' && term.compare == 'J') {
+            code.op(I2L);
+        } else if (kind == 'I' && term.compare == 'D') {
+            code.op(I2D);
+        } else if (kind == 'J' && term.compare == 'D') {
+            code.op(L2D);
+        }
+        code.op(ALOAD_0).opShort(GETFIELD, cw.fieldRef(name, "v" + term.field, term.descriptor()));
+        Operator operator = term.clause.operator;
+        switch (term.compare) {
+        case 'I':
+            code.jump(negate(operator, IF_ICMPEQ), fail);
+            break;
+        case 'J':
+            code.op(LCMP).jump(negate(operator, IFEQ), fail);
+            break;
+        default:
+            // NaN fails every comparison but ne
+            code.op(operator == Operator.LT || operator == Operator.LE ? DCMPG : DCMPL);
+            code.jump(negate(operator, IFEQ), fail);
+            break;
+        }
+    }
+
+    /**
+     * Jump taken when the operator doesn't match, relative to ifeq or if_icmpeq.
+     */
+    private static int negate(Operator operator, int eq) {
+        switch (operator) {
+        case EQ:
+            return eq + (IFNE - IFEQ);
+        case NE:
+            return eq;
+        case GT:
+            return eq + (IFLE - IFEQ);
+        case GE:
+            return eq + (IFLT - IFEQ);
+        case LT:
+            return eq + (IFGE - IFEQ);
+        default:
+            return eq + (IFGT - IFEQ);
+        }
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type == int.class) return "I";
+            if (type == long.class) return "J";
+            if (type == double.class) return "D";
+            if (type == float.class) return "F";
+            if (type == boolean.class) return "Z";
+            if (type == short.class) return "S";
+            if (type == byte.class) return "B";
+            return "C";
+        }
+        if (type.isArray()) {
+            return internalName(type);
+        }
+        return "L" + internalName(type) + ";";
+    }
+
+    /**
+     * Loader of one generated class, child of the loader of the owner class
+     * and seeing the base class of this library.
+     */
+    private static final class Loader extends ClassLoader {
+
+        Loader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(CompiledPredicate.class.getName())) {
+                return CompiledPredicate.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.predicates;
+
+/**
+ * Property of the element being compared in a {@link Predicate}. The
+ * property is read with its public getter (getName or isName), a public
+ * method with the same name, or a public field.
+ *
+ * @since 1.4
+ */
+public final class Property<T> {
+
+    private final Predicate<T> predicate;
+    private final String name;
+    private final boolean or;
+
+    Property(Predicate<T> predicate, String name, boolean or) {
+        this.predicate = predicate;
+        this.name = name;
+        this.or = or;
+    }
+
+    /**
+     * Property equals to value. Numbers are compared by value, other objects with equals.
+     */
+    public Predicate<T> eq(Object value) {
+        return value == null ? isNull() : add(Operator.EQ, value);
+    }
+
+    /**
+     * Property not equals to value. Numbers are compared by value, other objects with equals.
+     */
+    public Predicate<T> ne(Object value) {
+        return value == null ? notNull() : add(Operator.NE, value);
+    }
+
+    /**
+     * Property greater than value. Numbers are compared by value, other objects must be Comparable.
+     */
+    public Predicate<T> gt(Object value) {
+        return add(Operator.GT, value);
+    }
+
+    /**
+     * Property greater than or equal to value.
+     */
+    public Predicate<T> ge(Object value) {
+        return add(Operator.GE, value);
+    }
+
+    /**
+     * Property less than value.
+     */
+    public Predicate<T> lt(Object value) {
+        return add(Operator.LT, value);
+    }
+
+    /**
+     * Property less than or equal to value.
+     */
+    public Predicate<T> le(Object value) {
+        return add(Operator.LE, value);
+    }
+
+    /**
+     * String property starting with prefix.
+     */
+    public Predicate<T> startsWith(String prefix) {
+        return add(Operator.STARTS_WITH, prefix);
+    }
+
+    /**
+     * String property ending with suffix.
+     */
+    public Predicate<T> endsWith(String suffix) {
+        return add(Operator.ENDS_WITH, suffix);
+    }
+
+    /**
+     * String property containing text.
+     */
+    public Predicate<T> contains(String text) {
+        return add(Operator.CONTAINS, text);
+    }
+
+    /**
+     * Property is null.
+     */
+    public Predicate<T> isNull() {
+        return add(Operator.IS_NULL, null);
+    }
+
+    /**
+     * Property is not null.
+     */
+    public Predicate<T> notNull() {
+        return add(Operator.NOT_NULL, null);
+    }
+
+    private Predicate<T> add(Operator operator, Object value) {
+        if (value == null && !operator.isNullCheck()) {
+            throw new IllegalArgumentException("Value of " + name + " " + operator.symbol + " can't be null");
+        }
+        return predicate.with(new Clause(name, operator, value), or);
+    }
+}
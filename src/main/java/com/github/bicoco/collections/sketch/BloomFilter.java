@@ -0,0 +1,181 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.sketch;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Blocked Bloom filter: answers if a key may have been added, with no false
+ * negatives and false positives near the expected probability.
+ *
+ * All the bits of a key live in one block of 512 bits, a cache line, so a
+ * lookup reads one line of memory whatever the number of hashes. Strings and
+ * integral numbers are hashed with 64 bits; other keys use their hashCode.
+ *
+ * Keys can be added and looked up concurrently. The filter is serializable,
+ * so it can be stored next to the list it indexes.
+ *
+ * @since 1.4
+ */
+public class BloomFilter<K> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_WORDS = BLOCK_BITS / 64;
+
+    private final AtomicLongArray bits;
+    private final int blocks;
+    private final int hashes;
+
+    /**
+     * @param expectedKeys number of keys the filter is sized for
+     * @param fpp expected false positive probability, between 0 and 1
+     */
+    public BloomFilter(long expectedKeys, double fpp) {
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1: " + fpp);
+        }
+        long n = Math.max(expectedKeys, 1);
+        // blocking skews how the bits are filled, a few more bits keep the expected probability
+        double bitsPerKey = 1.2 * -Math.log(fpp) / (Math.log(2) * Math.log(2));
+        long size = (long) Math.ceil(n * bitsPerKey / BLOCK_BITS);
+        if (size * BLOCK_WORDS > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many keys for a filter: " + expectedKeys);
+        }
+        this.blocks = (int) Math.max(size, 1);
+        this.hashes = Math.max(1, Math.min(16, (int) Math.round(-Math.log(fpp) / Math.log(2))));
+        this.bits = new AtomicLongArray(blocks * BLOCK_WORDS);
+    }
+
+    /**
+     * Add a key to the filter.
+     * @return true if some bit changed, false if the key might already be there
+     */
+    public boolean add(K key) {
+        long hash = hash(key);
+        int base = block(hash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            int word = base + (bit >>> 6);
+            long mask = 1L << bit;
+            long old;
+            while (((old = bits.get(word)) & mask) == 0) {
+                if (bits.compareAndSet(word, old, old | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return false if the key was never added, true if it might have been
+     */
+    public boolean mightContain(K key) {
+        long hash = hash(key);
+        int base = block(hash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((bits.get(base + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add the keys of other filter, of the same size, to this one.
+     * @return this filter
+     */
+    public BloomFilter<K> merge(BloomFilter<K> other) {
+        if (other.blocks != blocks || other.hashes != hashes) {
+            throw new IllegalArgumentException("Can't merge filters of different sizes");
+        }
+        for (int i = 0; i < bits.length(); i++) {
+            long add = other.bits.get(i);
+            long old;
+            while (((old = bits.get(i)) | add) != old) {
+                if (bits.compareAndSet(i, old, old | add)) {
+                    break;
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return number of bits of the filter
+     */
+    public long bitSize() {
+        return (long) bits.length() * 64;
+    }
+
+    /**
+     * @return number of bits set for each key
+     */
+    public int hashCount() {
+        return hashes;
+    }
+
+    /**
+     * Estimate the current false positive probability from the bits set.
+     */
+    public double fpp() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) set / bitSize(), hashes);
+    }
+
+    private int block(long hash) {
+        // multiply-shift maps the high bits to a block without a division
+        return (int) (((hash >>> 32) * blocks) >>> 32) * BLOCK_WORDS;
+    }
+
+    static long hash(Object key) {
+        long h;
+        if (key instanceof String) {
+            String s = (String) key;
+            h = 0xcbf29ce484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                h = (h ^ s.charAt(i)) * 0x100000001b3L;
+            }
+        } else if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            h = ((Number) key).longValue();
+        } else {
+            h = key == null ? 0 : key.hashCode();
+        }
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.sketch;
+
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+/**
+ * Histogram of non-negative long values, like latencies, with buckets of
+ * relative width 2^-precision: values below 2^precision are counted
+ * exactly, larger values in 2^precision buckets per power of two.
+ *
+ * Memory is fixed by the precision, about 64 * 2^precision counters.
+ * Histograms with the same precision can be merged.
+ *
+ * <pre>
+ * Histogram histogram = reduce(latencies, new Histogram(7), Histogram.&lt;Long&gt;reducer());
+ * long p99 = histogram.quantile(0.99);
+ * </pre>
+ *
+ * @since 1.4
+ */
+public class Histogram {
+
+    private final int precision;
+    private final long[] counts;
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * @param precision bits of precision, from 1 to 16; 7 gives errors below 1%
+     */
+    public Histogram(int precision) {
+        if (precision < 1 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 1 and 16: " + precision);
+        }
+        this.precision = precision;
+        this.counts = new long[(64 - precision + 1) << precision];
+    }
+
+    /**
+     * Reduce function adding each value to the histogram.
+     */
+    public static <T extends Number> ReduceFunction<T, Histogram> reducer() {
+        return new ReduceFunction<T, Histogram>() {
+            @Override
+            public Histogram reduce(Histogram histogram, T value) {
+                return histogram.add(value.longValue());
+            }
+        };
+    }
+
+    public Histogram add(long value) {
+        return add(value, 1);
+    }
+
+    /**
+     * Add value count times.
+     * @return this histogram
+     */
+    public Histogram add(long value, long times) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value can't be negative: " + value);
+        }
+        counts[index(value)] += times;
+        count += times;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        return this;
+    }
+
+    /**
+     * Add the counts of other histogram to this one.
+     * @return this histogram
+     */
+    public Histogram merge(Histogram other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Can't merge histograms of precision " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long min() {
+        return min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Number of values between lo and hi, both inclusive, counting whole buckets.
+     */
+    public long countBetween(long lo, long hi) {
+        if (hi < 0 || hi < lo) {
+            return 0;
+        }
+        long result = 0;
+        for (int i = index(Math.max(lo, 0)), last = index(hi); i <= last; i++) {
+            result += counts[i];
+        }
+        return result;
+    }
+
+    /**
+     * Estimate the value at quantile q, the middle of its bucket.
+     * @param q quantile between 0 and 1
+     * @return the estimated value, or 0 if no value was added
+     */
+    public long quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long lower = lowest(i);
+                long upper = i + 1 < counts.length ? lowest(i + 1) - 1 : Long.MAX_VALUE;
+                if (upper < lower) {
+                    upper = Long.MAX_VALUE;
+                }
+                long middle = lower + (upper - lower) / 2;
+                return Math.max(min, Math.min(max, middle));
+            }
+        }
+        return max;
+    }
+
+    int index(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent < precision) {
+            return (int) value;
+        }
+        int shift = exponent - precision;
+        int sub = (int) (value >>> shift) - (1 << precision);
+        return ((shift + 1) << precision) + sub;
+    }
+
+    long lowest(int index) {
+        int shift = (index >>> precision) - 1;
+        if (shift < 0) {
+            return index;
+        }
+        long sub = index & ((1 << precision) - 1);
+        return ((1L << precision) + sub) << shift;
+    }
+}
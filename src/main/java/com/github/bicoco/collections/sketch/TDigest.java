@@ -0,0 +1,264 @@
+/**
+ * The MIT License (MIT)
+ * Copyright (c) 2014 Anderson Davi
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.bicoco.collections.sketch;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+/**
+ * Sketch of the distribution of values to estimate quantiles, with more
+ * precision at the tails (the merging t-digest of Dunning and Ertl).
+ *
+ * Values are buffered and merged into at most about compression centroids,
+ * so memory is bounded whatever the number of values. Digests of different
+ * partitions can be merged.
+ *
+ * <pre>
+ * TDigest digest = reduce(latencies, new TDigest(100), TDigest.&lt;Long&gt;reducer());
+ * double p99 = digest.quantile(0.99);
+ * </pre>
+ *
+ * @since 1.4
+ */
+public class TDigest {
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int buffered;
+    // buffer has weights other than 1, from merged digests
+    private boolean weighted;
+
+    private double total;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param compression number of centroids, 100 gives errors about 1% at the median
+     *                    and much smaller at the tails
+     */
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10: " + compression);
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.bufferMeans = new double[capacity * 5];
+        this.bufferWeights = new double[capacity * 5];
+    }
+
+    /**
+     * Reduce function adding each value to the digest.
+     */
+    public static <T extends Number> ReduceFunction<T, TDigest> reducer() {
+        return new ReduceFunction<T, TDigest>() {
+            @Override
+            public TDigest reduce(TDigest digest, T value) {
+                return digest.add(value.doubleValue());
+            }
+        };
+    }
+
+    public TDigest add(double value) {
+        return add(value, 1);
+    }
+
+    private TDigest add(double value, double weight) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Can't add NaN");
+        }
+        if (buffered == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        weighted |= weight != 1;
+        total += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        return this;
+    }
+
+    /**
+     * Add the values of other digest to this one.
+     * @return this digest
+     */
+    public TDigest merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Number of values added.
+     */
+    public long count() {
+        return (long) total;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Number of centroids kept after merging the buffered values.
+     */
+    public int centroids() {
+        compress();
+        return centroids;
+    }
+
+    /**
+     * Estimate the value at quantile q.
+     * @param q quantile between 0 and 1
+     * @return the estimated value, or NaN if no value was added
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double index = q * total;
+        if (index < weights[0] / 2) {
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        double center = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double next = center + (weights[i] + weights[i + 1]) / 2;
+            if (index < next) {
+                return means[i] + (means[i + 1] - means[i]) * (index - center) / (next - center);
+            }
+            center = next;
+        }
+        double last = weights[centroids - 1] / 2;
+        double fraction = Math.min(1, (index - center) / last);
+        return means[centroids - 1] + (max - means[centroids - 1]) * fraction;
+    }
+
+    /**
+     * Merge the buffered values into the centroids, sorting both and
+     * joining neighbours while their size fits the scale function.
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        sortBuffer();
+        int n = centroids + buffered;
+        double[] allMeans = new double[n];
+        double[] allWeights = new double[n];
+        for (int i = 0, c = 0, b = 0; i < n; i++) {
+            if (b == buffered || (c < centroids && means[c] <= bufferMeans[b])) {
+                allMeans[i] = means[c];
+                allWeights[i] = weights[c++];
+            } else {
+                allMeans[i] = bufferMeans[b];
+                allWeights[i] = bufferWeights[b++];
+            }
+        }
+        buffered = 0;
+        weighted = false;
+
+        int count = 0;
+        double soFar = 0;
+        double mean = allMeans[0], weight = allWeights[0];
+        for (int i = 1; i < n; i++) {
+            double proposed = weight + allWeights[i];
+            if (scale((soFar + proposed) / total) - scale(soFar / total) <= 1) {
+                mean += (allMeans[i] - mean) * allWeights[i] / proposed;
+                weight = proposed;
+            } else {
+                count = put(count, mean, weight);
+                soFar += weight;
+                mean = allMeans[i];
+                weight = allWeights[i];
+            }
+        }
+        centroids = put(count, mean, weight);
+    }
+
+    private int put(int count, double mean, double weight) {
+        if (count == means.length) {
+            means = Arrays.copyOf(means, count * 2);
+            weights = Arrays.copyOf(weights, count * 2);
+        }
+        means[count] = mean;
+        weights[count] = weight;
+        return count + 1;
+    }
+
+    /**
+     * Scale function k1, centroids are small near the quantiles 0 and 1.
+     */
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, q) - 1);
+    }
+
+    private void sortBuffer() {
+        if (!weighted) {
+            Arrays.sort(bufferMeans, 0, buffered);
+            return;
+        }
+        Integer[] order = new Integer[buffered];
+        for (int i = 0; i < buffered; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(bufferMeans[a], bufferMeans[b]);
+            }
+        });
+        double[] sortedMeans = new double[buffered];
+        double[] sortedWeights = new double[buffered];
+        for (int i = 0; i < buffered; i++) {
+            sortedMeans[i] = bufferMeans[order[i]];
+            sortedWeights[i] = bufferWeights[order[i]];
+        }
+        System.arraycopy(sortedMeans, 0, bufferMeans, 0, buffered);
+        System.arraycopy(sortedWeights, 0, bufferWeights, 0, buffered);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.bicoco;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.bicoco.collections.ListHelper;
+import com.github.bicoco.collections.Snapshot;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+
+public class AdaptiveSnapshotTest {
+
+    List<Integer> numbers;
+    ListHelper<Integer> helper;
+    Snapshot<Integer> snapshot;
+
+    ConditionFunction<Integer> even = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i % 2 == 0;
+        }
+    };
+
+    @Before
+    public void setup() {
+        numbers = new LinkedList<Integer>(Arrays.asList(1, 2, 3, 4, 5));
+        helper = new ListHelper<Integer>(numbers);
+        snapshot = helper.adaptive();
+    }
+
+    public @Test void copyOnFirstIndexedRead() {
+        assertEquals(Integer.valueOf(5), helper.last());
+        assertEquals(Integer.valueOf(1), helper.first());
+        assertEquals(Integer.valueOf(3), helper.fetch(2));
+        assertEquals(Integer.valueOf(0), helper.fetch(9, 0));
+        assertEquals(1, snapshot.getRebuilds());
+        assertEquals(3, snapshot.getHits());
+    }
+
+    public @Test void copyOnSecondPass() {
+        assertEquals(2, helper.count(even));
+        assertEquals(0, snapshot.getRebuilds());
+        assertEquals(Arrays.asList(2, 4), helper.select(even));
+        assertEquals(1, snapshot.getRebuilds());
+        assertEquals(Arrays.asList(1, 3, 5), helper.reject(even));
+        assertEquals(1, snapshot.getHits());
+    }
+
+    public @Test void rebuildWhenListChangesOutsideHelper() {
+        helper.at(0);
+        numbers.remove(0);
+        numbers.add(6);
+        assertEquals(Integer.valueOf(2), helper.at(0));
+        assertEquals(2, snapshot.getRebuilds());
+
+        numbers.set(0, 20);
+        snapshot.invalidate();
+        assertEquals(Integer.valueOf(20), helper.at(0));
+        assertEquals(3, snapshot.getRebuilds());
+    }
+
+    public @Test void keepCopyWhenPushingThroughHelper() {
+        helper.at(0);
+        helper.push(6).push(7);
+        assertEquals(Integer.valueOf(7), helper.at(-1));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), helper.fetchAll(new int[] {0, 1, 2, 3, 4, 5, 6}, null));
+        assertEquals(1, snapshot.getRebuilds());
+        assertEquals(2, snapshot.getHits());
+    }
+
+    public @Test void rebuildAfterModifyingThroughHelper() {
+        helper.at(0);
+        helper.map$(new MapFunction<Integer>() {
+            @Override
+            public Integer map(Integer i) {
+                return i * 10;
+            }
+        });
+        assertEquals(Integer.valueOf(10), helper.at(0));
+        assertEquals(2, snapshot.getRebuilds());
+    }
+
+    public @Test void readRandomAccessListsDirectly() {
+        ListHelper<Integer> array = new ListHelper<Integer>(new ArrayList<Integer>(numbers));
+        Snapshot<Integer> none = array.adaptive();
+        array.at(-1);
+        array.select(even);
+        array.select(even);
+        assertEquals(0, none.getRebuilds());
+        assertEquals(0, none.getHits());
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.ListHelper;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+import com.github.bicoco.collections.functions.TransformFunction;
+import com.github.bicoco.collections.sketch.BloomFilter;
+
+public class BloomIndexTest {
+
+    TransformFunction<String, String> id = new TransformFunction<String, String>() {
+        @Override
+        public String transform(String s) {
+            return s.substring(0, s.indexOf(':'));
+        }
+    };
+
+    private List<String> users(int from, int to) {
+        List<String> users = new ArrayList<String>();
+        for (int i = from; i < to; i++) users.add("user" + i + ":" + (i * 7));
+        return users;
+    }
+
+    public @Test void noFalseNegativesAndFewFalsePositives() {
+        BloomFilter<String> filter = bloomIndex(users(0, 100000), id, 0.01);
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+        int positives = 0;
+        for (int i = 100000; i < 200000; i++) {
+            if (filter.mightContain("user" + i)) positives++;
+        }
+        assertTrue("false positives: " + positives, positives < 2000);
+        assertTrue(filter.fpp() < 0.02);
+    }
+
+    public @Test void keepUpToDateWithPush() {
+        ListHelper<String> helper = new ListHelper<String>(users(0, 10));
+        BloomFilter<String> filter = helper.bloomIndex(id, 1000, 0.001);
+        assertFalse(filter.mightContain("user500"));
+
+        helper.push("user500:0");
+        helper.push("user501:0", "user502:0");
+        assertTrue(filter.mightContain("user500"));
+        assertTrue(filter.mightContain("user502"));
+    }
+
+    public @Test void addKeysChangedByHelper() {
+        ListHelper<String> helper = new ListHelper<String>(users(0, 10));
+        BloomFilter<String> filter = helper.bloomIndex(id, 1000, 0.001);
+
+        helper.map$(new MapFunction<String>() {
+            @Override
+            public String map(String s) {
+                return "x" + s;
+            }
+        });
+        assertTrue(filter.mightContain("xuser3"));
+
+        helper.setAll(new int[] {2}, new String[] {"other:1"});
+        assertTrue(filter.mightContain("other"));
+    }
+
+    public @Test void addOnlyKeysOfReplacedElements() {
+        final int[] calls = new int[1];
+        TransformFunction<String, String> countedId = new TransformFunction<String, String>() {
+            @Override
+            public String transform(String s) {
+                calls[0]++;
+                return id.transform(s);
+            }
+        };
+        ListHelper<String> helper = new ListHelper<String>(users(0, 10));
+        BloomFilter<String> filter = helper.bloomIndex(countedId, 1000, 0.001);
+        assertEquals(10, calls[0]);
+
+        helper.select$(new ConditionFunction<String>() {
+            @Override
+            public boolean condition(String s) {
+                return !s.startsWith("user1:");
+            }
+        });
+        assertEquals(10, calls[0]);
+
+        List<String> changed = users(0, 10);
+        changed.remove(1);
+        changed.set(4, "patched:0");
+        helper.patch$(helper.diff(changed));
+        assertEquals(11, calls[0]);
+        assertTrue(filter.mightContain("patched"));
+    }
+
+    public @Test void longKeysAndMerge() {
+        BloomFilter<Long> odd = new BloomFilter<Long>(1000, 0.01);
+        BloomFilter<Long> even = new BloomFilter<Long>(1000, 0.01);
+        for (long i = 0; i < 1000; i++) {
+            (i % 2 == 0 ? even : odd).add(i << 40);
+        }
+        odd.merge(even);
+        for (long i = 0; i < 1000; i++) {
+            assertTrue(odd.mightContain(i << 40));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Test void serializeFilter() throws Exception {
+        BloomFilter<String> filter = bloomIndex(users(0, 1000), id, 0.01);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(filter);
+        out.close();
+
+        BloomFilter<String> copy = (BloomFilter<String>) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(filter.bitSize(), copy.bitSize());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(filter.mightContain("user" + i), copy.mightContain("user" + i));
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.ChunkedList;
+import com.github.bicoco.collections.VersionedList;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+
+public class ChunkedListTest {
+
+    ConditionFunction<Integer> multipleOf3 = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i % 3 == 0;
+        }
+    };
+
+    public @Test void sameBehaviourAsArrayList() {
+        Random random = new Random(23);
+        List<Integer> expected = new ArrayList<Integer>();
+        ChunkedList<Integer> list = new ChunkedList<Integer>(8);
+        for (int op = 0; op < 20000; op++) {
+            int choice = random.nextInt(10);
+            int index = expected.isEmpty() ? 0 : random.nextInt(expected.size());
+            if (choice < 4 || expected.isEmpty()) {
+                expected.add(op);
+                list.add(op);
+            } else if (choice < 6) {
+                expected.add(index, op);
+                list.add(index, op);
+            } else if (choice < 8) {
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (choice < 9) {
+                assertEquals(expected.set(index, -op), list.set(index, -op));
+            } else {
+                int to = Math.min(expected.size(), index + random.nextInt(30));
+                expected.subList(index, to).clear();
+                list.subList(index, to).clear();
+            }
+            assertEquals(expected.size(), list.size());
+            if (!expected.isEmpty()) {
+                int i = random.nextInt(expected.size());
+                assertEquals(expected.get(i), list.get(i));
+            }
+        }
+        assertEquals(expected, list);
+    }
+
+    public @Test void helpersUseBlocks() {
+        ChunkedList<Integer> list = new ChunkedList<Integer>(range(10000));
+        assertEquals(40, list.blockCount());
+
+        select$(list, multipleOf3);
+        assertEquals(select(range(10000), multipleOf3), list);
+        assertTrue(list.blockCount() < 40);
+
+        reject$(list, new ConditionFunction<Integer>() {
+            @Override
+            public boolean condition(Integer i) {
+                return i > 100;
+            }
+        });
+        assertEquals(34, list.size());
+        assertEquals(Integer.valueOf(99), last(list));
+        assertEquals(Integer.valueOf(96), at(list, -2));
+        assertEquals(Arrays.asList(0, 3, 6), take(list, 3));
+        assertEquals(Arrays.asList(93, 96, 99), drop(list, 31));
+
+        list.add(null);
+        list.add(5, null);
+        compact$(list);
+        assertEquals(34, list.size());
+    }
+
+    public @Test void parallelSelect() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ChunkedList<Integer> list = new ChunkedList<Integer>(range(100000));
+            select$(list, multipleOf3, executor);
+            assertEquals(select(range(100000), multipleOf3), list);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public @Test void parallelMapByBlocks() {
+        MapFunction<Integer> negate = new MapFunction<Integer>() {
+            @Override
+            public Integer map(Integer i) {
+                return -i;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Integer> expected = map(range(100000), negate);
+            ChunkedList<Integer> list = new ChunkedList<Integer>(range(100000));
+            map$(list, negate, executor);
+            assertEquals(expected, list);
+
+            VersionedList<Integer> versioned = VersionedList.of(new ChunkedList<Integer>(range(100000)));
+            map$(versioned, negate, executor);
+            assertEquals(expected, versioned);
+            assertTrue(versioned.version() > 0);
+
+            assertEquals(sample(list, 50, 1, executor), sample(list, 50, 1, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public @Test void throwingConditionLeavesListUnchanged() {
+        ChunkedList<Integer> list = new ChunkedList<Integer>(range(1000));
+        try {
+            select$(list, new ConditionFunction<Integer>() {
+                @Override
+                public boolean condition(Integer i) {
+                    if (i == 500) throw new IllegalStateException();
+                    return i % 2 == 0;
+                }
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(range(1000), list);
+        }
+    }
+
+    private static List<Integer> range(int n) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) list.add(i);
+        return list;
+    }
+
+}
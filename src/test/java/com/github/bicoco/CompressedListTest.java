@@ -0,0 +1,110 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.count;
+import static com.github.bicoco.Helpers.select;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.CompressedIntList;
+import com.github.bicoco.collections.CompressedLongList;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.RangeConditionFunction;
+
+public class CompressedListTest {
+
+    public @Test void keepsValuesOfSortedAndUnsortedLists() {
+        Random random = new Random(42);
+        List<Long> expected = new ArrayList<Long>();
+        CompressedLongList list = new CompressedLongList();
+        long value = 1400000000000L;
+        for (int i = 0; i < 1000; i++) {
+            value += i % 3 == 0 ? random.nextInt(1000) - 500 : random.nextInt(10);
+            expected.add(value);
+            list.add(value);
+        }
+        list.addLong(Long.MIN_VALUE);
+        list.addLong(Long.MAX_VALUE);
+        expected.add(Long.MIN_VALUE);
+        expected.add(Long.MAX_VALUE);
+
+        assertEquals(expected, list);
+        assertEquals(expected.get(500), list.get(500));
+        assertEquals(Long.MAX_VALUE, list.getLong(1001));
+    }
+
+    public @Test void compressSortedIds() {
+        CompressedIntList list = new CompressedIntList();
+        for (int i = 0; i < 100000; i++) {
+            list.addInt(1000000 + i * 3);
+        }
+        assertTrue(list.sizeInBytes() * 10 < 100000L * 4);
+        assertEquals(Integer.valueOf(1000000 + 99999 * 3), list.at(-1));
+    }
+
+    public @Test void atWithInvalidIndex() {
+        CompressedIntList list = CompressedIntList.of(1, 2, 3);
+        assertEquals(Integer.valueOf(3), list.at(-1));
+        assertNull(list.at(3));
+        assertNull(list.at(-4));
+    }
+
+    public @Test void selectAndCountBetween() {
+        CompressedIntList list = new CompressedIntList();
+        for (int i = 0; i < 1000; i++) {
+            list.addInt(i);
+        }
+
+        assertEquals(Arrays.asList(126, 127, 128, 129, 130), list.select(CompressedIntList.between(126, 130)));
+        assertEquals(300, list.count(CompressedIntList.between(100, 399)));
+        assertEquals(0, list.count(CompressedIntList.between(5000, 6000)));
+    }
+
+    public @Test void selectWithCondition() {
+        CompressedIntList list = CompressedIntList.of(5, 1, 4, 2, 3);
+        List<Integer> result = list.select(new ConditionFunction<Integer>() {
+            @Override
+            public boolean condition(Integer i) {
+                return i % 2 == 1;
+            }
+        });
+        assertEquals(Arrays.asList(5, 1, 3), result);
+    }
+
+    public @Test void skipBlocksThroughHelper() {
+        CompressedIntList list = new CompressedIntList();
+        for (int i = 0; i < 10000; i++) {
+            list.addInt(i);
+        }
+        final int[] calls = new int[1];
+        RangeConditionFunction<Integer> small = new RangeConditionFunction<Integer>() {
+            @Override
+            public boolean condition(Integer i) {
+                calls[0]++;
+                return i < 3;
+            }
+
+            @Override
+            public boolean mayMatch(Integer min, Integer max) {
+                return min < 3;
+            }
+
+            @Override
+            public boolean matchesAll(Integer min, Integer max) {
+                return max < 3;
+            }
+        };
+
+        assertEquals(Arrays.asList(0, 1, 2), select(list, small));
+        assertEquals(3, count(list, small));
+        assertTrue(calls[0] < 1000);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.predicates.AdaptiveCondition;
+import com.github.bicoco.collections.predicates.Conditions;
+
+public class ConditionsTest {
+
+    ConditionFunction<Integer> always = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return true;
+        }
+    };
+
+    ConditionFunction<Integer> never = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return false;
+        }
+    };
+
+    ConditionFunction<Integer> multipleOf10 = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i % 10 == 0;
+        }
+    };
+
+    ConditionFunction<Integer> slowEven = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            double x = i;
+            for (int k = 0; k < 20000; k++) {
+                x = Math.sqrt(x + k);
+            }
+            return x > 0 && i % 2 == 0;
+        }
+    };
+
+    List<Integer> numbers = range(20000);
+
+    public @Test void andRunsSelectiveConditionsFirst() {
+        List<Integer> numbers = range(3000);
+        AdaptiveCondition<Integer> condition = Conditions.and(always, slowEven, multipleOf10).sampleEvery(3).window(50);
+
+        assertEquals(300, count(numbers, condition));
+        assertArrayEquals(new int[] {2, 1, 0}, condition.getOrder());
+        assertTrue(condition.isFrozen());
+        assertTrue(condition.getReorders() > 0);
+        assertEquals(1.0, condition.getSelectivity(0), 0.0);
+        assertEquals(0.1, condition.getSelectivity(2), 0.05);
+        assertTrue(condition.getCost(1) > condition.getCost(2));
+
+        long samples = condition.getSamples();
+        assertEquals(300, select(numbers, condition).size());
+        assertEquals(samples, condition.getSamples());
+    }
+
+    public @Test void orRunsConditionsLikelyTrueFirst() {
+        AdaptiveCondition<Integer> condition = Conditions.or(never, multipleOf10, always).sampleEvery(1).window(20);
+
+        assertEquals(20000, count(numbers, condition));
+        assertEquals(2, condition.getOrder()[0]);
+        assertEquals(0, condition.getOrder()[2]);
+        assertTrue(condition.isFrozen());
+
+        condition.reset();
+        assertFalse(condition.isFrozen());
+        assertEquals(0, condition.getSamples());
+    }
+
+    public @Test void sameResultAsShortCircuit() {
+        AdaptiveCondition<Integer> and = Conditions.and(multipleOf10, slowEven).sampleEvery(1).window(10);
+        AdaptiveCondition<Integer> or = Conditions.or(multipleOf10, never).sampleEvery(1).window(10);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 10 == 0, and.condition(i));
+            assertEquals(i % 10 == 0, or.condition(i));
+        }
+    }
+
+    public @Test void combineListOfConditions() {
+        List<ConditionFunction<Integer>> conditions = new ArrayList<ConditionFunction<Integer>>();
+        conditions.add(always);
+        conditions.add(multipleOf10);
+        conditions.add(slowEven);
+        conditions.add(always);
+        AdaptiveCondition<Integer> and = Conditions.and(conditions);
+        AdaptiveCondition<Integer> or = Conditions.or(conditions);
+        assertEquals(20, count(range(200), and));
+        assertEquals(200, count(range(200), or));
+    }
+
+    private static List<Integer> range(int n) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) list.add(i);
+        return list;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.bicoco.collections.DictionaryStringList;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.TransformFunction;
+
+public class DictionaryStringListTest {
+
+    String[] statuses = {"OPEN", "CLOSED", "PENDING", "OPEN", "OPEN", "CLOSED"};
+    List<String> plain;
+    DictionaryStringList encoded;
+    int calls;
+
+    ConditionFunction<String> open = new ConditionFunction<String>() {
+        @Override
+        public boolean condition(String s) {
+            calls++;
+            return s.equals("OPEN");
+        }
+    };
+
+    TransformFunction<String, Character> initial = new TransformFunction<String, Character>() {
+        @Override
+        public Character transform(String s) {
+            calls++;
+            return s.charAt(0);
+        }
+    };
+
+    @Before
+    public void setup() {
+        plain = new ArrayList<String>();
+        for (int i = 0; i < 6000; i++) plain.add(statuses[i % statuses.length]);
+        encoded = new DictionaryStringList(plain);
+        calls = 0;
+    }
+
+    public @Test void behaveLikeList() {
+        DictionaryStringList list = new DictionaryStringList(Arrays.asList("a", "b", "a"));
+        list.add(1, "c");
+        list.set(0, "b");
+        list.remove(3);
+        list.add(null);
+        assertEquals(Arrays.asList("b", "c", "b", null), list);
+        assertEquals(Arrays.asList("a", "b", "c", null), list.dictionary());
+        assertEquals(1, list.code(0));
+    }
+
+    public @Test void selectAndCountTestEachDistinctString() {
+        assertEquals(select(plain, open), select(encoded, open));
+        calls = 0;
+        assertEquals(3000, count(encoded, open));
+        assertEquals(3, calls);
+    }
+
+    public @Test void countByKey() {
+        Map<Character, Integer> expected = new LinkedHashMap<Character, Integer>();
+        expected.put('O', 3000);
+        expected.put('C', 2000);
+        expected.put('P', 1000);
+        assertEquals(expected, countBy(plain, initial));
+
+        calls = 0;
+        Map<Character, Integer> result = countBy(encoded, initial);
+        assertEquals(expected, result);
+        assertEquals(Arrays.asList('O', 'C', 'P'), new ArrayList<Character>(result.keySet()));
+        assertEquals(3, calls);
+    }
+
+}
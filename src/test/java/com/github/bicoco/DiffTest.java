@@ -0,0 +1,107 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.EditScript;
+import com.github.bicoco.collections.ListHelper;
+
+public class DiffTest {
+
+    public @Test void diffAndPatch() {
+        List<String> source = Arrays.asList("a", "b", "c", "d", "e");
+        List<String> target = Arrays.asList("a", "x", "c", "d", "y", "z");
+        EditScript<String> script = diff(source, target);
+        assertEquals("[@1 -1 +[x], @4 -1 +[y, z]]", script.getEdits().toString());
+        assertEquals(5, script.distance());
+
+        List<String> copy = new ArrayList<String>(source);
+        patch$(copy, script);
+        assertEquals(target, copy);
+
+        assertTrue(diff(source, new ArrayList<String>(source)).isEmpty());
+    }
+
+    public @Test void minimalScriptsMatchLongestCommonSubsequence() {
+        Random random = new Random(17);
+        for (int round = 0; round < 300; round++) {
+            List<Integer> a = randomList(random, random.nextInt(40), 5);
+            List<Integer> b = randomList(random, random.nextInt(40), 5);
+            EditScript<Integer> script = new ListHelper<Integer>(a).diff(b, true);
+            assertEquals(a.size() + b.size() - 2 * lcs(a, b), script.distance());
+            assertPatches(a, b, script);
+        }
+    }
+
+    public @Test void patchManyEditsOnArrayAndLinkedLists() {
+        Random random = new Random(23);
+        List<Integer> a = randomList(random, 5000, 1000000);
+        List<Integer> b = new ArrayList<Integer>(a);
+        for (int i = 0; i < 200; i++) {
+            int position = random.nextInt(b.size());
+            if (random.nextBoolean()) b.remove(position); else b.add(position, -i);
+        }
+        EditScript<Integer> script = diff(a, b);
+        assertTrue(script.getEdits().size() > 16);
+        assertTrue(script.distance() <= 200);
+        assertPatches(a, b, script);
+    }
+
+    public @Test void patienceOnLargeDifferences() {
+        Random random = new Random(29);
+        List<Integer> a = randomList(random, 20000, 50000);
+        List<Integer> b = randomList(random, 20000, 50000);
+        for (int i = 0; i < 20000; i += 2) b.set(i, a.get(i));
+        EditScript<Integer> script = diff(a, b);
+        assertPatches(a, b, script);
+    }
+
+    public @Test void fewChangesInHugeList() {
+        List<Integer> a = new ArrayList<Integer>();
+        for (int i = 0; i < 1000000; i++) a.add(i);
+        List<Integer> b = new ArrayList<Integer>(a);
+        b.set(500000, -1);
+        b.add(-2);
+
+        EditScript<Integer> script = diff(a, b);
+        assertEquals("[@500000 -1 +[-1], @1000000 -0 +[-2]]", script.getEdits().toString());
+        patch$(a, script);
+        assertEquals(b, a);
+    }
+
+    private static void assertPatches(List<Integer> a, List<Integer> b, EditScript<Integer> script) {
+        List<Integer> array = new ArrayList<Integer>(a);
+        patch$(array, script);
+        assertEquals(b, array);
+        List<Integer> linked = new LinkedList<Integer>(a);
+        patch$(linked, script);
+        assertEquals(b, linked);
+    }
+
+    private static List<Integer> randomList(Random random, int size, int values) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) list.add(random.nextInt(values));
+        return list;
+    }
+
+    private static int lcs(List<Integer> a, List<Integer> b) {
+        int[][] length = new int[a.size() + 1][b.size() + 1];
+        for (int i = 1; i <= a.size(); i++) {
+            for (int j = 1; j <= b.size(); j++) {
+                length[i][j] = a.get(i - 1).equals(b.get(j - 1))
+                        ? length[i - 1][j - 1] + 1 : Math.max(length[i - 1][j], length[i][j - 1]);
+            }
+        }
+        return length[a.size()][b.size()];
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.sortExternal;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.bicoco.collections.external.CloseableIterator;
+import com.github.bicoco.collections.external.Codecs;
+import com.github.bicoco.collections.external.ExternalSorter;
+
+public class ExternalSorterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    Comparator<Integer> ascending = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+            return a < b ? -1 : (a.equals(b) ? 0 : 1);
+        }
+    };
+
+    public @Test void sortInMemory() throws IOException {
+        ExternalSorter<Integer> sorter = new ExternalSorter<Integer>(ascending, Codecs.integers())
+                .directory(folder.getRoot());
+        assertEquals(Arrays.asList(1, 2, 3), drain(sorter.sort(Arrays.asList(3, 1, 2))));
+        assertEquals(0, sorter.getRunsSpilled());
+    }
+
+    public @Test void sortThroughHelper() throws IOException {
+        List<Integer> numbers = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) numbers.add((i * 37) % 1000);
+        List<Integer> expected = new ArrayList<Integer>(numbers);
+        Collections.sort(expected);
+        assertEquals(expected, drain(sortExternal(numbers, ascending, Codecs.integers(), 100)));
+    }
+
+    public @Test void sortSpillingRunsToDisk() throws IOException {
+        Random random = new Random(11);
+        List<Integer> numbers = new ArrayList<Integer>();
+        for (int i = 0; i < 10000; i++) {
+            numbers.add(random.nextInt());
+        }
+        ExternalSorter<Integer> sorter = new ExternalSorter<Integer>(ascending, Codecs.integers())
+                .maxInMemory(500)
+                .maxFanIn(4)
+                .directory(folder.getRoot());
+
+        List<Integer> result = drain(sorter.sort(numbers));
+
+        Collections.sort(numbers);
+        assertEquals(numbers, result);
+        assertEquals(10000, sorter.getElementsRead());
+        assertEquals(10000, sorter.getElementsReturned());
+        assertTrue(sorter.getRunsSpilled() > 20);
+        assertTrue(sorter.getMergePasses() > 0);
+        assertTrue(sorter.getBytesSpilled() > 10000 * 4);
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    public @Test void sortDistinct() throws IOException {
+        List<String> words = Arrays.asList("b", "a", "c", "a", "b", "d", "a", "c");
+        ExternalSorter<String> sorter = new ExternalSorter<String>(new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.compareTo(b);
+            }
+        }, Codecs.strings()).maxInMemory(3).distinct(true).directory(folder.getRoot());
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"), drain(sorter.sort(words)));
+    }
+
+    public @Test void stableAcrossMergePasses() throws IOException {
+        Comparator<String> byFirstChar = new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.charAt(0) - b.charAt(0);
+            }
+        };
+        List<String> words = Arrays.asList("b0", "a1", "a2", "b3", "a4", "a5", "b6", "a7", "a8", "b9");
+        ExternalSorter<String> sorter = new ExternalSorter<String>(byFirstChar, Codecs.strings())
+                .maxInMemory(1)
+                .maxFanIn(2)
+                .directory(folder.getRoot());
+        assertEquals(Arrays.asList("a1", "a2", "a4", "a5", "a7", "a8", "b0", "b3", "b6", "b9"), drain(sorter.sort(words)));
+        assertTrue(sorter.getMergePasses() > 4);
+
+        sorter.distinct(true);
+        assertEquals(Arrays.asList("a1", "b0"), drain(sorter.sort(words)));
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    public @Test void closeDeletesRuns() throws IOException {
+        ExternalSorter<Integer> sorter = new ExternalSorter<Integer>(ascending, Codecs.integers())
+                .maxInMemory(2)
+                .directory(folder.getRoot());
+        CloseableIterator<Integer> it = sorter.sort(Arrays.asList(5, 4, 3, 2, 1));
+        assertEquals(Integer.valueOf(1), it.next());
+        it.close();
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    private static <T> List<T> drain(CloseableIterator<T> it) throws IOException {
+        List<T> result = new ArrayList<T>();
+        try {
+            while (it.hasNext()) {
+                result.add(it.next());
+            }
+        } finally {
+            it.close();
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.IndexMask;
+import com.github.bicoco.collections.functions.ConditionFunction;
+
+public class IndexMaskTest {
+
+    List<Integer> numbers = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+    ConditionFunction<Integer> even = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i % 2 == 0;
+        }
+    };
+
+    ConditionFunction<Integer> greaterThan4 = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i > 4;
+        }
+    };
+
+    public @Test void selectMaskAndView() {
+        IndexMask mask = selectMask(numbers, even);
+        assertArrayEquals(new int[] {1, 3, 5, 7}, mask.toArray());
+        assertEquals(Arrays.asList(2, 4, 6, 8), view(numbers, mask));
+    }
+
+    public @Test void combineMasks() {
+        IndexMask even = selectMask(numbers, this.even);
+        IndexMask big = selectMask(numbers, greaterThan4);
+
+        assertEquals(Arrays.asList(6, 8), view(numbers, even.and(big)));
+        assertEquals(Arrays.asList(2, 4, 5, 6, 7, 8, 9), view(numbers, even.or(big)));
+        assertEquals(Arrays.asList(1, 3, 5, 7, 9), view(numbers, even.not()));
+        assertEquals(Arrays.asList(2, 4), view(numbers, even.andNot(big)));
+    }
+
+    public @Test void viewOfLinkedList() {
+        List<Integer> linked = new LinkedList<Integer>(numbers);
+        IndexMask mask = selectMask(linked, greaterThan4);
+        assertEquals(Arrays.asList(5, 6, 7, 8, 9), view(linked, mask));
+        assertEquals(Integer.valueOf(7), view(linked, mask).get(2));
+    }
+
+    public @Test void sparseAndDenseMasksMatchBitSet() {
+        int size = 300000;
+        Random random = new Random(7);
+        BitSet a = new BitSet(), b = new BitSet();
+        for (int i = 0; i < size; i++) {
+            // dense in the first 65536 indexes, sparse after that
+            if (random.nextInt(i < 65536 ? 2 : 100) == 0) a.set(i);
+            if (random.nextInt(i < 131072 ? 3 : 50) == 0) b.set(i);
+        }
+        IndexMask ma = mask(size, a), mb = mask(size, b);
+
+        BitSet and = (BitSet) a.clone(); and.and(b);
+        BitSet or = (BitSet) a.clone(); or.or(b);
+        BitSet andNot = (BitSet) a.clone(); andNot.andNot(b);
+        BitSet not = (BitSet) a.clone(); not.flip(0, size);
+
+        assertEquals(mask(size, and), ma.and(mb));
+        assertEquals(mask(size, or), ma.or(mb));
+        assertEquals(mask(size, andNot), ma.andNot(mb));
+        assertEquals(mask(size, not), ma.not());
+        assertEquals(a.cardinality(), ma.cardinality());
+
+        int rank = a.cardinality() / 2;
+        int index = a.nextSetBit(0);
+        for (int i = 0; i < rank; i++) index = a.nextSetBit(index + 1);
+        assertEquals(index, ma.select(rank));
+        assertEquals(a.nextSetBit(70000), ma.nextSetBit(70000));
+        assertTrue(ma.contains(index));
+        assertFalse(ma.contains(size + 1));
+    }
+
+    private static IndexMask mask(int size, BitSet bits) {
+        int[] indexes = new int[bits.cardinality()];
+        int n = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            indexes[n++] = i;
+        }
+        return IndexMask.of(size, indexes);
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.JoinType;
+import com.github.bicoco.collections.functions.BiTransformFunction;
+import com.github.bicoco.collections.functions.TransformFunction;
+
+public class JoinTest {
+
+    List<String> names = Arrays.asList("Ana:1", "Bob:2", "Carl:3", "Dan:2", "Eve:9");
+    List<String> cities = Arrays.asList("1=Rio", "2=Recife", "3=Natal", "2=Olinda");
+
+    TransformFunction<String, String> nameKey = new TransformFunction<String, String>() {
+        @Override
+        public String transform(String s) {
+            return s.substring(s.indexOf(':') + 1);
+        }
+    };
+
+    TransformFunction<String, String> cityKey = new TransformFunction<String, String>() {
+        @Override
+        public String transform(String s) {
+            return s.substring(0, s.indexOf('='));
+        }
+    };
+
+    BiTransformFunction<String, String, String> pair = new BiTransformFunction<String, String, String>() {
+        @Override
+        public String transform(String name, String city) {
+            return name.substring(0, name.indexOf(':')) + "-" + (city == null ? null : city.substring(city.indexOf('=') + 1));
+        }
+    };
+
+    public @Test void innerJoin() {
+        List<String> expected = Arrays.asList("Ana-Rio", "Bob-Recife", "Bob-Olinda", "Carl-Natal", "Dan-Recife", "Dan-Olinda");
+        assertEquals(expected, join(names, cities, nameKey, cityKey, pair));
+    }
+
+    public @Test void leftJoin() {
+        List<String> expected = Arrays.asList("Ana-Rio", "Bob-Recife", "Bob-Olinda", "Carl-Natal", "Dan-Recife", "Dan-Olinda", "Eve-null");
+        assertEquals(expected, join(names, cities, nameKey, cityKey, pair, JoinType.LEFT));
+    }
+
+    public @Test void semiJoin() {
+        List<String> expected = Arrays.asList("Ana-Rio", "Bob-Recife", "Carl-Natal", "Dan-Recife");
+        assertEquals(expected, join(names, cities, nameKey, cityKey, pair, JoinType.SEMI));
+    }
+
+    public @Test void buildOnSmallerLeftKeepsLeftOrder() {
+        List<String> few = Arrays.asList("Bob:2", "Ana:1");
+        assertEquals(Arrays.asList("Bob-Recife", "Bob-Olinda", "Ana-Rio"), join(few, cities, nameKey, cityKey, pair));
+        assertEquals(Arrays.asList("Bob-Recife", "Ana-Rio"), join(few, cities, nameKey, cityKey, pair, JoinType.SEMI));
+    }
+
+    public @Test void mergeJoinOfSortedLists() {
+        List<String> sortedNames = Arrays.asList("Ana:1", "Bob:2", "Dan:2", "Carl:3", "Eve:9");
+        List<String> sortedCities = Arrays.asList("1=Rio", "2=Recife", "2=Olinda", "3=Natal");
+        Comparator<String> order = new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.compareTo(b);
+            }
+        };
+
+        List<String> expected = Arrays.asList("Ana-Rio", "Bob-Recife", "Bob-Olinda", "Dan-Recife", "Dan-Olinda", "Carl-Natal", "Eve-null");
+        assertEquals(expected, mergeJoin(sortedNames, sortedCities, nameKey, cityKey, pair, JoinType.LEFT, order));
+    }
+
+    public @Test void mergeJoinSkipsNullKeys() {
+        TransformFunction<String, String> optionalKey = new TransformFunction<String, String>() {
+            @Override
+            public String transform(String s) {
+                String key = nameKey.transform(s);
+                return key.isEmpty() ? null : key;
+            }
+        };
+        TransformFunction<String, String> optionalCityKey = new TransformFunction<String, String>() {
+            @Override
+            public String transform(String s) {
+                String key = cityKey.transform(s);
+                return key.isEmpty() ? null : key;
+            }
+        };
+        Comparator<String> order = new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.compareTo(b);
+            }
+        };
+
+        List<String> sortedNames = Arrays.asList("Zed:", "Ana:1", "Bob:2", "Eve:");
+        List<String> sortedCities = Arrays.asList("=Nowhere", "1=Rio", "2=Recife");
+        assertEquals(Arrays.asList("Zed-null", "Ana-Rio", "Bob-Recife", "Eve-null"),
+                mergeJoin(sortedNames, sortedCities, optionalKey, optionalCityKey, pair, JoinType.LEFT, order));
+        assertEquals(Arrays.asList("Ana-Rio", "Bob-Recife"),
+                mergeJoin(sortedNames, sortedCities, optionalKey, optionalCityKey, pair, JoinType.INNER, order));
+    }
+
+    public @Test void parallelJoinMatchesSequentialJoin() {
+        Random random = new Random(3);
+        List<Integer> left = new ArrayList<Integer>();
+        List<Integer> right = new ArrayList<Integer>();
+        for (int i = 0; i < 20000; i++) left.add(random.nextInt(5000));
+        for (int i = 0; i < 3000; i++) right.add(random.nextInt(5000));
+
+        TransformFunction<Integer, Integer> identity = new TransformFunction<Integer, Integer>() {
+            @Override
+            public Integer transform(Integer i) {
+                return i;
+            }
+        };
+        BiTransformFunction<Integer, Integer, Long> sum = new BiTransformFunction<Integer, Integer, Long>() {
+            @Override
+            public Long transform(Integer a, Integer b) {
+                return b == null ? -a : (long) a * 100000 + b;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (JoinType type : JoinType.values()) {
+                assertEquals(join(left, right, identity, identity, sum, type),
+                        join(left, right, identity, identity, sum, type, executor));
+                assertEquals(join(right, left, identity, identity, sum, type),
+                        join(right, left, identity, identity, sum, type, executor));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -8,6 +8,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.Before;
@@ -202,6 +203,28 @@ public class ListTest {
         assertEquals("maoe", s);
     }
 
+    public @Test void invokeFetchWithNegativeIndexAndDefaultValue() {
+        assertEquals("maoe", fetch(strings, -1, "maoe"));
+    }
+
+    public @Test void invokeFetchAll() {
+        int[] indexes = {5, 0, 10, 2, -1, 0};
+        List<String> expected = Arrays.asList("ABC", "A", "-", "C", "-", "A");
+        assertEquals(expected, fetchAll(strings, indexes, "-"));
+        assertEquals(expected, fetchAll(new LinkedList<String>(strings), indexes, "-"));
+    }
+
+    public @Test void invokeSetAll() {
+        int[] indexes = {4, 1, 7, 4, -2};
+        String[] values = {"X", "Y", "Z", "W", "V"};
+        List<String> linked = new LinkedList<String>(strings);
+
+        assertEquals(3, setAll(strings, indexes, values));
+        assertEquals(3, setAll(linked, indexes, values));
+        assertEquals(Arrays.asList("A", "Y", "C", "D", "W", "ABC"), strings);
+        assertEquals(strings, linked);
+    }
+
     public @Test void chainMethodPush() {
         push(strings, "F")
          .push("G")
@@ -0,0 +1,117 @@
+package com.github.bicoco;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.bicoco.collections.ListHelper;
+import com.github.bicoco.collections.LiveCount;
+import com.github.bicoco.collections.LiveReduce;
+import com.github.bicoco.collections.LiveSelect;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+public class LiveViewTest {
+
+    List<Integer> numbers;
+    ListHelper<Integer> helper;
+    int calls;
+
+    ConditionFunction<Integer> even = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            calls++;
+            return i % 2 == 0;
+        }
+    };
+
+    ReduceFunction<Integer, Integer> sum = new ReduceFunction<Integer, Integer>() {
+        public Integer reduce(Integer memo, Integer i) {
+            return memo + i;
+        }
+    };
+
+    @Before
+    public void setup() {
+        numbers = new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4, 5));
+        helper = new ListHelper<Integer>(numbers);
+        calls = 0;
+    }
+
+    public @Test void updatePushingThroughHelper() {
+        LiveCount<Integer> count = helper.liveCount(even);
+        LiveSelect<Integer> select = helper.liveSelect(even);
+        LiveReduce<Integer, Integer> total = helper.liveReduce(0, sum);
+
+        assertEquals(2, count.get());
+        assertEquals(Arrays.asList(2, 4), select.get());
+        assertEquals(Integer.valueOf(15), total.get());
+
+        calls = 0;
+        helper.push(6).push(7);
+        helper.push(8, 10);
+
+        assertEquals(5, count.get());
+        assertEquals(Arrays.asList(2, 4, 6, 8, 10), select.get());
+        assertEquals(Integer.valueOf(46), total.get());
+        assertEquals(8, calls);
+        assertEquals(1, count.getRebuilds());
+    }
+
+    public @Test void rebuildWhenListChangesOutsideHelper() {
+        LiveCount<Integer> count = helper.liveCount(even);
+        assertEquals(2, count.get());
+
+        numbers.add(6);
+        helper.push(8);
+        assertEquals(4, count.get());
+        assertEquals(2, count.getRebuilds());
+
+        numbers.remove(0);
+        assertEquals(4, count.get());
+        assertEquals(3, count.getRebuilds());
+    }
+
+    public @Test void rebuildWhenListChangesOutsideHelperKeepingSize() {
+        LiveCount<Integer> count = helper.liveCount(even);
+        LiveSelect<Integer> select = helper.liveSelect(even);
+        assertEquals(2, count.get());
+
+        numbers.remove(0);
+        numbers.add(10);
+        assertEquals(3, count.get());
+        assertEquals(Arrays.asList(2, 4, 10), select.get());
+        assertEquals(2, count.getRebuilds());
+
+        numbers.remove(0);
+        numbers.add(11);
+        helper.push(12);
+        assertEquals(3, count.get());
+        assertEquals(Arrays.asList(4, 10, 12), select.get());
+        assertEquals(3, count.getRebuilds());
+    }
+
+    public @Test void rebuildAfterModifyingThroughHelper() {
+        LiveReduce<Integer, Integer> total = helper.liveReduce(0, sum);
+        assertEquals(Integer.valueOf(15), total.get());
+
+        helper.map$(new MapFunction<Integer>() {
+            @Override
+            public Integer map(Integer i) {
+                return i * 10;
+            }
+        });
+        assertEquals(Integer.valueOf(150), total.get());
+
+        numbers.set(0, 1000);
+        total.invalidate();
+        assertEquals(Integer.valueOf(1140), total.get());
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.functions.BiEachFunction;
+import com.github.bicoco.collections.functions.BiTransformFunction;
+
+public class MergeZipTest {
+
+    Comparator<Integer> ascending = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+            return a < b ? -1 : (a.equals(b) ? 0 : 1);
+        }
+    };
+
+    public @Test void mergeShards() {
+        Random random = new Random(37);
+        List<List<Integer>> shards = new ArrayList<List<Integer>>();
+        List<Integer> all = new ArrayList<Integer>();
+        for (int s = 0; s < 30; s++) {
+            List<Integer> shard = new ArrayList<Integer>();
+            for (int i = random.nextInt(500); i > 0; i--) shard.add(random.nextInt(10000));
+            Collections.sort(shard);
+            shards.add(s % 2 == 0 ? shard : new LinkedList<Integer>(shard));
+            all.addAll(shard);
+        }
+        shards.add(new ArrayList<Integer>());
+        Collections.sort(all);
+        assertEquals(all, mergeSorted(shards, ascending));
+    }
+
+    public @Test void mergeIsStableAndLazy() {
+        Comparator<String> byLength = new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.length() - b.length();
+            }
+        };
+        List<List<String>> lists = Arrays.asList(Arrays.asList("a", "bb", "ccc"), Arrays.asList("x", "yy"), Arrays.asList("z"));
+        Iterator<String> it = mergeSortedIterator(lists, byLength);
+        assertEquals("a", it.next());
+        assertEquals("x", it.next());
+        assertEquals("z", it.next());
+        assertEquals(Arrays.asList("bb", "yy", "ccc"), Arrays.asList(it.next(), it.next(), it.next()));
+        assertFalse(it.hasNext());
+    }
+
+    public @Test void zipTwoLists() {
+        List<String> names = Arrays.asList("Ana", "Bob", "Carl");
+        List<Integer> ages = new LinkedList<Integer>(Arrays.asList(30, 25));
+        assertEquals(Arrays.asList("Ana=30", "Bob=25"), zip(names, ages, new BiTransformFunction<String, Integer, String>() {
+            @Override
+            public String transform(String name, Integer age) {
+                return name + "=" + age;
+            }
+        }));
+
+        final StringBuilder text = new StringBuilder();
+        zipEach(names, ages, new BiEachFunction<String, Integer>() {
+            @Override
+            public void each(String name, Integer age) {
+                text.append(name.charAt(0)).append(age);
+            }
+        });
+        assertEquals("A30B25", text.toString());
+    }
+
+}
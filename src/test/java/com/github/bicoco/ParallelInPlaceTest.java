@@ -0,0 +1,148 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+
+public class ParallelInPlaceTest {
+
+    ExecutorService executor;
+
+    MapFunction<Integer> square = new MapFunction<Integer>() {
+        @Override
+        public Integer map(Integer i) {
+            return i * i;
+        }
+    };
+
+    ConditionFunction<Integer> even = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i % 2 == 0;
+        }
+    };
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public @Test void mapInParallel() {
+        List<Integer> numbers = random(100000, 1000);
+        List<Integer> expected = map(numbers, square);
+        map$(numbers, square, executor);
+        assertEquals(expected, numbers);
+    }
+
+    public @Test void selectInParallel() {
+        List<Integer> numbers = random(100003, 1000);
+        List<Integer> expected = select(numbers, even);
+        select$(numbers, even, executor);
+        assertEquals(expected, numbers);
+    }
+
+    public @Test void selectClusteredElements() {
+        for (final int split : new int[] {0, 1, 777, 50000, 99999, 100000}) {
+            List<Integer> numbers = new ArrayList<Integer>();
+            for (int i = 0; i < 100000; i++) numbers.add(i);
+            ConditionFunction<Integer> condition = new ConditionFunction<Integer>() {
+                @Override
+                public boolean condition(Integer i) {
+                    return i >= split || i % 1000 == 0;
+                }
+            };
+            List<Integer> expected = select(numbers, condition);
+            select$(numbers, condition, executor);
+            assertEquals(expected, numbers);
+        }
+    }
+
+    public @Test void selectSmallAndEmptyLists() {
+        List<Integer> numbers = new ArrayList<Integer>(Arrays.asList(1, 2, 3));
+        select$(numbers, even, executor);
+        assertEquals(Arrays.asList(2), numbers);
+
+        numbers.clear();
+        select$(numbers, even, executor);
+        assertEquals(0, numbers.size());
+    }
+
+    public @Test void fixedSizeListIsNotChanged() {
+        List<Integer> numbers = Arrays.asList(1, 2, 3, 4);
+        try {
+            select$(numbers, even);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals(Arrays.asList(1, 2, 3, 4), numbers);
+        }
+        try {
+            select$(numbers, even, executor);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals(Arrays.asList(1, 2, 3, 4), numbers);
+        }
+    }
+
+    public @Test void throwingConditionLeavesListUnchanged() {
+        ConditionFunction<Integer> evenUntilFive = new ConditionFunction<Integer>() {
+            @Override
+            public boolean condition(Integer i) {
+                if (i == 5) throw new IllegalStateException();
+                return i % 2 == 0;
+            }
+        };
+        List<Integer> numbers = new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4, 5, 6));
+        try {
+            select$(numbers, evenUntilFive);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), numbers);
+        }
+
+        List<Integer> many = new ArrayList<Integer>();
+        for (int i = 0; i < 100000; i++) many.add(i + 6);
+        many.set(90000, 5);
+        List<Integer> expected = new ArrayList<Integer>(many);
+        try {
+            select$(many, evenUntilFive, executor);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(expected, many);
+        }
+    }
+
+    public @Test void sequentialForLinkedList() {
+        List<Integer> numbers = new LinkedList<Integer>(Arrays.asList(1, 2, 3, 4));
+        select$(numbers, even, executor);
+        map$(numbers, square, executor);
+        assertEquals(Arrays.asList(4, 16), numbers);
+    }
+
+    private static List<Integer> random(int n, int bound) {
+        Random random = new Random(17);
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) list.add(random.nextInt(bound));
+        return list;
+    }
+
+}
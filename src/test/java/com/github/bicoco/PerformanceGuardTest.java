@@ -0,0 +1,152 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+
+/**
+ * Guards against regressions in allocation and complexity of the helpers.
+ *
+ * Allocations are measured in bytes by the current thread, where supported
+ * by the JVM. Complexity is checked timing each operation with n and 8n
+ * elements: a linear operation takes about 8 times longer, a quadratic one
+ * about 64 times. Each timing is the best of a few runs, after a warm up.
+ */
+public class PerformanceGuardTest {
+
+    static final int N = 50000;
+    static final double MAX_LINEAR_RATIO = 24;
+
+    ConditionFunction<Integer> even = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i % 2 == 0;
+        }
+    };
+
+    MapFunction<Integer> same = new MapFunction<Integer>() {
+        @Override
+        public Integer map(Integer i) {
+            return i;
+        }
+    };
+
+    public @Test void inPlaceOperationsDontCopyTheList() {
+        final List<Integer> numbers = numbers(N);
+        assertAllocatesAtMost(1024, new Runnable() {
+            public void run() {
+                map$(numbers, same);
+            }
+        });
+        // one bit for each element, all are tested before any is moved
+        assertAllocatesAtMost(N / 8 + 1024, new Runnable() {
+            public void run() {
+                select$(numbers, even);
+            }
+        });
+        assertAllocatesAtMost(1024, new Runnable() {
+            public void run() {
+                count(numbers, even);
+            }
+        });
+    }
+
+    public @Test void selectAllocatesOnlyTheResult() {
+        final List<Integer> numbers = numbers(N);
+        // references of at most 8 bytes, with the growth of the result array
+        assertAllocatesAtMost(8 * 3 * N / 2 + 1024, new Runnable() {
+            public void run() {
+                select(numbers, even);
+            }
+        });
+    }
+
+    public @Test void selectInPlaceIsLinear() {
+        assertLinear(new Operation() {
+            public void run(List<Integer> list) {
+                select$(list, even);
+            }
+        });
+        assertLinear(new Operation() {
+            public void run(List<Integer> list) {
+                reject$(list, even);
+            }
+        });
+        assertLinear(new Operation() {
+            public void run(List<Integer> list) {
+                for (int i = 0; i < list.size(); i += 3) list.set(i, null);
+                compact$(list);
+            }
+        });
+    }
+
+    public @Test void selectAndMapAreLinear() {
+        assertLinear(new Operation() {
+            public void run(List<Integer> list) {
+                select(list, even);
+            }
+        });
+        assertLinear(new Operation() {
+            public void run(List<Integer> list) {
+                map$(list, same);
+            }
+        });
+    }
+
+    interface Operation {
+        void run(List<Integer> list);
+    }
+
+    private static void assertLinear(Operation operation) {
+        best(operation, N);
+        long small = best(operation, N);
+        long large = best(operation, 8 * N);
+        double ratio = (double) large / Math.max(small, 1);
+        assertTrue("time ratio of 8n to n was " + ratio, ratio < MAX_LINEAR_RATIO);
+    }
+
+    private static long best(Operation operation, int n) {
+        List<Integer> numbers = numbers(n);
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            List<Integer> list = new ArrayList<Integer>(numbers);
+            long start = System.nanoTime();
+            operation.run(list);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void assertAllocatesAtMost(long bytes, Runnable operation) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        long id = Thread.currentThread().getId();
+        operation.run();
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < 3; run++) {
+            long before = threads.getThreadAllocatedBytes(id);
+            operation.run();
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(id) - before);
+        }
+        assertTrue("allocated " + allocated + " bytes, expected at most " + bytes, allocated <= bytes);
+    }
+
+    private static List<Integer> numbers(int n) {
+        List<Integer> list = new ArrayList<Integer>(n);
+        for (int i = 0; i < n; i++) list.add(i);
+        return list;
+    }
+
+}
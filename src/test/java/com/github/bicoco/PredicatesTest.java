@@ -0,0 +1,179 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.predicates.CompiledPredicate;
+import com.github.bicoco.collections.predicates.Predicate;
+import com.github.bicoco.collections.predicates.Predicates;
+
+public class PredicatesTest {
+
+    List<Person> persons = Arrays.asList(
+            new Person("Ana", 22, 1.60, true, 10L, 7),
+            new Person("Bob", 17, 1.80, false, 20L, null),
+            new Person("Alice", 35, 1.72, true, 30L, 9),
+            new Person("Carl", 20, 1.75, true, 5L, 3),
+            new Person(null, 41, 1.55, false, 50L, null));
+
+    public @Test void selectWithAndClauses() {
+        Predicate<Person> p = Predicates.<Person>where("age").gt(20).and("name").startsWith("A");
+        assertEquals(Arrays.asList("Ana", "Alice"), names(select(persons, p)));
+        assertEquals(2, count(persons, p));
+        assertEquals("age > 20 and name startsWith \"A\"", p.toString());
+    }
+
+    public @Test void selectWithOrClauses() {
+        Predicate<Person> p = Predicates.<Person>where("height").ge(1.75).and("active").eq(true).or("points").lt(15);
+        assertEquals(Arrays.asList("Ana", "Carl"), names(select(persons, p)));
+    }
+
+    public @Test void compareNumbersOfOtherTypes() {
+        assertEquals(3, count(persons, Predicates.<Person>where("age").le(22L)));
+        assertEquals(2, count(persons, Predicates.<Person>where("age").gt(21.5).and("age").lt(36)));
+        assertEquals(1, count(persons, Predicates.<Person>where("points").eq(30)));
+        assertEquals(4, count(persons, Predicates.<Person>where("height").ne(1.8)));
+        assertEquals(Arrays.asList("Ana", "Alice"), names(select(persons, Predicates.<Person>where("score").ge(7))));
+    }
+
+    public @Test void nullProperties() {
+        assertEquals(2, count(persons, Predicates.<Person>where("score").isNull()));
+        assertEquals(3, count(persons, Predicates.<Person>where("score").notNull()));
+        assertEquals(4, count(persons, Predicates.<Person>where("score").ne(3)));
+        assertEquals(1, count(persons, Predicates.<Person>where("name").isNull()));
+        assertEquals(4, count(persons, Predicates.<Person>where("name").ne("Ana")));
+        assertEquals(2, count(persons, Predicates.<Person>where("name").contains("l")));
+        assertEquals(2, count(persons, Predicates.<Person>where("city").eq("Recife")));
+    }
+
+    public @Test void nullElementsDontMatch() {
+        List<Person> withNull = new ArrayList<Person>(persons);
+        withNull.add(1, null);
+        assertEquals(3, count(withNull, Predicates.<Person>where("age").gt(18).and("active").eq(true)));
+    }
+
+    public @Test void compiledClassIsSharedByShape() {
+        CompiledPredicate<Person> a = Predicates.<Person>where("age").gt(20).compile(Person.class);
+        CompiledPredicate<Person> b = Predicates.<Person>where("age").gt(30).compile(Person.class);
+        assertSame(a.getClass(), b.getClass());
+        assertEquals(3, a.count(persons));
+        assertEquals(2, b.count(persons));
+        assertEquals(names(b.select(persons)), Arrays.asList("Alice", null));
+    }
+
+    public @Test void readPropertiesFromPublicSuperClass() {
+        Predicate<Person> p = Predicates.<Person>where("age").lt(30);
+        assertTrue(p.condition(new Student("Dan", 19)));
+        assertFalse(p.condition(new Student("Eve", 31)));
+        assertSame(Person.class, p.compile(Student.class).getType());
+    }
+
+    public @Test void mixedClassesOfElements() {
+        List<Object> values = Arrays.<Object>asList("abc", new StringBuilder("abd"), "xyz", new StringBuilder("x"));
+        Predicate<Object> p = Predicates.<Object>where("length").eq(3);
+        assertEquals(3, count(values, p));
+    }
+
+    public @Test void exceptionsOfGettersAreNotSwallowed() {
+        List<Counter> counters = Arrays.asList(new Counter(1), new Counter(2), new Counter(-1), new Counter(3));
+        try {
+            count(counters, Predicates.<Counter>where("value").gt(1));
+            fail();
+        } catch (ClassCastException e) {
+            assertEquals(1, counters.get(0).reads);
+            assertEquals(0, counters.get(3).reads);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownProperty() {
+        Predicates.<Person>where("weight").gt(1).compile(Person.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidComparison() {
+        Predicates.<Person>where("age").startsWith("1").compile(Person.class);
+    }
+
+    private static List<String> names(List<Person> list) {
+        List<String> names = new ArrayList<String>();
+        for (Person person : list) names.add(person.getName());
+        return names;
+    }
+
+    public static class Counter {
+        private final int value;
+        int reads;
+
+        public Counter(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            reads++;
+            if (value < 0) throw new ClassCastException("from the getter");
+            return value;
+        }
+    }
+
+    public static class Person {
+        private final String name;
+        private final int age;
+        private final double height;
+        private final boolean active;
+        private final long points;
+        private final Integer score;
+        public String city;
+
+        public Person(String name, int age, double height, boolean active, long points, Integer score) {
+            this.name = name;
+            this.age = age;
+            this.height = height;
+            this.active = active;
+            this.points = points;
+            this.score = score;
+            this.city = age > 30 ? "Recife" : "Natal";
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public double getHeight() {
+            return height;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public long getPoints() {
+            return points;
+        }
+
+        public Integer getScore() {
+            return score;
+        }
+    }
+
+    private static class Student extends Person {
+        Student(String name, int age) {
+            super(name, age, 1.7, true, 0L, null);
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.github.bicoco;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.flow.BoundedSource;
+import com.github.bicoco.collections.flow.PublisherHelper;
+import com.github.bicoco.collections.flow.Subscriber;
+import com.github.bicoco.collections.flow.Subscription;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.ReduceFunction;
+import com.github.bicoco.collections.functions.TransformFunction;
+
+public class PublisherHelperTest {
+
+    ConditionFunction<Integer> even = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i % 2 == 0;
+        }
+    };
+
+    TransformFunction<Integer, String> toText = new TransformFunction<Integer, String>() {
+        @Override
+        public String transform(Integer i) {
+            return "#" + i;
+        }
+    };
+
+    public @Test void selectAndTransformElementsOfList() throws Exception {
+        Future<List<String>> result = PublisherHelper.from(Arrays.asList(1, 2, 3, 4, 5, 6))
+                .select(even)
+                .transform(toText)
+                .toList();
+        assertEquals(Arrays.asList("#2", "#4", "#6"), result.get(1, TimeUnit.SECONDS));
+    }
+
+    public @Test void reduceWithSmallBatches() throws Exception {
+        List<Integer> numbers = new ArrayList<Integer>();
+        for (int i = 1; i <= 1000; i++) numbers.add(i);
+
+        Future<Integer> sum = new PublisherHelper<Integer>(PublisherHelper.from(numbers).publisher(), 3)
+                .select(even)
+                .reduce(0, new ReduceFunction<Integer, Integer>() {
+                    public Integer reduce(Integer memo, Integer i) {
+                        return memo + i;
+                    }
+                });
+        assertEquals(Integer.valueOf(250500), sum.get(1, TimeUnit.SECONDS));
+    }
+
+    public @Test void boundedSourceRefusesElementsWithoutDemand() {
+        BoundedSource<Integer> source = new BoundedSource<Integer>(16);
+        final List<String> received = new ArrayList<String>();
+        final Subscription[] subscription = new Subscription[1];
+        new PublisherHelper<Integer>(source, 8).transform(toText).publisher().subscribe(new Subscriber<String>() {
+            public void onSubscribe(Subscription s) {
+                subscription[0] = s;
+            }
+
+            public void onNext(String item) {
+                received.add(item);
+            }
+
+            public void onError(Throwable throwable) {
+            }
+
+            public void onComplete() {
+            }
+        });
+
+        int accepted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (source.offer(i)) accepted++;
+        }
+        // the transform stage holds one batch, the source holds its capacity
+        assertEquals(8 + 16, accepted);
+        assertEquals(16, source.buffered());
+        assertEquals(1000 - accepted, source.getRejected());
+        assertTrue(received.isEmpty());
+
+        subscription[0].request(2);
+        assertEquals(Arrays.asList("#0", "#1"), received);
+        subscription[0].cancel();
+        assertTrue(source.isCancelled());
+        assertFalse(source.offer(1));
+    }
+
+    public @Test void slowSubscriberWithProducerThread() throws Exception {
+        final BoundedSource<Integer> source = new BoundedSource<Integer>(32);
+        Future<Integer> count = new PublisherHelper<Integer>(source, 16).select(even).count();
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        source.put(i);
+                        if (source.buffered() > 32) throw new AssertionError("buffer overflow");
+                    }
+                    source.complete();
+                } catch (InterruptedException e) {
+                    source.error(e);
+                }
+            }
+        };
+        producer.start();
+
+        assertEquals(Integer.valueOf(10000), count.get(10, TimeUnit.SECONDS));
+        producer.join();
+        assertEquals(0, source.getRejected());
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.Query;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.TransformFunction;
+
+public class QueryTest {
+
+    int mapped;
+
+    ConditionFunction<Integer> even = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i % 2 == 0;
+        }
+    };
+
+    ConditionFunction<Integer> positive = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            return i > 0;
+        }
+    };
+
+    TransformFunction<Integer, String> text = new TransformFunction<Integer, String>() {
+        @Override
+        public String transform(Integer i) {
+            mapped++;
+            return "#" + i;
+        }
+    };
+
+    Comparator<Integer> byLastDigit = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+            return Math.abs(a % 10) - Math.abs(b % 10);
+        }
+    };
+
+    public @Test void topNWithFilterAndMap() {
+        List<Integer> numbers = random(5000);
+        Query<String> query = query(numbers).orderBy(byLastDigit).where(even).where(positive).map(text).limit(10);
+
+        assertEquals("Map\n  TopN (10)\n    Filter (2 fused)\n      Scan (5000 elements)", query.explain());
+
+        List<Integer> expected = new ArrayList<Integer>(numbers);
+        Collections.sort(expected, byLastDigit);
+        expected = take(select(select(expected, even), positive), 10);
+        List<String> result = query.list();
+        assertEquals(transform(expected, text), result);
+        assertEquals(20, mapped);
+    }
+
+    public @Test void stopScanAtLimit() {
+        final List<Integer> seen = new ArrayList<Integer>();
+        ConditionFunction<Integer> tracked = new ConditionFunction<Integer>() {
+            @Override
+            public boolean condition(Integer i) {
+                seen.add(i);
+                return i % 3 == 0;
+            }
+        };
+        Query<String> query = Query.from(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)).where(tracked).map(text).limit(5).limit(2);
+
+        assertEquals("Map\n  Limit (2)\n    Filter\n      Scan (10 elements)", query.explain());
+        assertEquals(Arrays.asList("#3", "#6"), query.list());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), seen);
+    }
+
+    public @Test void sortIsStable() {
+        List<Integer> numbers = Arrays.asList(21, 11, 32, 1, 12, 41, 2);
+        assertEquals(Arrays.asList(21, 11, 1, 41), Query.from(numbers).orderBy(byLastDigit).limit(4).list());
+        assertEquals(Arrays.asList(21, 11, 1, 41, 32, 12, 2), Query.from(numbers).orderBy(byLastDigit).list());
+    }
+
+    public @Test void filterAfterMapStaysAfterMap() {
+        TransformFunction<Integer, Integer> half = new TransformFunction<Integer, Integer>() {
+            @Override
+            public Integer transform(Integer i) {
+                return i / 2;
+            }
+        };
+        Query<Integer> query = Query.from(Arrays.asList(1, 2, 3, 4, 5, 6)).map(half).where(even);
+        assertEquals("Filter\n  Map\n    Scan (6 elements)", query.explain());
+        assertEquals(Arrays.asList(0, 2, 2), query.list());
+    }
+
+    private static List<Integer> random(int n) {
+        Random random = new Random(5);
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) list.add(random.nextInt(2000) - 1000);
+        return list;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.github.bicoco;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.bicoco.collections.ListHelper;
+import com.github.bicoco.collections.ResultCache;
+import com.github.bicoco.collections.VersionedList;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.MapFunction;
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+public class ResultCacheTest {
+
+    VersionedList<Integer> numbers;
+    ResultCache cache;
+    ListHelper<Integer> helper;
+    int calls;
+
+    ConditionFunction<Integer> even = new ConditionFunction<Integer>() {
+        @Override
+        public boolean condition(Integer i) {
+            calls++;
+            return i % 2 == 0;
+        }
+    };
+
+    ReduceFunction<Integer, Integer> sum = new ReduceFunction<Integer, Integer>() {
+        public Integer reduce(Integer memo, Integer i) {
+            return memo + i;
+        }
+    };
+
+    @Before
+    public void setup() {
+        numbers = VersionedList.of(new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4, 5)));
+        cache = new ResultCache(100, 1000);
+        helper = new ListHelper<Integer>(numbers).cache(cache);
+        calls = 0;
+    }
+
+    public @Test void cacheWhileListDoesNotChange() {
+        assertEquals(Arrays.asList(2, 4), helper.select(even));
+        assertEquals(Arrays.asList(2, 4), helper.select(even));
+        assertEquals(2, helper.count(even));
+        assertEquals(2, helper.count(even));
+        assertEquals(Integer.valueOf(15), helper.reduce(0, sum));
+        assertEquals(Integer.valueOf(15), helper.reduce(0, sum));
+        assertEquals(Integer.valueOf(25), helper.reduce(10, sum));
+
+        assertEquals(10, calls);
+        assertEquals(3, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(4, cache.size());
+        assertEquals(3.0 / 7, cache.getHitRate(), 1e-9);
+    }
+
+    public @Test void missAfterAnyChange() {
+        helper.count(even);
+        helper.push(6);
+        assertEquals(3, helper.count(even));
+
+        numbers.set(0, 8);
+        assertEquals(4, helper.count(even));
+
+        numbers.subList(0, 2).clear();
+        assertEquals(Arrays.asList(4, 6), helper.select(even));
+
+        helper.map$(new MapFunction<Integer>() {
+            @Override
+            public Integer map(Integer i) {
+                return i + 1;
+            }
+        });
+        assertEquals(2, helper.count(even));
+
+        helper.push(9, 10);
+        helper.select$(even);
+        assertEquals(Arrays.asList(4, 6, 10), helper.select(even));
+        assertEquals(0, cache.getHits());
+    }
+
+    public @Test void evictLeastRecentlyUsed() {
+        ResultCache small = new ResultCache(2, 6);
+        List<ConditionFunction<Integer>> conditions = new ArrayList<ConditionFunction<Integer>>();
+        for (int i = 0; i < 3; i++) {
+            final int n = i;
+            conditions.add(new ConditionFunction<Integer>() {
+                @Override
+                public boolean condition(Integer value) {
+                    return value > n;
+                }
+            });
+        }
+        small.count(numbers, conditions.get(0));
+        small.count(numbers, conditions.get(1));
+        small.count(numbers, conditions.get(0));
+        small.count(numbers, conditions.get(2));
+        assertEquals(2, small.size());
+        assertEquals(1, small.getEvictions());
+        small.count(numbers, conditions.get(0));
+        assertEquals(2, small.getHits());
+
+        // 5 selected elements plus one weigh 6, evicting all other results
+        small.select(numbers, conditions.get(0));
+        assertEquals(1, small.size());
+        assertEquals(6, small.weight());
+    }
+
+    public @Test void neverCacheOtherLists() {
+        List<Integer> plain = new LinkedList<Integer>(Arrays.asList(1, 2, 3, 4));
+        ListHelper<Integer> plainHelper = new ListHelper<Integer>(plain).cache(cache);
+        assertEquals(2, plainHelper.count(even));
+        plain.set(0, 2);
+        assertEquals(3, plainHelper.count(even));
+        assertEquals(0, cache.size());
+        assertTrue(cache.getHits() + cache.getMisses() == 0);
+    }
+
+    public @Test void neverCacheMutableReduceValues() {
+        ReduceFunction<Integer, Map<Integer, Integer>> byParity = new ReduceFunction<Integer, Map<Integer, Integer>>() {
+            public Map<Integer, Integer> reduce(Map<Integer, Integer> memo, Integer i) {
+                Integer count = memo.get(i % 2);
+                memo.put(i % 2, count == null ? 1 : count + 1);
+                return memo;
+            }
+        };
+        Map<Integer, Integer> first = helper.reduce(new HashMap<Integer, Integer>(), byParity);
+        Map<Integer, Integer> second = helper.reduce(new HashMap<Integer, Integer>(), byParity);
+        assertEquals(first, second);
+        assertTrue(first != second);
+        assertEquals(0, cache.size());
+        assertTrue(cache.getHits() + cache.getMisses() == 0);
+    }
+
+    public @Test void keepRandomAccess() {
+        assertTrue(numbers instanceof java.util.RandomAccess);
+        assertTrue(!(VersionedList.of(new LinkedList<Integer>()) instanceof java.util.RandomAccess));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.RingList;
+import com.github.bicoco.collections.WindowAggregate;
+import com.github.bicoco.collections.functions.ReduceFunction;
+
+public class RingListTest {
+
+    ReduceFunction<Integer, Integer> sum = new ReduceFunction<Integer, Integer>() {
+        public Integer reduce(Integer memo, Integer i) {
+            return memo + i;
+        }
+    };
+
+    ReduceFunction<Integer, Integer> subtract = new ReduceFunction<Integer, Integer>() {
+        public Integer reduce(Integer memo, Integer i) {
+            return memo - i;
+        }
+    };
+
+    ReduceFunction<Integer, Integer> max = new ReduceFunction<Integer, Integer>() {
+        public Integer reduce(Integer memo, Integer i) {
+            return Math.max(memo, i);
+        }
+    };
+
+    ReduceFunction<Integer, Integer> min = new ReduceFunction<Integer, Integer>() {
+        public Integer reduce(Integer memo, Integer i) {
+            return Math.min(memo, i);
+        }
+    };
+
+    public @Test void keepLastElements() {
+        RingList<Integer> ring = new RingList<Integer>(3);
+        ring.push(1).push(2).push(3).push(4);
+        assertEquals(Arrays.asList(2, 3, 4), ring);
+        assertEquals(Integer.valueOf(4), last(ring));
+        ring.add(5);
+        assertEquals(Arrays.asList(3, 4, 5), ring);
+        ring.clear();
+        assertTrue(ring.isEmpty());
+    }
+
+    public @Test void aggregatesOfCountWindow() {
+        RingList<Integer> ring = new RingList<Integer>(100);
+        WindowAggregate<Integer> total = ring.aggregate(0, sum, subtract);
+        WindowAggregate<Integer> highest = ring.aggregate(Integer.MIN_VALUE, max);
+        WindowAggregate<Integer> lowest = ring.aggregate(Integer.MAX_VALUE, min);
+
+        Random random = new Random(31);
+        int pushes = 10000;
+        for (int i = 0; i < pushes; i++) {
+            ring.push(random.nextInt(1000000));
+            assertEquals(reduce(ring, 0, sum), total.get());
+            assertEquals(reduce(ring, Integer.MIN_VALUE, max), highest.get());
+            assertEquals(reduce(ring, Integer.MAX_VALUE, min), lowest.get());
+        }
+        // push, flip and query combine each element a few times
+        assertTrue(highest.getCombines() < 4L * pushes);
+    }
+
+    public @Test void aggregatesOfTimeWindow() {
+        RingList<Integer> ring = new RingList<Integer>(1000, 10);
+        WindowAggregate<Integer> highest = ring.aggregate(Integer.MIN_VALUE, max);
+        WindowAggregate<Integer> total = ring.aggregate(0, sum, subtract);
+
+        ring.push(50, 0).push(7, 3).push(9, 8);
+        assertEquals(Integer.valueOf(50), highest.get());
+        ring.push(1, 11);
+        assertEquals(Arrays.asList(7, 9, 1), ring);
+        assertEquals(Integer.valueOf(9), highest.get());
+        assertEquals(Integer.valueOf(17), total.get());
+
+        assertEquals(2, ring.expire(19));
+        assertEquals(Arrays.asList(1), ring);
+        assertEquals(11, ring.timestamp(0));
+        assertEquals(1, ring.expire(30));
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), highest.get());
+        assertEquals(Integer.valueOf(0), total.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timestampsMustNotDecrease() {
+        new RingList<Integer>(10, 5).push(1, 10).push(2, 9);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.ListHelper;
+import com.github.bicoco.collections.functions.TransformFunction;
+
+public class SetOperationsTest {
+
+    List<Integer> left = Arrays.asList(3, 1, 2, 1, 0, 5);
+    List<Integer> right = Arrays.asList(5, 4, 1, 4, 0);
+
+    Comparator<Long> ascending = new Comparator<Long>() {
+        @Override
+        public int compare(Long a, Long b) {
+            return a < b ? -1 : (a.equals(b) ? 0 : 1);
+        }
+    };
+
+    TransformFunction<String, String> lower = new TransformFunction<String, String>() {
+        @Override
+        public String transform(String s) {
+            return s.toLowerCase();
+        }
+    };
+
+    TransformFunction<Long, Long> bucket = new TransformFunction<Long, Long>() {
+        @Override
+        public Long transform(Long value) {
+            return value / 3;
+        }
+    };
+
+    public @Test void setOperationsKeepOrder() {
+        assertEquals(Arrays.asList(3, 1, 2, 0, 5, 4), union(left, right));
+        assertEquals(Arrays.asList(1, 0, 5), intersect(left, right));
+        assertEquals(Arrays.asList(3, 2), difference(left, right));
+        assertEquals(Arrays.asList(3, 2, 4), symmetricDifference(left, right));
+        assertEquals(Arrays.asList(3), difference(Arrays.asList(2, 2, 3, 5), Arrays.asList(5, 2)));
+        assertEquals(Arrays.asList(1, 1), difference(Arrays.asList(1, 1), Arrays.<Integer>asList()));
+    }
+
+    public @Test void compareByKey() {
+        List<String> names = Arrays.asList("Ana", "bob", "Carl", "ANA");
+        List<String> others = new LinkedList<String>(Arrays.asList("BOB", "dan", "carl"));
+        assertEquals(Arrays.asList("bob", "Carl"), intersect(names, others, lower));
+        assertEquals(Arrays.asList("Ana", "ANA"), difference(names, others, lower));
+        assertEquals(Arrays.asList("Ana", "dan"), symmetricDifference(names, others, lower));
+        assertEquals(Arrays.asList("Ana", "bob", "Carl", "dan"), union(names, others, lower));
+        assertEquals(Arrays.asList("a", null), union(Arrays.asList("a", null, "a"), Arrays.asList((String) null)));
+    }
+
+    public @Test void mergeSortedListsLikeHash() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            List<Long> a = new ArrayList<Long>(), b = new ArrayList<Long>();
+            for (int i = random.nextInt(300); i > 0; i--) a.add((long) random.nextInt(200) - 50);
+            for (int i = random.nextInt(300); i > 0; i--) b.add((long) random.nextInt(200) - 50);
+            Collections.sort(a);
+            Collections.sort(b);
+            ListHelper<Long> helper = new ListHelper<Long>(a);
+
+            List<Long> union = helper.union(b);
+            Collections.sort(union);
+            assertEquals(union, helper.union(b, ascending));
+            assertEquals(helper.intersect(b), helper.intersect(b, ascending));
+            assertEquals(helper.difference(b), helper.difference(b, ascending));
+            List<Long> symmetric = helper.symmetricDifference(b);
+            Collections.sort(symmetric);
+            assertEquals(symmetric, helper.symmetricDifference(b, ascending));
+        }
+    }
+
+    public @Test void parallelMatchesSequential() {
+        Random random = new Random(9);
+        List<Long> a = new ArrayList<Long>(), b = new ArrayList<Long>();
+        for (int i = 0; i < 50000; i++) a.add((long) random.nextInt(100000));
+        for (int i = 0; i < 30000; i++) b.add((long) random.nextInt(100000));
+        ListHelper<Long> helper = new ListHelper<Long>(a);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertEquals(helper.union(b, bucket), helper.union(b, bucket, executor));
+            assertEquals(helper.intersect(b, bucket), helper.intersect(b, bucket, executor));
+            assertEquals(helper.difference(b, bucket), helper.difference(b, bucket, executor));
+            assertEquals(helper.symmetricDifference(b, bucket), helper.symmetricDifference(b, bucket, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
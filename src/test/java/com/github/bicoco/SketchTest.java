@@ -0,0 +1,125 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.sketch.Histogram;
+import com.github.bicoco.collections.sketch.TDigest;
+
+public class SketchTest {
+
+    public @Test void sampleIsRepeatableAndUniform() {
+        List<Integer> numbers = range(1000);
+        assertEquals(sample(numbers, 10, 42), sample(numbers, 10, 42));
+        assertEquals(numbers, sample(range(1000), 5000, 1));
+        assertEquals(numbers, sample(numbers, Integer.MAX_VALUE, 1));
+        assertEquals(10, new HashSet<Integer>(sample(new LinkedList<Integer>(numbers), 10, 7)).size());
+
+        int[] hits = new int[10];
+        for (int seed = 0; seed < 2000; seed++) {
+            for (int i : sample(numbers, 10, seed)) hits[i / 100]++;
+        }
+        for (int hit : hits) {
+            // 2000 expected per decile
+            assertTrue("hits " + hit, hit > 1800 && hit < 2200);
+        }
+    }
+
+    public @Test void parallelSampleIsUniform() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Integer> numbers = range(1000);
+            assertEquals(sample(numbers, 50, 3, executor), sample(numbers, 50, 3, executor));
+            assertEquals(1000, sample(numbers, Integer.MAX_VALUE, 3, executor).size());
+            int[] hits = new int[10];
+            for (int seed = 0; seed < 1000; seed++) {
+                List<Integer> sample = sample(numbers, 20, seed, executor);
+                assertEquals(20, new HashSet<Integer>(sample).size());
+                for (int i : sample) hits[i / 100]++;
+            }
+            for (int hit : hits) {
+                assertTrue("hits " + hit, hit > 1800 && hit < 2200);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public @Test void quantilesOfDigestAndHistogram() {
+        List<Long> latencies = latencies(200000, 13);
+        TDigest digest = reduce(latencies, new TDigest(100), TDigest.<Long>reducer());
+        Histogram histogram = reduce(latencies, new Histogram(7), Histogram.<Long>reducer());
+
+        List<Long> sorted = new ArrayList<Long>(latencies);
+        Collections.sort(sorted);
+        for (double q : new double[] {0.01, 0.5, 0.9, 0.99, 0.999}) {
+            double exact = sorted.get((int) Math.ceil(q * sorted.size()) - 1);
+            // the digest bounds the error in rank, the histogram in value
+            double rank = (double) upperBound(sorted, digest.quantile(q)) / sorted.size();
+            assertEquals(q, rank, Math.min(0.005, (1 - q) / 5));
+            assertEquals(exact, histogram.quantile(q), exact * 0.01);
+        }
+        assertTrue(digest.centroids() < 200);
+        assertEquals(200000, digest.count());
+        assertEquals((double) sorted.get(0), digest.quantile(0), 0);
+        assertEquals((long) last(sorted), histogram.quantile(1));
+    }
+
+    public @Test void mergePartitions() {
+        List<Long> latencies = latencies(100000, 5);
+        TDigest whole = reduce(latencies, new TDigest(100), TDigest.<Long>reducer());
+        Histogram wholeHistogram = reduce(latencies, new Histogram(7), Histogram.<Long>reducer());
+
+        TDigest merged = new TDigest(100);
+        Histogram mergedHistogram = new Histogram(7);
+        for (int from = 0; from < latencies.size(); from += 25000) {
+            List<Long> partition = latencies.subList(from, from + 25000);
+            merged.merge(reduce(partition, new TDigest(100), TDigest.<Long>reducer()));
+            mergedHistogram.merge(reduce(partition, new Histogram(7), Histogram.<Long>reducer()));
+        }
+        assertEquals(whole.count(), merged.count());
+        for (double q : new double[] {0.1, 0.5, 0.99}) {
+            assertEquals(whole.quantile(q), merged.quantile(q), whole.quantile(q) * 0.03);
+            assertEquals(wholeHistogram.quantile(q), mergedHistogram.quantile(q));
+        }
+        assertEquals(wholeHistogram.countBetween(1000, 5000), mergedHistogram.countBetween(1000, 5000));
+    }
+
+    private static int upperBound(List<Long> sorted, double value) {
+        int low = 0, high = sorted.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted.get(middle) <= value) low = middle + 1; else high = middle;
+        }
+        return low;
+    }
+
+    private static List<Long> latencies(int n, long seed) {
+        Random random = new Random(seed);
+        List<Long> list = new ArrayList<Long>();
+        for (int i = 0; i < n; i++) {
+            // log-normal latencies around 2ms, in microseconds
+            list.add((long) (2000 * Math.exp(random.nextGaussian())));
+        }
+        return list;
+    }
+
+    private static List<Integer> range(int n) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) list.add(i);
+        return list;
+    }
+
+}
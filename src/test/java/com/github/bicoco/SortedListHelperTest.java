@@ -0,0 +1,88 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.bicoco.collections.SortedListHelper;
+import com.github.bicoco.collections.functions.ConditionFunction;
+import com.github.bicoco.collections.functions.KeyFunction;
+
+public class SortedListHelperTest {
+
+    Comparator<String> byLength = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            return a.length() - b.length();
+        }
+    };
+
+    KeyFunction<Long> identity = new KeyFunction<Long>() {
+        @Override
+        public long key(Long l) {
+            return l;
+        }
+    };
+
+    public @Test void searchWithComparator() {
+        List<String> words = new ArrayList<String>(Arrays.asList("a", "bb", "cc", "ddd", "eeeee"));
+        SortedListHelper<String> helper = sorted(words, byLength);
+
+        assertEquals(1, helper.indexOf("xx"));
+        assertTrue(helper.contains("yyy"));
+        assertFalse(helper.contains("zzzz"));
+        assertEquals(Arrays.asList("bb", "cc", "ddd"), helper.range("..", "..."));
+        assertEquals(0, helper.countBetween("....", "...."));
+
+        assertEquals(3, helper.insertSorted("ff"));
+        helper.push("gggg").push("");
+        assertEquals(Arrays.asList("", "a", "bb", "cc", "ff", "ddd", "gggg", "eeeee"), words);
+    }
+
+    public @Test void searchNumericKeys() {
+        for (boolean eytzinger : new boolean[] {false, true}) {
+            Random random = new Random(29);
+            List<Long> numbers = new ArrayList<Long>();
+            for (int i = 0; i < 5000; i++) {
+                // skewed keys, so interpolation falls back to binary search
+                numbers.add(i < 4000 ? random.nextInt(1000) : random.nextLong() >>> 8);
+            }
+            Collections.sort(numbers);
+            SortedListHelper<Long> helper = sorted(numbers, identity).eytzinger(eytzinger);
+
+            for (int i = 0; i < 2000; i++) {
+                long value = i < 1000 ? random.nextInt(1100) - 50 : numbers.get(random.nextInt(numbers.size()));
+                int expected = numbers.indexOf(value);
+                assertEquals(expected, helper.indexOfKey(value));
+                assertEquals(expected >= 0, helper.contains(value));
+                assertEquals(count(numbers, between(value, value + 10)), helper.countBetweenKeys(value, value + 10));
+            }
+            assertEquals(numbers, helper.rangeOfKeys(Long.MIN_VALUE, Long.MAX_VALUE));
+
+            helper.push(500L, -1L, Long.MAX_VALUE);
+            assertEquals(Long.valueOf(-1), numbers.get(0));
+            assertEquals(Long.valueOf(Long.MAX_VALUE), last(numbers));
+            assertEquals(count(numbers, between(500, 500)), helper.countBetween(500L, 500L));
+        }
+    }
+
+    private static ConditionFunction<Long> between(final long lo, final long hi) {
+        return new ConditionFunction<Long>() {
+            @Override
+            public boolean condition(Long l) {
+                return l >= lo && l <= hi;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.github.bicoco;
+
+import static com.github.bicoco.Helpers.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.bicoco.collections.ListHelper;
+import com.github.bicoco.collections.functions.MapFunction;
+import com.github.bicoco.collections.functions.TransformFunction;
+
+public class TransformViewTest {
+
+    int calls;
+
+    TransformFunction<Integer, String> text = new TransformFunction<Integer, String>() {
+        @Override
+        public String transform(Integer i) {
+            calls++;
+            return i % 7 == 0 ? null : "#" + i;
+        }
+    };
+
+    @Before
+    public void setup() {
+        calls = 0;
+    }
+
+    public @Test void transformOnlyElementsRead() {
+        List<Integer> numbers = new ArrayList<Integer>();
+        for (int i = 0; i < 1000000; i++) numbers.add(i + 1);
+
+        List<String> view = transformView(numbers, text);
+        assertEquals("#1", first(view));
+        assertEquals("#1000000", at(view, -1));
+        assertEquals("#1", first(view));
+        assertEquals(1000000, view.size());
+        assertEquals(2, calls);
+
+        assertNull(view.get(6));
+        assertNull(view.get(6));
+        assertEquals(3, calls);
+
+        assertEquals(Arrays.asList("#9", "#10", "#11"), view.subList(8, 11));
+        assertEquals(6, calls);
+    }
+
+    public @Test void transformOnEachReadWithoutCache() {
+        List<String> view = transformView(Arrays.asList(1, 2, 3), text, false);
+        assertEquals("#2", view.get(1));
+        assertEquals("#2", view.get(1));
+        assertEquals(2, calls);
+    }
+
+    public @Test void iterateLinkedListOnce() {
+        List<Integer> numbers = new LinkedList<Integer>(Arrays.asList(1, 2, 3, 7));
+        List<String> view = transformView(numbers, text);
+        assertEquals(Arrays.asList("#1", "#2", "#3", null), new ArrayList<String>(view));
+        assertEquals("#3", view.get(2));
+        assertEquals(4, calls);
+
+        numbers.add(8);
+        assertEquals(Arrays.asList("#1", "#2", "#3", null, "#8"), new ArrayList<String>(view));
+        assertEquals(9, calls);
+    }
+
+    public @Test void dropCacheWhenListChangesKeepingSize() {
+        List<Integer> numbers = new ArrayList<Integer>(Arrays.asList(1, 2, 3));
+        List<String> view = transformView(numbers, text);
+        assertEquals(Arrays.asList("#1", "#2", "#3"), view);
+
+        numbers.remove(0);
+        numbers.add(4);
+        assertEquals(Arrays.asList("#2", "#3", "#4"), view);
+    }
+
+    public @Test void dropCacheWhenHelperChangesElements() {
+        ListHelper<Integer> helper = new ListHelper<Integer>(new ArrayList<Integer>(Arrays.asList(1, 2, 3)));
+        List<String> view = helper.transformView(text);
+        assertTrue(view instanceof RandomAccess);
+        assertEquals(Arrays.asList("#1", "#2", "#3"), view);
+
+        helper.map$(new MapFunction<Integer>() {
+            @Override
+            public Integer map(Integer i) {
+                return i * 10;
+            }
+        });
+        assertEquals(Arrays.asList("#10", "#20", "#30"), view);
+
+        helper.setAll(new int[]{1}, new Integer[]{4});
+        assertEquals(Arrays.asList("#10", "#4", "#30"), view);
+    }
+
+}